@@ -38,7 +38,8 @@ CREATE TABLE Users (
     Phone NVARCHAR(20),
     CreatedDate DATETIME DEFAULT GETDATE(),
     LastLogin DATETIME,
-    IsActive BIT DEFAULT 1
+    IsActive BIT DEFAULT 1,
+    DataVersion BIGINT NOT NULL DEFAULT 0 -- Tăng mỗi khi dữ liệu của người dùng thay đổi
 );
 
 -- Bảng Categories (Danh mục thu chi)
@@ -81,6 +82,7 @@ CREATE TABLE Budget (
     Month INT CHECK (Month BETWEEN 1 AND 12) NOT NULL,
     Year INT CHECK (Year >= 2020) NOT NULL,
     AlertThreshold DECIMAL(5,2) DEFAULT 80.0, -- Cảnh báo khi đạt % ngân sách
+    CurrentSpent DECIMAL(15,2) NOT NULL DEFAULT 0, -- Tổng chi tiêu trong kỳ, được trigger cập nhật khi giao dịch thay đổi
     CreatedDate DATETIME DEFAULT GETDATE(),
     ModifiedDate DATETIME DEFAULT GETDATE(),
     FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE,
@@ -88,6 +90,24 @@ CREATE TABLE Budget (
     UNIQUE (UserID, CategoryID, Month, Year)
 );
 
+-- Bảng PeriodBudgets (Ngân sách theo tuần, quý, năm hoặc N ngày gần nhất)
+-- Tuần bắt đầu từ thứ Hai, quý và năm theo lịch; ROLLING là RollingDays ngày tính đến hôm nay
+CREATE TABLE PeriodBudgets (
+    PeriodBudgetID INT PRIMARY KEY IDENTITY(1,1),
+    UserID INT NOT NULL,
+    CategoryID INT NOT NULL,
+    PeriodType NVARCHAR(20) CHECK (PeriodType IN ('WEEK', 'QUARTER', 'YEAR', 'ROLLING')) NOT NULL,
+    RollingDays INT NOT NULL DEFAULT 0, -- Chỉ dùng cho ROLLING
+    BudgetAmount DECIMAL(15,2) NOT NULL CHECK (BudgetAmount > 0),
+    AlertThreshold DECIMAL(5,2) DEFAULT 80.0,
+    CreatedDate DATETIME DEFAULT GETDATE(),
+    ModifiedDate DATETIME DEFAULT GETDATE(),
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE,
+    FOREIGN KEY (CategoryID) REFERENCES Categories(CategoryID),
+    CHECK ((PeriodType = 'ROLLING' AND RollingDays BETWEEN 1 AND 366) OR (PeriodType <> 'ROLLING' AND RollingDays = 0)),
+    UNIQUE (UserID, CategoryID, PeriodType, RollingDays)
+);
+
 -- Bảng Savings (Mục tiêu tiết kiệm)
 CREATE TABLE Savings (
     SavingID INT PRIMARY KEY IDENTITY(1,1),
@@ -134,6 +154,85 @@ CREATE TABLE RecurringTransactions (
     FOREIGN KEY (CategoryID) REFERENCES Categories(CategoryID)
 );
 
+-- Bảng CacheInvalidations (Thông báo làm mới cache giữa các instance)
+-- Sequence tăng dần, mỗi instance đọc các dòng có Sequence lớn hơn dòng đã xử lý
+-- và đọc lại các dòng tạo trong 30 giây gần nhất (dòng commit muộn hơn dòng có Sequence lớn hơn)
+CREATE TABLE CacheInvalidations (
+    Sequence BIGINT PRIMARY KEY IDENTITY(1,1),
+    Region NVARCHAR(50) NOT NULL,
+    UserID INT NOT NULL,
+    SourceInstance NVARCHAR(50) NOT NULL,
+    CreatedDate DATETIME DEFAULT GETDATE()
+);
+
+-- Bảng MonthlyStatements (Sao kê cuối tháng của từng người dùng)
+-- Ảnh chụp thu chi, ngân sách và tiết kiệm tại thời điểm chốt tháng
+CREATE TABLE MonthlyStatements (
+    UserID INT NOT NULL,
+    Month INT CHECK (Month BETWEEN 1 AND 12) NOT NULL,
+    Year INT NOT NULL,
+    TotalIncome DECIMAL(15,2) NOT NULL DEFAULT 0,
+    TotalExpense DECIMAL(15,2) NOT NULL DEFAULT 0,
+    IncomeCount INT NOT NULL DEFAULT 0,
+    ExpenseCount INT NOT NULL DEFAULT 0,
+    BudgetCount INT NOT NULL DEFAULT 0,
+    TotalBudgetAmount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    TotalSpentAmount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    WarningCount INT NOT NULL DEFAULT 0,
+    ExceededCount INT NOT NULL DEFAULT 0,
+    SavingCount INT NOT NULL DEFAULT 0,
+    CompletedSavingCount INT NOT NULL DEFAULT 0,
+    HighPrioritySavingCount INT NOT NULL DEFAULT 0,
+    OverdueSavingCount INT NOT NULL DEFAULT 0,
+    TotalTargetAmount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    TotalSavedAmount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    CreatedDate DATETIME DEFAULT GETDATE(),
+    PRIMARY KEY (UserID, Year, Month),
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE
+);
+
+-- Bảng StatementRuns (Tiến độ chạy sao kê theo tháng)
+-- LastUserID là người dùng cuối cùng đã được lưu, lần chạy lại sẽ tiếp tục từ người dùng kế tiếp
+CREATE TABLE StatementRuns (
+    Month INT CHECK (Month BETWEEN 1 AND 12) NOT NULL,
+    Year INT NOT NULL,
+    LastUserID INT NOT NULL DEFAULT 0,
+    ProcessedCount INT NOT NULL DEFAULT 0,
+    Status NVARCHAR(20) CHECK (Status IN ('RUNNING', 'COMPLETED')) NOT NULL,
+    StartedDate DATETIME DEFAULT GETDATE(),
+    ModifiedDate DATETIME DEFAULT GETDATE(),
+    PRIMARY KEY (Year, Month)
+);
+
+-- Bảng CategorySpendBuckets (Phân phối số tiền giao dịch theo danh mục và tháng)
+-- Mỗi dòng là một bucket logarit của sketch (sai số tương đối 1%), dùng để tính trung vị, p90
+-- và phát hiện giao dịch bất thường mà không cần quét lại lịch sử; các tháng được gộp lại để có số liệu theo năm.
+-- Được trigger tr_UpdateCategorySpendBuckets cập nhật trong cùng transaction với giao dịch
+CREATE TABLE CategorySpendBuckets (
+    UserID INT NOT NULL,
+    Year INT NOT NULL,
+    Month INT CHECK (Month BETWEEN 1 AND 12) NOT NULL,
+    CategoryID INT NOT NULL,
+    Bucket INT NOT NULL,
+    SampleCount INT NOT NULL DEFAULT 0,
+    TotalAmount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (UserID, Year, Month, CategoryID, Bucket),
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE,
+    FOREIGN KEY (CategoryID) REFERENCES Categories(CategoryID)
+);
+
+-- Bảng DailySpendBuckets (Tổng thu chi theo ngày của từng người dùng)
+-- Được trigger tr_UpdateDailySpendBuckets cập nhật, dùng cho biểu đồ theo ngày và heatmap cả năm
+CREATE TABLE DailySpendBuckets (
+    UserID INT NOT NULL,
+    TransactionType NVARCHAR(20) CHECK (TransactionType IN ('INCOME', 'EXPENSE')) NOT NULL,
+    SpendDate DATE NOT NULL,
+    Amount DECIMAL(15,2) NOT NULL DEFAULT 0,
+    TransactionCount INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (UserID, TransactionType, SpendDate),
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE
+);
+
 -- =====================================================
 -- 3. TẠO INDEX ĐỂ TỐI ƯU HIỆU SUẤT
 -- =====================================================
@@ -149,6 +248,21 @@ CREATE INDEX IX_Budget_UserID_Month_Year ON Budget(UserID, Month, Year);
 -- Index cho bảng Categories
 CREATE INDEX IX_Categories_UserID_Type ON Categories(UserID, CategoryType);
 
+-- Index cho bảng Savings
+-- Tên mục tiêu không trùng trong cùng một người dùng (không phân biệt hoa thường theo collation mặc định)
+CREATE UNIQUE INDEX UX_Savings_UserID_SavingName ON Savings(UserID, SavingName);
+-- Chỉ các mục tiêu chưa hoàn thành, dùng cho danh sách đang hoạt động và kiểm tra cần chú ý
+CREATE INDEX IX_Savings_UserID_Active ON Savings(UserID, Priority DESC, TargetDate)
+    INCLUDE (TargetAmount, CurrentAmount)
+    WHERE IsCompleted = 0;
+
+-- Index cho bảng SavingTransactions (tổng hợp lịch sử gửi tiền theo mục tiêu)
+CREATE INDEX IX_SavingTransactions_SavingID_Date ON SavingTransactions(SavingID, TransactionDate)
+    INCLUDE (TransactionType, Amount);
+
+-- Index cho bảng CacheInvalidations (dọn dẹp theo thời gian)
+CREATE INDEX IX_CacheInvalidations_CreatedDate ON CacheInvalidations(CreatedDate);
+
 -- =====================================================
 -- 4. TẠO CÁC VIEW HỮU ÍCH
 -- =====================================================
@@ -159,6 +273,7 @@ CREATE VIEW vw_TransactionDetails AS
 SELECT 
     t.TransactionID,
     t.UserID,
+    t.CategoryID,
     t.Amount,
     t.TransactionType,
     t.Description,
@@ -235,62 +350,127 @@ CREATE PROCEDURE sp_CheckBudgetAlert
     @Year INT
 AS
 BEGIN
+    -- CurrentSpent được duy trì bởi tr_UpdateBudgetSpent, không cần quét bảng Transactions
     SELECT 
         b.BudgetID,
         b.BudgetAmount,
         c.CategoryName,
-        ISNULL(spent.TotalSpent, 0) as CurrentSpent,
+        b.CurrentSpent,
+        -- Cùng ngưỡng với Budget.isWarning: chạm đúng ngưỡng cảnh báo đã là WARNING
         CASE 
-            WHEN ISNULL(spent.TotalSpent, 0) > b.BudgetAmount THEN 'EXCEEDED'
-            WHEN ISNULL(spent.TotalSpent, 0) > (b.BudgetAmount * b.AlertThreshold / 100) THEN 'WARNING'
+            WHEN b.CurrentSpent > b.BudgetAmount THEN 'EXCEED'
+            WHEN b.CurrentSpent * 100 >= b.BudgetAmount * b.AlertThreshold THEN 'WARNING'
             ELSE 'OK'
         END as Status,
-        ((ISNULL(spent.TotalSpent, 0) / b.BudgetAmount) * 100) as UsagePercentage
+        ((b.CurrentSpent / b.BudgetAmount) * 100) as UsagePercentage
     FROM Budget b
     INNER JOIN Categories c ON b.CategoryID = c.CategoryID
-    LEFT JOIN (
-        SELECT 
-            CategoryID,
-            SUM(Amount) as TotalSpent
-        FROM Transactions 
-        WHERE UserID = @UserID 
-            AND MONTH(TransactionDate) = @Month 
-            AND YEAR(TransactionDate) = @Year
-            AND TransactionType = 'EXPENSE'
-        GROUP BY CategoryID
-    ) spent ON b.CategoryID = spent.CategoryID
     WHERE b.UserID = @UserID 
         AND b.Month = @Month 
         AND b.Year = @Year;
 END;
 GO
 
+-- Procedure kiểm tra ngân sách theo kỳ (tuần, quý, năm, N ngày) tại một ngày
+-- Chi tiêu theo ngày và danh mục được tổng hợp một lần rồi dùng chung cho mọi kỳ chồng lên nhau
+CREATE PROCEDURE sp_CheckPeriodBudgets
+    @UserID INT,
+    @AsOfDate DATE
+AS
+BEGIN
+    SET NOCOUNT ON;
+
+    WITH Periods AS (
+        SELECT pb.*,
+            CASE pb.PeriodType
+                -- 01/01/1900 là thứ Hai
+                WHEN 'WEEK' THEN DATEADD(DAY, -(DATEDIFF(DAY, '19000101', @AsOfDate) % 7), @AsOfDate)
+                WHEN 'QUARTER' THEN DATEFROMPARTS(YEAR(@AsOfDate), (DATEPART(QUARTER, @AsOfDate) - 1) * 3 + 1, 1)
+                WHEN 'YEAR' THEN DATEFROMPARTS(YEAR(@AsOfDate), 1, 1)
+                ELSE DATEADD(DAY, 1 - pb.RollingDays, @AsOfDate)
+            END as PeriodStart
+        FROM PeriodBudgets pb
+        WHERE pb.UserID = @UserID
+    ),
+    Daily AS (
+        SELECT CategoryID, CAST(TransactionDate AS DATE) as SpendDate, SUM(Amount) as Amount
+        FROM Transactions
+        WHERE UserID = @UserID AND TransactionType = 'EXPENSE'
+            AND TransactionDate >= (SELECT MIN(PeriodStart) FROM Periods)
+            AND TransactionDate < DATEADD(DAY, 1, @AsOfDate)
+        GROUP BY CategoryID, CAST(TransactionDate AS DATE)
+    ),
+    Spent AS (
+        SELECT p.PeriodBudgetID, p.PeriodStart, ISNULL(SUM(d.Amount), 0) as CurrentSpent
+        FROM Periods p
+        LEFT JOIN Daily d ON d.CategoryID = p.CategoryID AND d.SpendDate >= p.PeriodStart
+        GROUP BY p.PeriodBudgetID, p.PeriodStart
+    )
+    SELECT
+        pb.*,
+        c.CategoryName,
+        c.Color as CategoryColor,
+        s.PeriodStart,
+        CASE pb.PeriodType
+            WHEN 'WEEK' THEN DATEADD(DAY, 6, s.PeriodStart)
+            WHEN 'QUARTER' THEN DATEADD(DAY, -1, DATEADD(MONTH, 3, s.PeriodStart))
+            WHEN 'YEAR' THEN DATEFROMPARTS(YEAR(@AsOfDate), 12, 31)
+            ELSE @AsOfDate
+        END as PeriodEnd,
+        -- Trạng thái được tính ở ứng dụng (PeriodBudget.calculateStatus)
+        s.CurrentSpent
+    FROM PeriodBudgets pb
+    INNER JOIN Spent s ON s.PeriodBudgetID = pb.PeriodBudgetID
+    INNER JOIN Categories c ON pb.CategoryID = c.CategoryID
+    ORDER BY pb.PeriodType, c.CategoryName;
+END;
+GO
+
 -- Procedure cập nhật tiến độ tiết kiệm
+-- Số dư được cộng/trừ tại chỗ trong một câu UPDATE nên các lần gửi/rút đồng thời không làm mất nhau.
+-- Gửi tiền chỉ khi mục tiêu chưa hoàn thành, rút tiền chỉ khi đủ số dư; @UserID (nếu có) phải là chủ mục tiêu.
+-- Trả về giao dịch vừa tạo cùng số dư mới, không có dòng nào khi giao dịch bị từ chối.
 CREATE PROCEDURE sp_UpdateSavingProgress
     @SavingID INT,
     @Amount DECIMAL(15,2),
     @TransactionType NVARCHAR(20),
-    @Description NVARCHAR(255)
+    @Description NVARCHAR(255),
+    @UserID INT = NULL
 AS
 BEGIN
+    SET NOCOUNT ON;
+    SET XACT_ABORT ON;
+
+    DECLARE @Delta DECIMAL(15,2) = CASE WHEN @TransactionType = 'DEPOSIT' THEN @Amount ELSE -@Amount END;
+    DECLARE @SavingTransactionID INT = NULL;
+    DECLARE @Updated TABLE (CurrentAmount DECIMAL(15,2), TargetAmount DECIMAL(15,2), IsCompleted BIT, CompletedDate DATETIME);
+
     BEGIN TRANSACTION;
-    
-    -- Thêm giao dịch tiết kiệm
-    INSERT INTO SavingTransactions (SavingID, Amount, TransactionType, Description, TransactionDate)
-    VALUES (@SavingID, @Amount, @TransactionType, @Description, GETDATE());
-    
-    -- Cập nhật số tiền hiện tại
-    UPDATE Savings 
-    SET CurrentAmount = CurrentAmount + 
-        CASE WHEN @TransactionType = 'DEPOSIT' THEN @Amount ELSE -@Amount END
-    WHERE SavingID = @SavingID;
-    
-    -- Kiểm tra nếu đạt mục tiêu
-    UPDATE Savings 
-    SET IsCompleted = 1, CompletedDate = GETDATE()
-    WHERE SavingID = @SavingID AND CurrentAmount >= TargetAmount AND IsCompleted = 0;
-    
+
+    -- Cập nhật số dư và trạng thái hoàn thành trong cùng một câu lệnh
+    UPDATE Savings
+    SET CurrentAmount = CurrentAmount + @Delta,
+        IsCompleted = CASE WHEN CurrentAmount + @Delta >= TargetAmount THEN 1 ELSE 0 END,
+        CompletedDate = CASE WHEN CurrentAmount + @Delta >= TargetAmount THEN ISNULL(CompletedDate, GETDATE()) ELSE NULL END
+    OUTPUT inserted.CurrentAmount, inserted.TargetAmount, inserted.IsCompleted, inserted.CompletedDate INTO @Updated
+    WHERE SavingID = @SavingID
+        AND @Amount > 0
+        AND (@UserID IS NULL OR UserID = @UserID)
+        AND ((@TransactionType = 'DEPOSIT' AND ISNULL(IsCompleted, 0) = 0)
+             OR (@TransactionType = 'WITHDRAW' AND CurrentAmount >= @Amount));
+
+    -- Thêm giao dịch tiết kiệm khi số dư đã được cập nhật
+    IF EXISTS (SELECT 1 FROM @Updated)
+    BEGIN
+        INSERT INTO SavingTransactions (SavingID, Amount, TransactionType, Description, TransactionDate)
+        VALUES (@SavingID, @Amount, @TransactionType, @Description, GETDATE());
+        SET @SavingTransactionID = SCOPE_IDENTITY();
+    END
+
     COMMIT TRANSACTION;
+
+    SELECT @SavingTransactionID as SavingTransactionID, CurrentAmount, TargetAmount, IsCompleted, CompletedDate
+    FROM @Updated;
 END;
 GO
 
@@ -364,6 +544,195 @@ BEGIN
 END;
 GO
 
+-- Trigger cập nhật CurrentSpent của ngân sách khi giao dịch chi tiêu được thêm, sửa hoặc xóa
+-- Cộng giá trị mới (inserted) và trừ giá trị cũ (deleted) theo (người dùng, danh mục, tháng, năm),
+-- nên việc đổi danh mục, ngày hoặc loại giao dịch cũng được xử lý đúng
+CREATE TRIGGER tr_UpdateBudgetSpent
+ON Transactions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+
+    -- Bỏ qua các UPDATE không ảnh hưởng đến số tiền đã chi (ví dụ ModifiedDate)
+    IF EXISTS (SELECT 1 FROM inserted) AND EXISTS (SELECT 1 FROM deleted)
+        AND NOT (UPDATE(Amount) OR UPDATE(CategoryID) OR UPDATE(TransactionDate)
+                 OR UPDATE(TransactionType) OR UPDATE(UserID))
+        RETURN;
+
+    UPDATE b
+    SET CurrentSpent = b.CurrentSpent + d.Delta
+    FROM Budget b
+    INNER JOIN (
+        SELECT UserID, CategoryID, MONTH(TransactionDate) as [Month], YEAR(TransactionDate) as [Year],
+               SUM(Amount) as Delta
+        FROM (
+            SELECT UserID, CategoryID, TransactionDate, Amount FROM inserted WHERE TransactionType = 'EXPENSE'
+            UNION ALL
+            SELECT UserID, CategoryID, TransactionDate, -Amount FROM deleted WHERE TransactionType = 'EXPENSE'
+        ) changes
+        GROUP BY UserID, CategoryID, MONTH(TransactionDate), YEAR(TransactionDate)
+    ) d ON b.UserID = d.UserID AND b.CategoryID = d.CategoryID
+        AND b.Month = d.[Month] AND b.Year = d.[Year]
+    WHERE d.Delta <> 0;
+END;
+GO
+
+-- Trigger cập nhật tổng theo ngày (DailySpendBuckets) khi giao dịch được thêm, sửa hoặc xóa
+-- Cộng giá trị mới và trừ giá trị cũ theo (người dùng, loại, ngày); ngày không còn giao dịch bị xóa khỏi bảng
+CREATE TRIGGER tr_UpdateDailySpendBuckets
+ON Transactions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+
+    -- Bỏ qua các UPDATE không ảnh hưởng đến tổng theo ngày
+    IF EXISTS (SELECT 1 FROM inserted) AND EXISTS (SELECT 1 FROM deleted)
+        AND NOT (UPDATE(Amount) OR UPDATE(TransactionDate) OR UPDATE(TransactionType) OR UPDATE(UserID))
+        RETURN;
+
+    MERGE DailySpendBuckets AS b
+    USING (
+        SELECT UserID, TransactionType, CAST(TransactionDate AS DATE) as SpendDate,
+               SUM(Amount) as AmountDelta, SUM(CountDelta) as CountDelta
+        FROM (
+            SELECT UserID, TransactionType, TransactionDate, Amount, 1 as CountDelta FROM inserted
+            UNION ALL
+            SELECT UserID, TransactionType, TransactionDate, -Amount, -1 FROM deleted
+        ) changes
+        GROUP BY UserID, TransactionType, CAST(TransactionDate AS DATE)
+    ) d ON b.UserID = d.UserID AND b.TransactionType = d.TransactionType AND b.SpendDate = d.SpendDate
+    WHEN MATCHED AND b.TransactionCount + d.CountDelta <= 0 THEN
+        DELETE
+    WHEN MATCHED THEN
+        UPDATE SET Amount = b.Amount + d.AmountDelta, TransactionCount = b.TransactionCount + d.CountDelta
+    WHEN NOT MATCHED BY TARGET AND d.CountDelta > 0 THEN
+        INSERT (UserID, TransactionType, SpendDate, Amount, TransactionCount)
+        VALUES (d.UserID, d.TransactionType, d.SpendDate, d.AmountDelta, d.CountDelta);
+END;
+GO
+
+-- Trigger cập nhật sketch số tiền theo danh mục (CategorySpendBuckets) khi giao dịch được thêm, sửa hoặc xóa
+-- Bucket = CEILING(LOG(số tiền theo đơn vị nhỏ) / LOG(1.01 / 0.99)), cùng công thức với QuantileSketch
+CREATE TRIGGER tr_UpdateCategorySpendBuckets
+ON Transactions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+
+    -- Bỏ qua các UPDATE không ảnh hưởng đến sketch
+    IF EXISTS (SELECT 1 FROM inserted) AND EXISTS (SELECT 1 FROM deleted)
+        AND NOT (UPDATE(Amount) OR UPDATE(TransactionDate) OR UPDATE(CategoryID) OR UPDATE(UserID))
+        RETURN;
+
+    MERGE CategorySpendBuckets AS b
+    USING (
+        SELECT UserID, YEAR(TransactionDate) as [Year], MONTH(TransactionDate) as [Month], CategoryID,
+               CAST(CEILING(LOG(ABS(Amount) * 100E0) / LOG(1.01E0 / 0.99E0)) AS INT) as Bucket,
+               SUM(Amount) as AmountDelta, SUM(CountDelta) as CountDelta
+        FROM (
+            SELECT UserID, TransactionDate, CategoryID, Amount, 1 as CountDelta FROM inserted
+            UNION ALL
+            SELECT UserID, TransactionDate, CategoryID, -Amount, -1 FROM deleted
+        ) changes
+        GROUP BY UserID, YEAR(TransactionDate), MONTH(TransactionDate), CategoryID,
+                 CAST(CEILING(LOG(ABS(Amount) * 100E0) / LOG(1.01E0 / 0.99E0)) AS INT)
+    ) d ON b.UserID = d.UserID AND b.Year = d.[Year] AND b.Month = d.[Month]
+        AND b.CategoryID = d.CategoryID AND b.Bucket = d.Bucket
+    WHEN MATCHED AND b.SampleCount + d.CountDelta <= 0 THEN
+        DELETE
+    WHEN MATCHED THEN
+        UPDATE SET SampleCount = b.SampleCount + d.CountDelta, TotalAmount = b.TotalAmount + d.AmountDelta
+    WHEN NOT MATCHED BY TARGET AND d.CountDelta > 0 THEN
+        INSERT (UserID, Year, Month, CategoryID, Bucket, SampleCount, TotalAmount)
+        VALUES (d.UserID, d.[Year], d.[Month], d.CategoryID, d.Bucket, d.CountDelta, d.AmountDelta);
+END;
+GO
+
+-- Trigger tăng DataVersion của người dùng khi giao dịch thay đổi
+-- (chạy trong cùng transaction với câu lệnh ghi nên phiên bản luôn khớp với dữ liệu)
+CREATE TRIGGER tr_BumpDataVersion_Transactions
+ON Transactions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (SELECT UserID FROM inserted UNION SELECT UserID FROM deleted);
+END;
+GO
+
+-- Trigger tăng DataVersion khi ngân sách thay đổi
+CREATE TRIGGER tr_BumpDataVersion_Budget
+ON Budget
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (SELECT UserID FROM inserted UNION SELECT UserID FROM deleted);
+END;
+GO
+
+-- Trigger tăng DataVersion khi ngân sách theo kỳ thay đổi
+CREATE TRIGGER tr_BumpDataVersion_PeriodBudgets
+ON PeriodBudgets
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (SELECT UserID FROM inserted UNION SELECT UserID FROM deleted);
+END;
+GO
+
+-- Trigger tăng DataVersion khi mục tiêu tiết kiệm thay đổi
+CREATE TRIGGER tr_BumpDataVersion_Savings
+ON Savings
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (SELECT UserID FROM inserted UNION SELECT UserID FROM deleted);
+END;
+GO
+
+-- Trigger tăng DataVersion khi giao dịch tiết kiệm thay đổi
+CREATE TRIGGER tr_BumpDataVersion_SavingTransactions
+ON SavingTransactions
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (
+        SELECT s.UserID FROM Savings s
+        WHERE s.SavingID IN (SELECT SavingID FROM inserted UNION SELECT SavingID FROM deleted)
+    );
+END;
+GO
+
+-- Trigger tăng DataVersion khi danh mục thay đổi (danh mục mặc định có UserID NULL nên được bỏ qua)
+CREATE TRIGGER tr_BumpDataVersion_Categories
+ON Categories
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    UPDATE Users
+    SET DataVersion = DataVersion + 1
+    WHERE UserID IN (SELECT UserID FROM inserted UNION SELECT UserID FROM deleted);
+END;
+GO
+
 -- =====================================================
 -- 8. THÊM DỮ LIỆU MẪU
 -- =====================================================
@@ -446,6 +815,16 @@ INSERT INTO Budget (UserID, CategoryID, BudgetAmount, Month, Year, AlertThreshol
 (@AdminID, @CategoryEntertainment, 1500000, 8, 2025, 75.0),
 (@AdminID, @CategoryBills, 2000000, 8, 2025, 90.0);
 
+-- Tính CurrentSpent ban đầu cho ngân sách mẫu (giao dịch đã được thêm trước ngân sách)
+UPDATE b
+SET CurrentSpent = ISNULL((
+    SELECT SUM(t.Amount) FROM Transactions t
+    WHERE t.UserID = b.UserID AND t.CategoryID = b.CategoryID AND t.TransactionType = 'EXPENSE'
+        AND t.TransactionDate >= DATEFROMPARTS(b.Year, b.Month, 1)
+        AND t.TransactionDate < DATEADD(MONTH, 1, DATEFROMPARTS(b.Year, b.Month, 1))
+), 0)
+FROM Budget b;
+
 -- Thêm mục tiêu tiết kiệm mẫu
 INSERT INTO Savings (UserID, SavingName, Description, TargetAmount, CurrentAmount, TargetDate, Priority) VALUES 
 (@AdminID, N'Mua xe máy mới', N'Tiết kiệm để mua Honda Vision', 50000000, 15000000, '2025-12-31', 4),
@@ -26,6 +26,7 @@ public class ExpenseManagerApp {
             System.err.println("Please check your database configuration.");
             return; // Exit if can't connect to database
         }
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::closeIdleConnections));
         
 //        // Start the application
 //        SwingUtilities.invokeLater(() -> {
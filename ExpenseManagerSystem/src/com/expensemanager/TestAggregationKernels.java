@@ -0,0 +1,209 @@
+package com.expensemanager;
+
+import com.expensemanager.analytics.AggregationKernels;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Checks every aggregation kernel against a plain scalar loop, no database needed.
+// Bitmaps mix full, empty and random words; ranges start and end inside words and the row
+// count is not a multiple of 64, so the last word is partial. Then times the kernels
+// against the scalar loops on 4 million rows.
+public class TestAggregationKernels {
+
+    private static final int ROWS = 4000037;
+    private static final int KEYS = 32;
+    private static final int DAYS = 730;
+    private static final int RANDOM_RANGES = 2000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+
+    // Keeps the benchmarked results alive so the JIT cannot drop the loops
+    private static long sink;
+
+    public static void main(String[] args) {
+        System.out.println("=== TESTING AGGREGATION KERNELS ===\n");
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[ROWS];
+        int[] keys = new int[ROWS];
+        int[] days = new int[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            values[row] = random.nextLong(1, 100000000L);
+            keys[row] = random.nextInt(KEYS);
+            days[row] = random.nextInt(DAYS);
+        }
+        long[] bits = randomBitmap(random, ROWS);
+
+        // 1. Fixed edge ranges: empty, one row, word edges, partial last word, everything
+        System.out.println("1. Testing edge ranges:");
+        int[][] edges = {
+            {0, 0}, {5, 5}, {0, 1}, {63, 64}, {64, 128}, {1, 63}, {60, 70},
+            {ROWS - 1, ROWS}, {ROWS - ROWS % 64, ROWS}, {ROWS - 100, ROWS}, {0, ROWS}
+        };
+        int failures = 0;
+        for (int[] edge : edges) {
+            failures += compareAll(values, keys, days, bits, edge[0], edge[1]);
+        }
+        check(edges.length + " edge ranges match the scalar loops", failures == 0);
+
+        // 2. Random unaligned ranges over the same bitmap
+        System.out.println("\n2. Testing random ranges:");
+        failures = 0;
+        for (int i = 0; i < RANDOM_RANGES; i++) {
+            int from = random.nextInt(ROWS);
+            int to = from + random.nextInt(Math.min(ROWS - from, 5000) + 1);
+            failures += compareAll(values, keys, days, bits, from, to);
+        }
+        check(RANDOM_RANGES + " random ranges match the scalar loops", failures == 0);
+
+        // 3. Sorted column search
+        System.out.println("\n3. Testing lowerBound:");
+        int[] sorted = Arrays.copyOf(days, 10000);
+        Arrays.sort(sorted);
+        failures = 0;
+        for (int key = -1; key <= DAYS; key++) {
+            int expected = 0;
+            while (expected < sorted.length && sorted[expected] < key) expected++;
+            if (AggregationKernels.lowerBound(sorted, sorted.length, key) != expected) failures++;
+        }
+        check("lowerBound matches a linear search for " + (DAYS + 2) + " keys", failures == 0);
+
+        // 4. Throughput against the scalar loops, full range
+        System.out.println("\n4. Benchmark " + ROWS + " rows:");
+        long[] sums = new long[KEYS];
+        int[] counts = new int[KEYS];
+        long[] daily = new long[DAYS];
+        benchmark("maskedSum", () -> sink += AggregationKernels.maskedSum(values, bits, true, 0, ROWS),
+                () -> sink += scalarSum(values, bits, true, 0, ROWS));
+        benchmark("maskedCount", () -> sink += AggregationKernels.maskedCount(bits, true, 0, ROWS),
+                () -> sink += scalarCount(bits, true, 0, ROWS));
+        benchmark("maskedHistogram", () -> AggregationKernels.maskedHistogram(keys, values, bits, true, 0, ROWS, sums, counts),
+                () -> scalarHistogram(keys, values, bits, true, 0, ROWS, sums, counts));
+        benchmark("maskedDailySums", () -> AggregationKernels.maskedDailySums(days, values, bits, true, 0, ROWS, 0, daily),
+                () -> scalarDailySums(days, values, bits, true, 0, ROWS, 0, daily));
+        benchmark("sum", () -> sink += AggregationKernels.sum(values, 0, ROWS), () -> sink += scalarSum(values, null, true, 0, ROWS));
+
+        System.out.println("\n=== AGGREGATION KERNEL TESTS COMPLETED ===");
+    }
+
+    // Runs of full words, empty words and random words, roughly a third each
+    private static long[] randomBitmap(SplittableRandom random, int rows) {
+        long[] bits = new long[(rows + 63) >>> 6];
+        for (int word = 0; word < bits.length; ) {
+            int run = 1 + random.nextInt(8);
+            int kind = random.nextInt(3);
+            for (int end = Math.min(bits.length, word + run); word < end; word++) {
+                bits[word] = kind == 0 ? -1L : kind == 1 ? 0L : random.nextLong();
+            }
+        }
+        return bits;
+    }
+
+    // Compare every masked kernel with both selections, returns the number of mismatches
+    private static int compareAll(long[] values, int[] keys, int[] days, long[] bits, int from, int to) {
+        int failures = 0;
+        for (boolean selected : new boolean[] {true, false}) {
+            if (AggregationKernels.maskedSum(values, bits, selected, from, to) != scalarSum(values, bits, selected, from, to)) {
+                report("maskedSum", selected, from, to);
+                failures++;
+            }
+            if (AggregationKernels.maskedCount(bits, selected, from, to) != scalarCount(bits, selected, from, to)) {
+                report("maskedCount", selected, from, to);
+                failures++;
+            }
+
+            long[] sums = new long[KEYS];
+            int[] counts = new int[KEYS];
+            long[] expectedSums = new long[KEYS];
+            int[] expectedCounts = new int[KEYS];
+            AggregationKernels.maskedHistogram(keys, values, bits, selected, from, to, sums, counts);
+            scalarHistogram(keys, values, bits, selected, from, to, expectedSums, expectedCounts);
+            if (!Arrays.equals(sums, expectedSums) || !Arrays.equals(counts, expectedCounts)) {
+                report("maskedHistogram", selected, from, to);
+                failures++;
+            }
+
+            long[] daily = new long[DAYS];
+            long[] expectedDaily = new long[DAYS];
+            AggregationKernels.maskedDailySums(days, values, bits, selected, from, to, 0, daily);
+            scalarDailySums(days, values, bits, selected, from, to, 0, expectedDaily);
+            if (!Arrays.equals(daily, expectedDaily)) {
+                report("maskedDailySums", selected, from, to);
+                failures++;
+            }
+        }
+        if (AggregationKernels.sum(values, from, to) != scalarSum(values, null, true, from, to)) {
+            report("sum", true, from, to);
+            failures++;
+        }
+        return failures;
+    }
+
+    // Scalar references, one row at a time; bits null selects every row
+
+    private static boolean isSelected(long[] bits, boolean selected, int row) {
+        return bits == null || (((bits[row >>> 6] >>> row) & 1L) != 0) == selected;
+    }
+
+    private static long scalarSum(long[] values, long[] bits, boolean selected, int from, int to) {
+        long total = 0;
+        for (int row = from; row < to; row++) {
+            if (isSelected(bits, selected, row)) total += values[row];
+        }
+        return total;
+    }
+
+    private static int scalarCount(long[] bits, boolean selected, int from, int to) {
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (isSelected(bits, selected, row)) count++;
+        }
+        return count;
+    }
+
+    private static void scalarHistogram(int[] keys, long[] values, long[] bits, boolean selected,
+                                        int from, int to, long[] sums, int[] counts) {
+        for (int row = from; row < to; row++) {
+            if (isSelected(bits, selected, row)) {
+                sums[keys[row]] += values[row];
+                counts[keys[row]]++;
+            }
+        }
+    }
+
+    private static void scalarDailySums(int[] days, long[] values, long[] bits, boolean selected,
+                                        int from, int to, int firstDay, long[] sums) {
+        for (int row = from; row < to; row++) {
+            if (isSelected(bits, selected, row)) sums[days[row] - firstDay] += values[row];
+        }
+    }
+
+    private static void benchmark(String name, Runnable kernel, Runnable scalar) {
+        double kernelMillis = time(kernel);
+        double scalarMillis = time(scalar);
+        System.out.println(String.format("  %-16s kernel %7.2f ms, scalar %7.2f ms, %.1fx",
+                name, kernelMillis, scalarMillis, scalarMillis / kernelMillis));
+    }
+
+    // Average of the measured runs after a warm-up, in milliseconds
+    private static double time(Runnable task) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            task.run();
+        }
+        long total = 0;
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            task.run();
+            total += System.nanoTime() - start;
+        }
+        return total / (MEASURED_RUNS * 1e6);
+    }
+
+    private static void report(String kernel, boolean selected, int from, int to) {
+        System.out.println("  mismatch in " + kernel + " (selected=" + selected + ") for [" + from + ", " + to + ")");
+    }
+
+    private static void check(String message, boolean passed) {
+        System.out.println((passed ? "✓ " : "✗ ") + message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.expensemanager;
+
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.dao.*;
+import com.expensemanager.model.*;
+import com.expensemanager.service.ServiceResult;
+import com.expensemanager.service.budget.BudgetService;
+import com.expensemanager.service.budget.BudgetSummary;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Checks that the budget read, summary, copy and planning paths issue a fixed number of statements, however many budgets there are.
+// Works on budgets of 2049 for the sample admin user and removes them afterwards.
+public class TestBudgetQueries {
+
+    private static final int TEST_YEAR = 2049;
+
+    public static void main(String[] args) {
+        System.out.println("=== TESTING BUDGET QUERY COUNTS ===\n");
+
+        if (!DatabaseConnection.testConnection()) {
+            System.err.println("Database connection failed. Cannot proceed with tests.");
+            return;
+        }
+
+        DAOFactory daoFactory = DAOFactory.getInstance();
+        User testUser = daoFactory.getUserDAO().findUser("admin", "admin123");
+        if (testUser == null) {
+            System.err.println("Sample user not found. Please check database setup.");
+            return;
+        }
+
+        int userID = testUser.getUserID();
+        List<Category> categories = daoFactory.getCategoryDAO().getCategoriesByUserAndType(userID, "EXPENSE");
+        if (categories.size() < 2) {
+            System.err.println("Need at least 2 expense categories, found " + categories.size());
+            return;
+        }
+
+        BudgetService budgetService = new BudgetService();
+        BudgetDAO budgetDAO = daoFactory.getBudgetDAO();
+
+        try {
+            // Month 1 has one budget, month 3 one per expense category
+            createBudgets(budgetDAO, userID, categories.subList(0, 1), 1);
+            createBudgets(budgetDAO, userID, categories, 3);
+            int many = categories.size();
+            System.out.println("Budgets: 1 in 1/" + TEST_YEAR + ", " + many + " in 3/" + TEST_YEAR);
+
+            // 1. Period read, cache dropped so both reads reach the database
+            System.out.println("\n1. Testing getBudgetByPeriod:");
+            long oneRead = count(() -> {
+                CacheManager.getInstance().getBudgets().invalidateUser(userID);
+                budgetService.getBudgetByPeriod(userID, 1, TEST_YEAR);
+            });
+            long manyRead = count(() -> {
+                CacheManager.getInstance().getBudgets().invalidateUser(userID);
+                budgetService.getBudgetByPeriod(userID, 3, TEST_YEAR);
+            });
+            check("statements for 1 budget: " + oneRead + ", for " + many + ": " + manyRead, oneRead == manyRead);
+
+            // 2. Alerts of the current month, one joined read
+            System.out.println("\n2. Testing getBudgetAlerts:");
+            long alerts = count(() -> budgetService.getBudgetAlerts(userID));
+            check("statements: " + alerts, alerts == 1);
+
+            // 3. Summary, one aggregate query agreeing with the statuses of the budgets
+            System.out.println("\n3. Testing getBudgetSummary:");
+            long summaryCount = count(() -> budgetService.getBudgetSummary(userID, 3, TEST_YEAR));
+            check("statements: " + summaryCount, summaryCount == 1);
+            BudgetSummary summary = budgetService.getBudgetSummary(userID, 3, TEST_YEAR).getData();
+            int warnings = 0;
+            int exceeded = 0;
+            for (Budget budget : budgetDAO.getBudgetsByUserAndPeriod(userID, 3, TEST_YEAR)) {
+                if ("WARNING".equals(budget.getStatus())) warnings++;
+                if ("EXCEED".equals(budget.getStatus())) exceeded++;
+            }
+            check("summary " + summary, summary.getTotalBudgets() == many
+                    && summary.getWarningCount() == warnings && summary.getExceededCount() == exceeded);
+
+            // 4. Copy, one set-based insert and one read
+            System.out.println("\n4. Testing copyBudgetFromPreviousMonth:");
+            long oneCopy = count(() -> printResult(budgetService.copyBudgetFromPreviousMonth(userID, 2, TEST_YEAR)));
+            long manyCopy = count(() -> printResult(budgetService.copyBudgetFromPreviousMonth(userID, 4, TEST_YEAR)));
+            check("statements for 1 budget: " + oneCopy + ", for " + many + ": " + manyCopy, oneCopy == manyCopy);
+
+            // 5. Yearly plan, one MERGE for all months and categories
+            System.out.println("\n5. Testing planYearlyBudgets:");
+            Map<Integer, double[]> onePlan = new HashMap<>();
+            Map<Integer, double[]> manyPlan = new HashMap<>();
+            for (Category category : categories) {
+                double[] amounts = new double[12];
+                Arrays.fill(amounts, 5, 12, 1500000);
+                manyPlan.put(category.getCategoryID(), amounts);
+            }
+            double[] single = new double[12];
+            single[5] = 1500000;
+            onePlan.put(categories.get(0).getCategoryID(), single);
+            long onePlanCount = count(() -> printResult(budgetService.planYearlyBudgets(userID, TEST_YEAR, onePlan, 80)));
+            long manyPlanCount = count(() -> printResult(budgetService.planYearlyBudgets(userID, TEST_YEAR, manyPlan, 80)));
+            check("statements for 1 budget: " + onePlanCount + ", for " + (many * 7) + ": " + manyPlanCount,
+                    onePlanCount == manyPlanCount);
+        } finally {
+            DatabaseConnection.setStatementCounting(false);
+            for (int month = 1; month <= 12; month++) {
+                for (Budget budget : budgetDAO.getBudgetsByUserAndPeriod(userID, month, TEST_YEAR)) {
+                    budgetDAO.deleteBudget(budget.getBudgetID());
+                }
+            }
+            CacheManager.getInstance().invalidateUser(userID);
+        }
+
+        System.out.println("\n=== BUDGET QUERY COUNT TESTS COMPLETED ===");
+    }
+
+    private static void createBudgets(BudgetDAO budgetDAO, int userID, List<Category> categories, int month) {
+        for (Category category : categories) {
+            Budget budget = new Budget();
+            budget.setUserID(userID);
+            budget.setCategoryID(category.getCategoryID());
+            budget.setBudgetAmount(1000000);
+            budget.setMonth(month);
+            budget.setYear(TEST_YEAR);
+            budgetDAO.createBudget(budget);
+        }
+    }
+
+    // Statements issued by the action
+    private static long count(Runnable action) {
+        DatabaseConnection.resetStatementCount();
+        DatabaseConnection.setStatementCounting(true);
+        try {
+            action.run();
+        } finally {
+            DatabaseConnection.setStatementCounting(false);
+        }
+        return DatabaseConnection.getStatementCount();
+    }
+
+    private static void printResult(ServiceResult<?> result) {
+        System.out.println("  " + result.getMessage());
+    }
+
+    private static void check(String message, boolean passed) {
+        System.out.println((passed ? "✓ " : "✗ ") + message);
+    }
+}
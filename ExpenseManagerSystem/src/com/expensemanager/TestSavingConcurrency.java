@@ -0,0 +1,136 @@
+package com.expensemanager;
+
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.dao.*;
+import com.expensemanager.model.*;
+import com.expensemanager.service.SavingService;
+import com.expensemanager.service.ServiceResult;
+import com.expensemanager.util.Money;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Stress test for savings deposits and withdrawals: concurrent writes to one saving must not lose updates
+// and withdrawals must never take the balance below zero. Prints the throughput of each run.
+// Works on a temporary saving of the sample admin user and removes it afterwards.
+public class TestSavingConcurrency {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final double DEPOSIT_AMOUNT = 10000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TESTING SAVING CONCURRENCY ===\n");
+
+        if (!DatabaseConnection.testConnection()) {
+            System.err.println("Database connection failed. Cannot proceed with tests.");
+            return;
+        }
+
+        DAOFactory daoFactory = DAOFactory.getInstance();
+        User testUser = daoFactory.getUserDAO().findUser("admin", "admin123");
+        if (testUser == null) {
+            System.err.println("Sample user not found. Please check database setup.");
+            return;
+        }
+
+        int userID = testUser.getUserID();
+        SavingService savingService = new SavingService();
+        SavingDAO savingDAO = daoFactory.getSavingDAO();
+
+        ServiceResult<Saving> created = savingService.createSaving(userID, "Stress test " + System.currentTimeMillis(),
+                "Tạm thời, được xóa sau khi kiểm tra", 1000000000, null, 1);
+        if (!created.isSuccess()) {
+            System.err.println("Cannot create test saving: " + created.getMessage());
+            return;
+        }
+        int savingID = created.getData().getSavingID();
+
+        try {
+            // 1. One deposit is one statement
+            System.out.println("1. Testing round trips:");
+            DatabaseConnection.resetStatementCount();
+            DatabaseConnection.setStatementCounting(true);
+            try {
+                savingService.depositToSaving(savingID, userID, DEPOSIT_AMOUNT, "Round trip");
+            } finally {
+                DatabaseConnection.setStatementCounting(false);
+            }
+            long statements = DatabaseConnection.getStatementCount();
+            check("statements per deposit: " + statements, statements == 1);
+
+            // 2. Concurrent deposits, every one must be counted
+            System.out.println("\n2. Testing concurrent deposits:");
+            long startBalance = savingDAO.getSavingById(savingID).getCurrentAmountMinor();
+            int deposits = run("deposits", () -> savingService.depositToSaving(savingID, userID, DEPOSIT_AMOUNT, "Stress deposit"));
+            Saving afterDeposits = savingDAO.getSavingById(savingID);
+            long expected = startBalance + deposits * Money.toMinor(DEPOSIT_AMOUNT);
+            check("succeeded " + deposits + " / " + (THREADS * OPERATIONS_PER_THREAD),
+                    deposits == THREADS * OPERATIONS_PER_THREAD);
+            check("balance " + afterDeposits.getCurrentAmount() + ", expected " + Money.toDouble(expected),
+                    afterDeposits.getCurrentAmountMinor() == expected);
+
+            // 3. Concurrent withdrawals asking for about twice the balance, refused once it runs out
+            System.out.println("\n3. Testing concurrent withdrawals:");
+            long balance = afterDeposits.getCurrentAmountMinor();
+            double withdrawAmount = DEPOSIT_AMOUNT * 2;
+            int withdrawals = run("withdrawals", () -> savingService.withdrawFromSaving(savingID, userID, withdrawAmount, "Stress withdraw"));
+            Saving afterWithdrawals = savingDAO.getSavingById(savingID);
+            check("succeeded " + withdrawals + ", balance " + afterWithdrawals.getCurrentAmount(),
+                    afterWithdrawals.getCurrentAmountMinor() >= 0
+                    && afterWithdrawals.getCurrentAmountMinor() == balance - withdrawals * Money.toMinor(withdrawAmount));
+
+            // 4. Every accepted change has its transaction row
+            System.out.println("\n4. Testing transaction history:");
+            int recorded = daoFactory.getSavingTransactionDAO().getSavingTransactionsCountBySaving(savingID);
+            check("transactions " + recorded + ", accepted " + (1 + deposits + withdrawals),
+                    recorded == 1 + deposits + withdrawals);
+        } finally {
+            savingDAO.deleteSaving(savingID);
+            CacheManager.getInstance().invalidateUser(userID);
+        }
+
+        System.out.println("\n=== SAVING CONCURRENCY TESTS COMPLETED ===");
+    }
+
+    // Run the operation OPERATIONS_PER_THREAD times on each of THREADS threads, returns the successes
+    private static int run(String name, Supplier<ServiceResult<?>> operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    if (operation.get().isSuccess()) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+
+        int total = THREADS * OPERATIONS_PER_THREAD;
+        System.out.println("  " + total + " " + name + " on " + THREADS + " threads in " + elapsedMillis + " ms ("
+                + (total * 1000L / elapsedMillis) + " ops/s)");
+        return succeeded.get();
+    }
+
+    private static void check(String message, boolean passed) {
+        System.out.println((passed ? "✓ " : "✗ ") + message);
+    }
+}
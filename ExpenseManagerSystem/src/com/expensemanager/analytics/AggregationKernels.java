@@ -0,0 +1,123 @@
+package com.expensemanager.analytics;
+
+/**
+ * Aggregation loops over primitive columns: sums and counts of the rows selected by a
+ * bitmap, per-key histograms and per-day sums.
+ *
+ * Rows are selected 64 at a time from the bitmap word: a fully selected word is summed
+ * with a straight unrolled loop the JIT can vectorize, an empty word is skipped, and a
+ * partial word visits only its set bits. Counts use Long.bitCount and need no row access.
+ * Ranges are half-open, [from, to).
+ */
+public final class AggregationKernels {
+
+    private AggregationKernels() {
+    }
+
+    // Sum of values[row] for rows in [from, to) whose bit equals selected
+    public static long maskedSum(long[] values, long[] bits, boolean selected, int from, int to) {
+        long total = 0;
+        for (int row = from; row < to; ) {
+            int word = row >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            long range = rangeMask(row, wordEnd);
+            long mask = (selected ? bits[word] : ~bits[word]) & range;
+
+            if (mask == range) {
+                total += sum(values, row, wordEnd);
+            } else {
+                int base = word << 6;
+                while (mask != 0) {
+                    total += values[base + Long.numberOfTrailingZeros(mask)];
+                    mask &= mask - 1;
+                }
+            }
+            row = wordEnd;
+        }
+        return total;
+    }
+
+    // Number of rows in [from, to) whose bit equals selected
+    public static int maskedCount(long[] bits, boolean selected, int from, int to) {
+        int count = 0;
+        for (int row = from; row < to; ) {
+            int word = row >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            long mask = (selected ? bits[word] : ~bits[word]) & rangeMask(row, wordEnd);
+            count += Long.bitCount(mask);
+            row = wordEnd;
+        }
+        return count;
+    }
+
+    // Add values[row] to sums[keys[row]] and one to counts[keys[row]] for the selected rows, counts may be null
+    public static void maskedHistogram(int[] keys, long[] values, long[] bits, boolean selected,
+                                       int from, int to, long[] sums, int[] counts) {
+        for (int row = from; row < to; ) {
+            int word = row >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            long mask = (selected ? bits[word] : ~bits[word]) & rangeMask(row, wordEnd);
+            int base = word << 6;
+            while (mask != 0) {
+                int index = base + Long.numberOfTrailingZeros(mask);
+                int key = keys[index];
+                sums[key] += values[index];
+                if (counts != null) {
+                    counts[key]++;
+                }
+                mask &= mask - 1;
+            }
+            row = wordEnd;
+        }
+    }
+
+    // Add values[row] to sums[days[row] - firstDay] for the selected rows, days must fall inside sums
+    public static void maskedDailySums(int[] days, long[] values, long[] bits, boolean selected,
+                                       int from, int to, int firstDay, long[] sums) {
+        for (int row = from; row < to; ) {
+            int word = row >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            long mask = (selected ? bits[word] : ~bits[word]) & rangeMask(row, wordEnd);
+            int base = word << 6;
+            while (mask != 0) {
+                int index = base + Long.numberOfTrailingZeros(mask);
+                sums[days[index] - firstDay] += values[index];
+                mask &= mask - 1;
+            }
+            row = wordEnd;
+        }
+    }
+
+    // Plain sum of values in [from, to), four independent accumulators
+    public static long sum(long[] values, int from, int to) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (int end = to - 3; i < end; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += values[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    // First index in [0, size) of a sorted column with value >= key, size when none
+    public static int lowerBound(int[] sorted, int size, int key) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    // Bits of the rows [from, to) within the word holding from, to at most the word's end
+    private static long rangeMask(int from, int to) {
+        int high = to - (from & ~63);
+        long upper = high == 64 ? -1L : (1L << high) - 1;
+        return upper & (-1L << from);
+    }
+}
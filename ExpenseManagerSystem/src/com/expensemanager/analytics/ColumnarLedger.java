@@ -0,0 +1,246 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.util.Money;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transactions of one user stored as primitive columns, sorted by epoch day.
+ * Amounts are kept in minor units (see Money) as long, categories as a dense index,
+ * and the transaction type as one bit per row (set = EXPENSE).
+ * A row costs about 20 bytes instead of a Transaction object with boxed dates.
+ *
+ * Not thread-safe, LedgerEngine guards each ledger with its own lock.
+ */
+public class ColumnarLedger {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int userID;
+
+    private int size;
+    private int[] ids;
+    private int[] days;
+    private long[] amounts;
+    private int[] categories;
+    private long[] expenseBits;
+
+    // Dense category index, lets aggregations accumulate into plain arrays
+    private final Map<Integer, Integer> categoryIndex = new HashMap<>();
+    private int[] categoryIDs = new int[8];
+
+    public ColumnarLedger(int userID) {
+        this(userID, INITIAL_CAPACITY);
+    }
+
+    public ColumnarLedger(int userID, int capacity) {
+        int initial = Math.max(capacity, INITIAL_CAPACITY);
+        this.userID = userID;
+        this.ids = new int[initial];
+        this.days = new int[initial];
+        this.amounts = new long[initial];
+        this.categories = new int[initial];
+        this.expenseBits = new long[(initial + 63) >>> 6];
+    }
+
+    public static long toMinorUnits(double amount) {
+        return Money.toMinor(amount);
+    }
+
+    public static double fromMinorUnits(long amount) {
+        return Money.toDouble(amount);
+    }
+
+    // Append a row, rows must arrive ordered by day (as loaded from the database)
+    public void append(int transactionID, int epochDay, long amount, int categoryID, boolean expense) {
+        if (size > 0 && epochDay < days[size - 1]) {
+            insert(transactionID, epochDay, amount, categoryID, expense);
+            return;
+        }
+        ensureCapacity(size + 1);
+        setRow(size, transactionID, epochDay, amount, indexOf(categoryID), expense);
+        size++;
+    }
+
+    // Insert a row at its position in day order
+    public void insert(int transactionID, int epochDay, long amount, int categoryID, boolean expense) {
+        ensureCapacity(size + 1);
+        int position = upperBound(epochDay);
+        int moved = size - position;
+        if (moved > 0) {
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(days, position, days, position + 1, moved);
+            System.arraycopy(amounts, position, amounts, position + 1, moved);
+            System.arraycopy(categories, position, categories, position + 1, moved);
+            for (int i = size; i > position; i--) {
+                setExpense(i, isExpense(i - 1));
+            }
+        }
+        setRow(position, transactionID, epochDay, amount, indexOf(categoryID), expense);
+        size++;
+    }
+
+    // Remove a row by transaction ID, returns false when not present
+    public boolean remove(int transactionID) {
+        int position = -1;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == transactionID) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) return false;
+
+        int moved = size - position - 1;
+        if (moved > 0) {
+            System.arraycopy(ids, position + 1, ids, position, moved);
+            System.arraycopy(days, position + 1, days, position, moved);
+            System.arraycopy(amounts, position + 1, amounts, position, moved);
+            System.arraycopy(categories, position + 1, categories, position, moved);
+            for (int i = position; i < size - 1; i++) {
+                setExpense(i, isExpense(i + 1));
+            }
+        }
+        size--;
+        setExpense(size, false);
+        return true;
+    }
+
+    // Sum of one type in [startDay, endDay]
+    public long sum(boolean expense, int startDay, int endDay) {
+        return AggregationKernels.maskedSum(amounts, expenseBits, expense, lowerBound(startDay), upperBound(endDay));
+    }
+
+    // Number of rows of one type in [startDay, endDay]
+    public int count(boolean expense, int startDay, int endDay) {
+        return AggregationKernels.maskedCount(expenseBits, expense, lowerBound(startDay), upperBound(endDay));
+    }
+
+    // Sum of one category and type in [startDay, endDay]
+    public long sumByCategory(int categoryID, boolean expense, int startDay, int endDay) {
+        Integer index = categoryIndex.get(categoryID);
+        if (index == null) return 0;
+
+        int category = index;
+        long total = 0;
+        for (int i = lowerBound(startDay), end = upperBound(endDay); i < end; i++) {
+            if (categories[i] == category && isExpense(i) == expense) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    // Per-category sums and counts of one type in [startDay, endDay], indexed by dense category
+    public CategoryTotals totalsByCategory(boolean expense, int startDay, int endDay) {
+        int categoryCount = categoryIndex.size();
+        long[] sums = new long[categoryCount];
+        int[] counts = new int[categoryCount];
+
+        AggregationKernels.maskedHistogram(categories, amounts, expenseBits, expense,
+                lowerBound(startDay), upperBound(endDay), sums, counts);
+        return new CategoryTotals(Arrays.copyOf(categoryIDs, categoryCount), sums, counts);
+    }
+
+    // Daily sums of one type, element i is day startDay + i
+    public long[] dailySums(boolean expense, int startDay, int endDay) {
+        long[] sums = new long[Math.max(0, endDay - startDay + 1)];
+        AggregationKernels.maskedDailySums(days, amounts, expenseBits, expense,
+                lowerBound(startDay), upperBound(endDay), startDay, sums);
+        return sums;
+    }
+
+    // Sums of one type between consecutive boundaries, element i covers [boundaries[i], boundaries[i + 1])
+    public long[] bucketSums(boolean expense, int[] boundaries) {
+        long[] sums = new long[Math.max(0, boundaries.length - 1)];
+        for (int bucket = 0; bucket < sums.length; bucket++) {
+            sums[bucket] = AggregationKernels.maskedSum(amounts, expenseBits, expense,
+                    lowerBound(boundaries[bucket]), lowerBound(boundaries[bucket + 1]));
+        }
+        return sums;
+    }
+
+    public int getUserID() { return userID; }
+    public int size() { return size; }
+
+    // Approximate heap used by the columns
+    public long getMemoryBytes() {
+        return (long) ids.length * (4 + 4 + 8 + 4) + (long) expenseBits.length * 8;
+    }
+
+    // First index with day >= epochDay
+    private int lowerBound(int epochDay) {
+        return AggregationKernels.lowerBound(days, size, epochDay);
+    }
+
+    // First index with day > epochDay
+    private int upperBound(int epochDay) {
+        if (epochDay == Integer.MAX_VALUE) return size;
+        return lowerBound(epochDay + 1);
+    }
+
+    private boolean isExpense(int row) {
+        return (expenseBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private void setExpense(int row, boolean expense) {
+        if (expense) {
+            expenseBits[row >>> 6] |= 1L << row;
+        } else {
+            expenseBits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void setRow(int row, int transactionID, int epochDay, long amount, int category, boolean expense) {
+        ids[row] = transactionID;
+        days[row] = epochDay;
+        amounts[row] = amount;
+        categories[row] = category;
+        setExpense(row, expense);
+    }
+
+    private int indexOf(int categoryID) {
+        Integer index = categoryIndex.get(categoryID);
+        if (index != null) return index;
+
+        int next = categoryIndex.size();
+        if (next == categoryIDs.length) {
+            categoryIDs = Arrays.copyOf(categoryIDs, next * 2);
+        }
+        categoryIDs[next] = categoryID;
+        categoryIndex.put(categoryID, next);
+        return next;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        days = Arrays.copyOf(days, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        expenseBits = Arrays.copyOf(expenseBits, (capacity + 63) >>> 6);
+    }
+
+    /**
+     * Result of totalsByCategory, parallel arrays over the ledger's categories.
+     */
+    public static class CategoryTotals {
+        private final int[] categoryIDs;
+        private final long[] sums;
+        private final int[] counts;
+
+        CategoryTotals(int[] categoryIDs, long[] sums, int[] counts) {
+            this.categoryIDs = categoryIDs;
+            this.sums = sums;
+            this.counts = counts;
+        }
+
+        public int size() { return categoryIDs.length; }
+        public int getCategoryID(int index) { return categoryIDs[index]; }
+        public long getSum(int index) { return sums[index]; }
+        public int getCount(int index) { return counts[index]; }
+    }
+}
@@ -0,0 +1,104 @@
+package com.expensemanager.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Fenwick (binary indexed) tree of long sums over consecutive epoch days.
+ * Point updates and range sums take O(log days). The covered day range grows
+ * on demand in both directions, growing rebuilds the tree in O(days).
+ *
+ * Not thread-safe, RangeIndexEngine guards each user's index with its own lock.
+ */
+public class FenwickTree {
+
+    // Extra days reserved on each side when the range grows
+    private static final int GROW_MARGIN = 31;
+
+    private int baseDay;
+    // 1-based, tree[i] covers the days (i - lowbit(i), i] after baseDay - 1
+    private long[] tree;
+
+    public FenwickTree(int firstDay, int lastDay) {
+        this.baseDay = firstDay;
+        this.tree = new long[Math.max(1, lastDay - firstDay + 1) + 1];
+    }
+
+    // Add delta to one day
+    public void add(int epochDay, long delta) {
+        if (delta == 0) return;
+        ensureCovers(epochDay);
+
+        int size = size();
+        for (int i = epochDay - baseDay + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Sum of [startDay, endDay], days outside the covered range count as zero
+    public long sum(int startDay, int endDay) {
+        if (endDay < startDay) return 0;
+        return prefix(endDay) - prefix(startDay - 1);
+    }
+
+    public int getFirstDay() { return baseDay; }
+    public int getLastDay() { return baseDay + size() - 1; }
+
+    public long getMemoryBytes() {
+        return (long) tree.length * 8;
+    }
+
+    // Sum of all days up to and including epochDay
+    private long prefix(int epochDay) {
+        if (epochDay < baseDay) return 0;
+
+        long total = 0;
+        for (int i = Math.min(epochDay - baseDay + 1, size()); i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    private int size() {
+        return tree.length - 1;
+    }
+
+    private void ensureCovers(int epochDay) {
+        int lastDay = getLastDay();
+        if (epochDay >= baseDay && epochDay <= lastDay) return;
+
+        int newFirst = epochDay < baseDay ? epochDay - GROW_MARGIN : baseDay;
+        int newLast = epochDay > lastDay ? epochDay + GROW_MARGIN : lastDay;
+
+        long[] values = toDailyValues();
+        long[] grown = new long[newLast - newFirst + 2];
+        System.arraycopy(values, 1, grown, baseDay - newFirst + 1, size());
+        build(grown);
+
+        baseDay = newFirst;
+        tree = grown;
+    }
+
+    // Undo build() in place on a copy, element i is the value of day baseDay + i - 1
+    private long[] toDailyValues() {
+        long[] values = Arrays.copyOf(tree, tree.length);
+        int size = size();
+        for (int i = size; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                values[parent] -= values[i];
+            }
+        }
+        return values;
+    }
+
+    // Turn 1-based daily values into a Fenwick tree in O(n)
+    private static void build(long[] values) {
+        int size = values.length - 1;
+        for (int i = 1; i <= size; i++) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                values[parent] += values[i];
+            }
+        }
+    }
+}
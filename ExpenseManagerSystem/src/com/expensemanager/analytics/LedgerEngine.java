@@ -0,0 +1,290 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.cache.InvalidationBus;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.ReportDAO;
+import com.expensemanager.model.Category;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.util.DateUtils;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Optional in-memory analytics engine.
+ * Loads a user's transactions once into a ColumnarLedger, keeps it in sync through
+ * transaction events and answers the ReportDAO / TransactionDAO aggregates locally.
+ * Disabled by default, enable with -Dexpensemanager.ledger.enabled=true or setEnabled(true).
+ * Query methods return null when the ledger cannot be loaded, callers then fall back to SQL.
+ */
+public class LedgerEngine extends PerUserEngine<ColumnarLedger> {
+
+    public static final String ENABLED_PROPERTY = "expensemanager.ledger.enabled";
+
+    private static LedgerEngine instance;
+
+    private final Map<Integer, Category> categories = new ConcurrentHashMap<>();
+
+    private final IntConsumer categoryChangeHandler = userID -> categories.clear();
+
+    private LedgerEngine() {
+    }
+
+    public static synchronized LedgerEngine getInstance() {
+        if (instance == null) {
+            instance = new LedgerEngine();
+            instance.setEnabled(Boolean.getBoolean(ENABLED_PROPERTY));
+        }
+        return instance;
+    }
+
+    // Get the user's ledger, loading it on first use
+    public ColumnarLedger getLedger(int userID) {
+        return getState(userID);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        categories.clear();
+    }
+
+    @Override
+    protected void onEnabledChanged(InvalidationBus bus, boolean enabled) {
+        if (enabled) {
+            bus.subscribe(InvalidationBus.REGION_CATEGORIES, categoryChangeHandler);
+        } else {
+            bus.unsubscribe(InvalidationBus.REGION_CATEGORIES, categoryChangeHandler);
+        }
+    }
+
+    // Expense totals by category name in [startDay, endDay], largest first
+    public Map<String, Double> getExpenseByCategory(int userID, int startDay, int endDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        ColumnarLedger.CategoryTotals totals;
+        synchronized (ledger) {
+            totals = ledger.totalsByCategory(true, startDay, endDay);
+        }
+
+        Map<String, Long> byName = new HashMap<>();
+        for (int i = 0; i < totals.size(); i++) {
+            if (totals.getCount(i) == 0) continue;
+            Category category = getCategory(totals.getCategoryID(i));
+            if (category == null) continue;
+            byName.merge(category.getCategoryName(), totals.getSum(i), Long::sum);
+        }
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(byName.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            result.put(entry.getKey(), ColumnarLedger.fromMinorUnits(entry.getValue()));
+        }
+        return result;
+    }
+
+    // Top expense categories (grouped by name and color) in [startDay, endDay]
+    public List<ReportDAO.CategoryExpense> getTopExpenseCategories(int userID, int startDay, int endDay, int limit) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        ColumnarLedger.CategoryTotals totals;
+        synchronized (ledger) {
+            totals = ledger.totalsByCategory(true, startDay, endDay);
+        }
+
+        Map<String, ReportDAO.CategoryExpense> grouped = new HashMap<>();
+        Map<String, Long> sums = new HashMap<>();
+        for (int i = 0; i < totals.size(); i++) {
+            if (totals.getCount(i) == 0) continue;
+            Category category = getCategory(totals.getCategoryID(i));
+            if (category == null) continue;
+
+            String key = category.getCategoryName() + "|" + category.getColor();
+            ReportDAO.CategoryExpense ce = grouped.get(key);
+            if (ce == null) {
+                ce = new ReportDAO.CategoryExpense();
+                ce.setCategoryName(category.getCategoryName());
+                ce.setColor(category.getColor());
+                grouped.put(key, ce);
+            }
+            ce.setTransactionCount(ce.getTransactionCount() + totals.getCount(i));
+            sums.merge(key, totals.getSum(i), Long::sum);
+        }
+
+        List<ReportDAO.CategoryExpense> result = new ArrayList<>();
+        for (Map.Entry<String, ReportDAO.CategoryExpense> entry : grouped.entrySet()) {
+            entry.getValue().setTotalAmount(ColumnarLedger.fromMinorUnits(sums.get(entry.getKey())));
+            result.add(entry.getValue());
+        }
+        result.sort((c1, c2) -> Double.compare(c2.getTotalAmount(), c1.getTotalAmount()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // Monthly income and expense from startDay up to the latest transaction, months without data are skipped
+    public List<ReportDAO.MonthlyData> getMonthlyTrend(int userID, int startDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        LocalDate start = LocalDate.ofEpochDay(startDay);
+        LocalDate today = LocalDate.now();
+        int monthCount = (today.getYear() - start.getYear()) * 12 + today.getMonthValue() - start.getMonthValue() + 1;
+
+        // Bucket i covers one calendar month, the first one starts at startDay itself
+        int[] boundaries = new int[monthCount + 1];
+        boundaries[0] = startDay;
+        LocalDate monthStart = start.withDayOfMonth(1);
+        for (int i = 1; i <= monthCount; i++) {
+            boundaries[i] = (int) monthStart.plusMonths(i).toEpochDay();
+        }
+        // Anything dated after this month belongs to the last bucket
+        boundaries[monthCount] = Integer.MAX_VALUE;
+
+        long[] income;
+        long[] expense;
+        synchronized (ledger) {
+            income = ledger.bucketSums(false, boundaries);
+            expense = ledger.bucketSums(true, boundaries);
+        }
+
+        List<ReportDAO.MonthlyData> result = new ArrayList<>();
+        for (int i = 0; i < monthCount; i++) {
+            if (income[i] == 0 && expense[i] == 0) continue;
+
+            LocalDate month = monthStart.plusMonths(i);
+            ReportDAO.MonthlyData data = new ReportDAO.MonthlyData();
+            data.setYear(month.getYear());
+            data.setMonth(month.getMonthValue());
+            data.setTotalIncome(ColumnarLedger.fromMinorUnits(income[i]));
+            data.setTotalExpense(ColumnarLedger.fromMinorUnits(expense[i]));
+            result.add(data);
+        }
+        return result;
+    }
+
+    // Expense per day of month for the month starting at monthStartDay
+    public Map<Integer, Double> getDailyExpense(int userID, int monthStartDay, int monthEndDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        long[] daily;
+        synchronized (ledger) {
+            daily = ledger.dailySums(true, monthStartDay, monthEndDay);
+        }
+
+        Map<Integer, Double> result = new HashMap<>();
+        for (int i = 0; i < daily.length; i++) {
+            if (daily[i] != 0) {
+                result.put(i + 1, ColumnarLedger.fromMinorUnits(daily[i]));
+            }
+        }
+        return result;
+    }
+
+    // Daily sums of one type in [startDay, endDay], element i is day startDay + i, null when the ledger is unavailable
+    public long[] getDailySums(int userID, boolean expense, int startDay, int endDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        synchronized (ledger) {
+            return ledger.dailySums(expense, startDay, endDay);
+        }
+    }
+
+    // Total of one category and type in [startDay, endDay], null when the ledger is unavailable
+    public Double getTotalAmountByCategory(int userID, int categoryID, String transactionType, int startDay, int endDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        synchronized (ledger) {
+            return ColumnarLedger.fromMinorUnits(
+                    ledger.sumByCategory(categoryID, "EXPENSE".equals(transactionType), startDay, endDay));
+        }
+    }
+
+    // Income and expense totals in [startDay, endDay], types without transactions are left out
+    public Map<String, Double> getIncomeVsExpense(int userID, int startDay, int endDay) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        Map<String, Double> result = new HashMap<>();
+        synchronized (ledger) {
+            if (ledger.count(false, startDay, endDay) > 0) {
+                result.put("INCOME", ColumnarLedger.fromMinorUnits(ledger.sum(false, startDay, endDay)));
+            }
+            if (ledger.count(true, startDay, endDay) > 0) {
+                result.put("EXPENSE", ColumnarLedger.fromMinorUnits(ledger.sum(true, startDay, endDay)));
+            }
+        }
+        return result;
+    }
+
+    // Same keys as TransactionDAO.getMonthlyStatistics
+    public Map<String, Object> getMonthlyStatistics(int userID, int month, int year) {
+        ColumnarLedger ledger = getLedger(userID);
+        if (ledger == null) return null;
+
+        int startDay = DateUtils.getMonthStartEpochDay(month, year);
+        int endDay = (int) LocalDate.ofEpochDay(startDay).plusMonths(1).toEpochDay() - 1;
+
+        long totalIncome;
+        long totalExpense;
+        int incomeCount;
+        int expenseCount;
+        synchronized (ledger) {
+            totalIncome = ledger.sum(false, startDay, endDay);
+            totalExpense = ledger.sum(true, startDay, endDay);
+            incomeCount = ledger.count(false, startDay, endDay);
+            expenseCount = ledger.count(true, startDay, endDay);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalIncome", ColumnarLedger.fromMinorUnits(totalIncome));
+        stats.put("totalExpense", ColumnarLedger.fromMinorUnits(totalExpense));
+        stats.put("netAmount", ColumnarLedger.fromMinorUnits(totalIncome - totalExpense));
+        stats.put("incomeCount", incomeCount);
+        stats.put("expenseCount", expenseCount);
+        return stats;
+    }
+
+    @Override
+    protected ColumnarLedger load(int userID) {
+        return DAOFactory.getInstance().getTransactionDAO().loadLedger(userID);
+    }
+
+    @Override
+    protected void apply(ColumnarLedger ledger, Transaction transaction, int sign) {
+        if (sign > 0) {
+            insert(ledger, transaction);
+        } else {
+            ledger.remove(transaction.getTransactionID());
+        }
+    }
+
+    private void insert(ColumnarLedger ledger, Transaction transaction) {
+        ledger.insert(transaction.getTransactionID(),
+                DateUtils.toEpochDay(transaction.getTransactionDate()),
+                transaction.getAmountMinor(),
+                transaction.getCategoryID(),
+                "EXPENSE".equals(transaction.getTransactionType()));
+    }
+
+    private Category getCategory(int categoryID) {
+        Category category = categories.get(categoryID);
+        if (category == null) {
+            category = DAOFactory.getInstance().getCategoryDAO().getCategoryById(categoryID);
+            if (category != null) {
+                categories.put(categoryID, category);
+            }
+        }
+        return category;
+    }
+}
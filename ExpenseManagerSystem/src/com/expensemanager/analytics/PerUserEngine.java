@@ -0,0 +1,209 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.cache.InvalidationBus;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.TransactionChangeListener;
+import com.expensemanager.model.Transaction;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Base of the in-memory engines that keep one state per user in sync with the transactions
+ * (ledger, range index, rolling windows).
+ *
+ * A user's state is loaded from the database on first use and then updated by transaction
+ * events. Writes are bracketed by beginWrite / endWrite, before the DAO commits and after the
+ * events. A load is kept only when no write of the same user was in flight while it read, so
+ * every write is either in the loaded state or applied to it afterwards, never both; otherwise
+ * it is used once and the next read loads again. Writes of other users do not affect it.
+ * Writes made by other instances arrive on the reports region of the invalidation bus and
+ * drop the user's state, which is loaded again on next use.
+ * Updates and reads of a state synchronize on the state object.
+ *
+ * @param <S> per-user state
+ */
+public abstract class PerUserEngine<S> implements TransactionChangeListener {
+
+    private final Map<Integer, S> states = new ConcurrentHashMap<>();
+    // Write bookkeeping of the users being written or loaded, removed when idle
+    private final Map<Integer, WriteState> writes = new ConcurrentHashMap<>();
+
+    // Writes made by other instances drop the user's state, it is loaded again on next use
+    private final IntConsumer remoteWriteHandler = this::evict;
+
+    private volatile boolean enabled;
+
+    // Load the user's state from the database, null when it cannot be loaded
+    protected abstract S load(int userID);
+
+    // Apply one transaction to the state, sign is 1 when it is added and -1 when it is removed;
+    // the caller holds the state's lock
+    protected abstract void apply(S state, Transaction transaction, int sign);
+
+    // Subscribe or unsubscribe anything besides the transaction events and the reports region
+    protected void onEnabledChanged(InvalidationBus bus, boolean enabled) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) return;
+
+        InvalidationBus bus = InvalidationBus.getInstance();
+        if (enabled) {
+            DAOFactory.getInstance().addTransactionChangeListener(this);
+            bus.subscribe(InvalidationBus.REGION_REPORTS, remoteWriteHandler);
+        } else {
+            DAOFactory.getInstance().removeTransactionChangeListener(this);
+            bus.unsubscribe(InvalidationBus.REGION_REPORTS, remoteWriteHandler);
+            clear();
+        }
+        onEnabledChanged(bus, enabled);
+        this.enabled = enabled;
+    }
+
+    public void evict(int userID) {
+        WriteState write = writes.get(userID);
+        if (write != null) {
+            synchronized (write) {
+                // A load still running must not keep what it read
+                write.epoch++;
+            }
+        }
+        states.remove(userID);
+    }
+
+    public void clear() {
+        for (WriteState write : writes.values()) {
+            synchronized (write) {
+                write.epoch++;
+            }
+        }
+        states.clear();
+    }
+
+    public int getLoadedUserCount() {
+        return states.size();
+    }
+
+    // Get the user's state, loading it on first use
+    protected S getState(int userID) {
+        S state = states.get(userID);
+        if (state != null) return state;
+
+        // Pinned as a load until the load is done
+        WriteState write = acquire(userID);
+        long epoch;
+        boolean keep;
+        synchronized (write) {
+            // With a write in flight the read may or may not contain it, use the load once
+            keep = write.inFlight == 0;
+            epoch = write.epoch;
+        }
+
+        S loaded = null;
+        try {
+            loaded = load(userID);
+        } finally {
+            synchronized (write) {
+                write.loads--;
+                if (loaded != null && keep && write.epoch == epoch) {
+                    // Published under the user's write lock, a write that starts later applies to it
+                    S existing = states.putIfAbsent(userID, loaded);
+                    if (existing != null) loaded = existing;
+                }
+                write.removeIfIdle(writes, userID);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void beginWrite(int userID) {
+        WriteState write = acquire(userID);
+        synchronized (write) {
+            write.inFlight++;
+            write.epoch++;
+            // acquire counted this call as a load, the write holds the entry from now on
+            write.loads--;
+        }
+    }
+
+    @Override
+    public void endWrite(int userID) {
+        WriteState write = writes.get(userID);
+        if (write == null) return;
+
+        synchronized (write) {
+            write.inFlight = Math.max(0, write.inFlight - 1);
+            write.removeIfIdle(writes, userID);
+        }
+    }
+
+    @Override
+    public void transactionCreated(Transaction transaction) {
+        applyToUser(transaction, 1);
+    }
+
+    @Override
+    public void transactionUpdated(Transaction before, Transaction after) {
+        if (before.getUserID() != after.getUserID()) {
+            applyToUser(before, -1);
+            applyToUser(after, 1);
+            return;
+        }
+
+        S state = states.get(after.getUserID());
+        if (state == null) return;
+
+        // One lock for both halves, readers never see the transaction missing
+        synchronized (state) {
+            apply(state, before, -1);
+            apply(state, after, 1);
+        }
+    }
+
+    @Override
+    public void transactionDeleted(Transaction transaction) {
+        applyToUser(transaction, -1);
+    }
+
+    private void applyToUser(Transaction transaction, int sign) {
+        S state = states.get(transaction.getUserID());
+        if (state == null) return;
+
+        synchronized (state) {
+            apply(state, transaction, sign);
+        }
+    }
+
+    // The user's write entry, pinned by one load count so it is not removed before the caller uses it
+    private WriteState acquire(int userID) {
+        while (true) {
+            WriteState write = writes.computeIfAbsent(userID, id -> new WriteState());
+            synchronized (write) {
+                // The entry may have been removed while idle, use the current one
+                if (writes.get(userID) != write) continue;
+                write.loads++;
+                return write;
+            }
+        }
+    }
+
+    // Writes in flight and loads running for one user, guarded by its own lock
+    private static class WriteState {
+        private int inFlight;
+        // Bumped when a write begins or the state is evicted, a load that overlaps one is not kept
+        private long epoch;
+        private int loads;
+
+        void removeIfIdle(Map<Integer, WriteState> writes, int userID) {
+            if (inFlight == 0 && loads == 0) {
+                writes.remove(userID, this);
+            }
+        }
+    }
+}
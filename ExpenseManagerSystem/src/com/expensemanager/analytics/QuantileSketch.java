@@ -0,0 +1,135 @@
+package com.expensemanager.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of positive amounts (minor units) with 1% relative accuracy.
+ * Values fall into logarithmic buckets, bucket i holds values in (gamma^(i-1), gamma^i],
+ * so any quantile is returned within 1% of the true value whatever the data.
+ * Merging adds the bucket counts and is exact, so monthly sketches combine into a yearly
+ * one without loss, and a value can be removed again when a transaction is changed or deleted.
+ * A category with amounts from 1.000 to 1.000.000.000 VND needs at most ~700 buckets.
+ * The database keeps the same buckets, one row per bucket in CategorySpendBuckets, computed
+ * with the same formula by the tr_UpdateCategorySpendBuckets trigger.
+ *
+ * Not thread-safe.
+ */
+public class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // counts[i] is the count of bucket offset + i
+    private int offset;
+    private long[] counts = new long[0];
+    private long count;
+    // Exact total of the added values
+    private long sum;
+
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    // Remove a value added before
+    public void remove(long value) {
+        add(value, -1);
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                addToBucket(other.offset + i, other.counts[i]);
+            }
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    // Add a stored bucket: n values with the given exact total
+    public void addBucket(int index, long n, long bucketSum) {
+        if (n <= 0) return;
+
+        addToBucket(index, n);
+        count += n;
+        sum += bucketSum;
+    }
+
+    public long getCount() { return count; }
+    public long getSum() { return sum; }
+    public boolean isEmpty() { return count <= 0; }
+
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    // Value at quantile q in [0, 1], 0 when empty
+    public long getQuantile(double q) {
+        if (count <= 0) return 0;
+
+        double rank = Math.max(0, Math.min(1, q)) * (count - 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return Math.round(bucketValue(offset + i));
+            }
+        }
+        return Math.round(bucketValue(offset + counts.length - 1));
+    }
+
+    public long getMedian() {
+        return getQuantile(0.5);
+    }
+
+    // Upper outlier fence (Tukey, k = 3): values above it are far outside the usual range
+    public long getOutlierFence() {
+        long q1 = getQuantile(0.25);
+        long q3 = getQuantile(0.75);
+        return q3 + 3 * (q3 - q1);
+    }
+
+    // Approximate total of the values above limit
+    public long getSumAbove(long limit) {
+        double total = 0;
+        for (int i = counts.length - 1; i >= 0; i--) {
+            double value = bucketValue(offset + i);
+            if (value <= limit) break;
+            total += value * counts[i];
+        }
+        return Math.min(sum, Math.round(total));
+    }
+
+    private void add(long value, long n) {
+        if (value <= 0) return;
+
+        addToBucket(bucketIndex(value), n);
+        count = Math.max(0, count + n);
+        sum += n * value;
+    }
+
+    private void addToBucket(int index, long n) {
+        if (counts.length == 0) {
+            offset = index;
+            counts = new long[1];
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + (offset - index)];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+        counts[index - offset] = Math.max(0, counts[index - offset] + n);
+    }
+
+    private static int bucketIndex(long value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    // Representative value of a bucket, within RELATIVE_ACCURACY of every value in it
+    private static double bucketValue(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Optional in-memory index for date range totals (e.g. range sliders).
+ * Builds a RangeSumIndex from the user's daily totals on first use and keeps it in sync
+ * through transaction events, each write is an O(log days) point update.
+ * Disabled by default, enable with -Dexpensemanager.rangeindex.enabled=true or setEnabled(true).
+ * Query methods return null when the index cannot be loaded, callers then fall back.
+ */
+public class RangeIndexEngine extends PerUserEngine<RangeSumIndex> {
+
+    public static final String ENABLED_PROPERTY = "expensemanager.rangeindex.enabled";
+
+    private static RangeIndexEngine instance;
+
+    private RangeIndexEngine() {
+    }
+
+    public static synchronized RangeIndexEngine getInstance() {
+        if (instance == null) {
+            instance = new RangeIndexEngine();
+            instance.setEnabled(Boolean.getBoolean(ENABLED_PROPERTY));
+        }
+        return instance;
+    }
+
+    // Get the user's index, building it on first use
+    public RangeSumIndex getIndex(int userID) {
+        return getState(userID);
+    }
+
+    // Total of one category and type in [startDay, endDay], null when the index is unavailable
+    public Double getTotalAmountByCategory(int userID, int categoryID, String transactionType, int startDay, int endDay) {
+        RangeSumIndex index = getIndex(userID);
+        if (index == null) return null;
+
+        synchronized (index) {
+            return Money.toDouble(index.sumByCategory(categoryID, "EXPENSE".equals(transactionType), startDay, endDay));
+        }
+    }
+
+    // Income and expense totals in [startDay, endDay], types without transactions are left out
+    public Map<String, Double> getIncomeVsExpense(int userID, int startDay, int endDay) {
+        RangeSumIndex index = getIndex(userID);
+        if (index == null) return null;
+
+        long income;
+        long expense;
+        synchronized (index) {
+            income = index.sum(false, startDay, endDay);
+            expense = index.sum(true, startDay, endDay);
+        }
+
+        // Amounts are always positive, so a zero total means no transactions
+        Map<String, Double> result = new HashMap<>();
+        if (income != 0) result.put("INCOME", Money.toDouble(income));
+        if (expense != 0) result.put("EXPENSE", Money.toDouble(expense));
+        return result;
+    }
+
+    @Override
+    protected RangeSumIndex load(int userID) {
+        return DAOFactory.getInstance().getTransactionDAO().loadRangeIndex(userID);
+    }
+
+    @Override
+    protected void apply(RangeSumIndex index, Transaction transaction, int sign) {
+        index.add(transaction.getCategoryID(),
+                "EXPENSE".equals(transaction.getTransactionType()),
+                DateUtils.toEpochDay(transaction.getTransactionDate()),
+                sign * transaction.getAmountMinor());
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensemanager.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Daily income and expense totals of one user, kept in Fenwick trees per category
+ * and per type, so any date range total is answered in O(log days).
+ * Amounts are minor units (see Money).
+ *
+ * Not thread-safe, RangeIndexEngine guards each index with its own lock.
+ */
+public class RangeSumIndex {
+
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    private final int userID;
+    private final int firstDay;
+    private final int lastDay;
+
+    // Totals over all categories, indexed by INCOME / EXPENSE
+    private final FenwickTree[] totals = new FenwickTree[2];
+    private final Map<Integer, FenwickTree[]> byCategory = new HashMap<>();
+
+    // firstDay / lastDay size the initial trees, they grow when needed
+    public RangeSumIndex(int userID, int firstDay, int lastDay) {
+        this.userID = userID;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    // Add delta (negative to remove) to one day of a category and type
+    public void add(int categoryID, boolean expense, int epochDay, long delta) {
+        int type = expense ? EXPENSE : INCOME;
+        tree(totals, type).add(epochDay, delta);
+        tree(byCategory.computeIfAbsent(categoryID, id -> new FenwickTree[2]), type).add(epochDay, delta);
+    }
+
+    // Total of one type in [startDay, endDay]
+    public long sum(boolean expense, int startDay, int endDay) {
+        FenwickTree tree = totals[expense ? EXPENSE : INCOME];
+        return tree == null ? 0 : tree.sum(startDay, endDay);
+    }
+
+    // Total of one category and type in [startDay, endDay]
+    public long sumByCategory(int categoryID, boolean expense, int startDay, int endDay) {
+        FenwickTree[] trees = byCategory.get(categoryID);
+        if (trees == null) return 0;
+
+        FenwickTree tree = trees[expense ? EXPENSE : INCOME];
+        return tree == null ? 0 : tree.sum(startDay, endDay);
+    }
+
+    public int getUserID() { return userID; }
+
+    public long getMemoryBytes() {
+        long bytes = memory(totals);
+        for (FenwickTree[] trees : byCategory.values()) {
+            bytes += memory(trees);
+        }
+        return bytes;
+    }
+
+    private FenwickTree tree(FenwickTree[] trees, int type) {
+        if (trees[type] == null) {
+            trees[type] = new FenwickTree(firstDay, lastDay);
+        }
+        return trees[type];
+    }
+
+    private static long memory(FenwickTree[] trees) {
+        long bytes = 0;
+        for (FenwickTree tree : trees) {
+            if (tree != null) bytes += tree.getMemoryBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.ReportDAO;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Live 7/30/90-day expense totals per user and category.
+ * A user's windows are loaded from the last 90 days of daily totals on first use,
+ * then kept current by transaction events (O(1) per transaction) and moved forward
+ * to today on each read (O(1) per elapsed day).
+ */
+public class RollingStatsEngine extends PerUserEngine<RollingStatsEngine.UserWindows> {
+
+    // Key of the window over all categories
+    public static final int ALL_CATEGORIES = 0;
+
+    private static RollingStatsEngine instance;
+
+    private RollingStatsEngine() {
+    }
+
+    public static synchronized RollingStatsEngine getInstance() {
+        if (instance == null) {
+            instance = new RollingStatsEngine();
+            instance.setEnabled(true);
+        }
+        return instance;
+    }
+
+    // Current 7/30/90-day totals per category (ALL_CATEGORIES for the sum), null when loading failed
+    public Map<Integer, ReportDAO.RollingExpense> getRollingExpense(int userID) {
+        UserWindows windows = getState(userID);
+        if (windows == null) return null;
+
+        int today = DateUtils.getTodayEpochDay();
+        Map<Integer, ReportDAO.RollingExpense> result = new HashMap<>();
+        synchronized (windows) {
+            for (Map.Entry<Integer, RollingWindow> entry : windows.byCategory.entrySet()) {
+                RollingWindow window = entry.getValue();
+                window.advanceTo(today);
+
+                ReportDAO.RollingExpense expense = new ReportDAO.RollingExpense();
+                expense.setCategoryID(entry.getKey());
+                expense.setLast7Days(Money.toDouble(window.getTotal(7)));
+                expense.setLast30Days(Money.toDouble(window.getTotal(30)));
+                expense.setLast90Days(Money.toDouble(window.getTotal(90)));
+                result.put(entry.getKey(), expense);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void apply(UserWindows windows, Transaction transaction, int sign) {
+        if (!"EXPENSE".equals(transaction.getTransactionType())) return;
+
+        int day = DateUtils.toEpochDay(transaction.getTransactionDate());
+        long amount = sign * transaction.getAmountMinor();
+        windows.get(transaction.getCategoryID()).add(day, amount);
+        windows.get(ALL_CATEGORIES).add(day, amount);
+    }
+
+    @Override
+    protected UserWindows load(int userID) {
+        int today = DateUtils.getTodayEpochDay();
+        int longest = RollingWindow.DEFAULT_WINDOWS[RollingWindow.DEFAULT_WINDOWS.length - 1];
+        int firstDay = today - longest + 1;
+
+        Map<Integer, long[]> daily = DAOFactory.getInstance().getReportDAO()
+                .loadDailyExpenseByCategory(userID, firstDay, today);
+        if (daily == null) return null;
+
+        UserWindows loaded = new UserWindows(today);
+        for (Map.Entry<Integer, long[]> entry : daily.entrySet()) {
+            long[] amounts = entry.getValue();
+            for (int i = 0; i < amounts.length; i++) {
+                if (amounts[i] != 0) {
+                    loaded.get(entry.getKey()).add(firstDay + i, amounts[i]);
+                    loaded.get(ALL_CATEGORIES).add(firstDay + i, amounts[i]);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Windows of one user, keyed by category
+    static class UserWindows {
+        private final Map<Integer, RollingWindow> byCategory = new HashMap<>();
+        private final int createdDay;
+
+        UserWindows(int createdDay) {
+            this.createdDay = createdDay;
+            byCategory.put(ALL_CATEGORIES, new RollingWindow(RollingWindow.DEFAULT_WINDOWS, createdDay));
+        }
+
+        RollingWindow get(int categoryID) {
+            RollingWindow window = byCategory.get(categoryID);
+            if (window == null) {
+                window = new RollingWindow(RollingWindow.DEFAULT_WINDOWS, createdDay);
+                byCategory.put(categoryID, window);
+            }
+            return window;
+        }
+    }
+}
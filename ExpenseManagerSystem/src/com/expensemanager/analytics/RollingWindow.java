@@ -0,0 +1,101 @@
+package com.expensemanager.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Rolling totals over the last N days for several window lengths at once.
+ * Daily amounts live in a ring buffer as long as the longest window; moving to the
+ * next day and adding an amount both cost O(number of windows), independent of the
+ * window length. Amounts are minor units (see Money).
+ *
+ * Not thread-safe, RollingStatsEngine guards each window with its owner's lock.
+ */
+public class RollingWindow {
+
+    public static final int[] DEFAULT_WINDOWS = {7, 30, 90};
+
+    private final int[] windows;
+    private final long[] buckets;
+    private final long[] sums;
+    // Most recent day in the buffer, each window ends on it
+    private int lastDay;
+
+    public RollingWindow(int[] windows, int lastDay) {
+        this.windows = windows.clone();
+        Arrays.sort(this.windows);
+        if (this.windows.length == 0 || this.windows[0] <= 0) {
+            throw new IllegalArgumentException("Window lengths must be positive");
+        }
+        this.buckets = new long[this.windows[this.windows.length - 1]];
+        this.sums = new long[this.windows.length];
+        this.lastDay = lastDay;
+    }
+
+    // Move the windows forward so they end on epochDay
+    public void advanceTo(int epochDay) {
+        if (epochDay <= lastDay) return;
+
+        if (epochDay - lastDay >= buckets.length) {
+            // Every day in the buffer has left all windows
+            Arrays.fill(buckets, 0);
+            Arrays.fill(sums, 0);
+            lastDay = epochDay;
+            return;
+        }
+
+        for (int day = lastDay + 1; day <= epochDay; day++) {
+            for (int w = 0; w < windows.length; w++) {
+                // Day leaving window w, still in the buffer (the longest window reads the slot reused below)
+                sums[w] -= buckets[slot(day - windows[w])];
+            }
+            buckets[slot(day)] = 0;
+        }
+        lastDay = epochDay;
+    }
+
+    // Add an amount on a day, days newer than the windows move them forward
+    public void add(int epochDay, long amount) {
+        if (epochDay > lastDay) {
+            advanceTo(epochDay);
+        }
+        if (epochDay <= lastDay - buckets.length) return;
+
+        buckets[slot(epochDay)] += amount;
+        for (int w = 0; w < windows.length; w++) {
+            if (epochDay > lastDay - windows[w]) {
+                sums[w] += amount;
+            }
+        }
+    }
+
+    // Total of the window with the given length, which must be one of the configured lengths
+    public long getTotal(int windowDays) {
+        return sums[indexOf(windowDays)];
+    }
+
+    // Average per day over the window
+    public double getDailyAverage(int windowDays) {
+        return (double) getTotal(windowDays) / windowDays;
+    }
+
+    // Amount of a single day still in the buffer, 0 otherwise
+    public long getDay(int epochDay) {
+        if (epochDay > lastDay || epochDay <= lastDay - buckets.length) return 0;
+        return buckets[slot(epochDay)];
+    }
+
+    public int getLastDay() { return lastDay; }
+
+    public int[] getWindows() { return windows.clone(); }
+
+    private int indexOf(int windowDays) {
+        for (int w = 0; w < windows.length; w++) {
+            if (windows[w] == windowDays) return w;
+        }
+        throw new IllegalArgumentException("No window of " + windowDays + " days");
+    }
+
+    private int slot(int epochDay) {
+        return Math.floorMod(epochDay, buckets.length);
+    }
+}
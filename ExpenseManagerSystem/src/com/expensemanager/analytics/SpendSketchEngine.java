@@ -0,0 +1,49 @@
+package com.expensemanager.analytics;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.SpendSketchDAO;
+import com.expensemanager.util.DateUtils;
+
+/**
+ * Answers "typical spend" questions from the per-category monthly amount sketches
+ * (CategorySpendBuckets): median / p90 amounts and outlier checks, without scanning the history.
+ * TransactionService.checkUnusualAmount exposes the outlier check to the transaction form, which
+ * calls it before saving; the write path itself never queries the sketches.
+ * The sketches are maintained by a database trigger in the same transaction as each write.
+ */
+public class SpendSketchEngine {
+
+    // Fewer samples than this give no meaningful outlier fence
+    private static final int MIN_OUTLIER_SAMPLES = 8;
+    private static final int OUTLIER_MONTHS = 12;
+
+    private static SpendSketchEngine instance;
+
+    private final SpendSketchDAO sketchDAO;
+
+    private SpendSketchEngine() {
+        this.sketchDAO = DAOFactory.getInstance().getSpendSketchDAO();
+    }
+
+    public static synchronized SpendSketchEngine getInstance() {
+        if (instance == null) {
+            instance = new SpendSketchEngine();
+        }
+        return instance;
+    }
+
+    // Merged sketch of one category between two months (inclusive)
+    public QuantileSketch getSketch(int userID, int categoryID, int startMonth, int startYear, int endMonth, int endYear) {
+        return sketchDAO.getCategorySketch(userID, categoryID, startMonth, startYear, endMonth, endYear);
+    }
+
+    // Whether the amount is far above the usual amounts of the category over the last 12 months
+    public boolean isOutlier(int userID, int categoryID, long amount) {
+        int month = DateUtils.getCurrentMonth();
+        int year = DateUtils.getCurrentYear();
+        int startIndex = year * 12 + month - 1 - (OUTLIER_MONTHS - 1);
+
+        QuantileSketch sketch = getSketch(userID, categoryID, startIndex % 12 + 1, startIndex / 12, month, year);
+        return sketch.getCount() >= MIN_OUTLIER_SAMPLES && amount > sketch.getOutlierFence();
+    }
+}
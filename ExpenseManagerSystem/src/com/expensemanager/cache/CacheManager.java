@@ -0,0 +1,127 @@
+package com.expensemanager.cache;
+
+import com.expensemanager.dao.TransactionChangeListener;
+import com.expensemanager.model.Budget;
+import com.expensemanager.model.Category;
+import com.expensemanager.model.Saving;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.model.User;
+import com.expensemanager.service.user.UserDashboard;
+import java.util.List;
+
+/**
+ * Holds the in-memory caches used by the service layer.
+ * Services read through these stores and publish invalidations on the InvalidationBus
+ * after writing, which drops the user's entries here and on the other instances
+ */
+public class CacheManager implements TransactionChangeListener {
+
+    private static final long DASHBOARD_TTL_MILLIS = 2 * 60 * 1000L;
+    private static final long BUDGET_TTL_MILLIS = 5 * 60 * 1000L;
+    private static final long SAVING_TTL_MILLIS = 5 * 60 * 1000L;
+    private static final long RECENT_TRANSACTION_TTL_MILLIS = 2 * 60 * 1000L;
+    private static final long USER_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final long CATEGORY_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private static CacheManager instance;
+
+    // Marks threads that are warming caches, so their loads count as prefetches
+    private static final ThreadLocal<Boolean> PREFETCH_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final PrefetchMetrics prefetchMetrics = new PrefetchMetrics();
+    private final CacheStore<UserDashboard> dashboards;
+    private final CacheStore<List<Budget>> budgets;
+    private final CacheStore<List<Saving>> savings;
+    private final CacheStore<List<Transaction>> recentTransactions;
+    private final CacheStore<User> users;
+    private final CacheStore<List<Category>> categories;
+    private final InvalidationBus invalidationBus;
+
+    private CacheManager() {
+        this.dashboards = new CacheStore<>("dashboards", DASHBOARD_TTL_MILLIS, prefetchMetrics);
+        this.budgets = new CacheStore<>("budgets", BUDGET_TTL_MILLIS, prefetchMetrics);
+        this.savings = new CacheStore<>("savings", SAVING_TTL_MILLIS, prefetchMetrics);
+        this.recentTransactions = new CacheStore<>("recentTransactions", RECENT_TRANSACTION_TTL_MILLIS, prefetchMetrics);
+        this.users = new CacheStore<>("users", USER_TTL_MILLIS, prefetchMetrics);
+        this.categories = new CacheStore<>("categories", CATEGORY_TTL_MILLIS, prefetchMetrics);
+
+        this.invalidationBus = InvalidationBus.getInstance();
+        invalidationBus.subscribe(InvalidationBus.REGION_DASHBOARDS, dashboards::invalidateUser);
+        invalidationBus.subscribe(InvalidationBus.REGION_BUDGETS, budgets::invalidateUser);
+        invalidationBus.subscribe(InvalidationBus.REGION_SAVINGS, savings::invalidateUser);
+        invalidationBus.subscribe(InvalidationBus.REGION_RECENT_TRANSACTIONS, recentTransactions::invalidateUser);
+        invalidationBus.subscribe(InvalidationBus.REGION_USERS, users::invalidateUser);
+        invalidationBus.subscribe(InvalidationBus.REGION_CATEGORIES, categories::invalidateUser);
+    }
+
+    public static synchronized CacheManager getInstance() {
+        if (instance == null) {
+            instance = new CacheManager();
+        }
+        return instance;
+    }
+
+    public static boolean isPrefetchThread() {
+        return PREFETCH_THREAD.get();
+    }
+
+    public static void markPrefetchThread() {
+        PREFETCH_THREAD.set(Boolean.TRUE);
+    }
+
+    public CacheStore<UserDashboard> getDashboards() { return dashboards; }
+    public CacheStore<List<Budget>> getBudgets() { return budgets; }
+    public CacheStore<List<Saving>> getSavings() { return savings; }
+    public CacheStore<List<Transaction>> getRecentTransactions() { return recentTransactions; }
+    public CacheStore<User> getUsers() { return users; }
+    public CacheStore<List<Category>> getCategories() { return categories; }
+    public PrefetchMetrics getPrefetchMetrics() { return prefetchMetrics; }
+
+    // Drop the user's entries in the given regions, on every instance
+    public void invalidate(int userID, String... regions) {
+        invalidationBus.publish(userID, regions);
+    }
+
+    // Drop everything cached for a user
+    public void invalidateUser(int userID) {
+        invalidate(userID, InvalidationBus.REGION_DASHBOARDS, InvalidationBus.REGION_BUDGETS,
+                InvalidationBus.REGION_SAVINGS, InvalidationBus.REGION_RECENT_TRANSACTIONS,
+                InvalidationBus.REGION_USERS, InvalidationBus.REGION_CATEGORIES, InvalidationBus.REGION_REPORTS);
+    }
+
+    // Local only, other instances keep their caches
+    public void clearAll() {
+        dashboards.clear();
+        budgets.clear();
+        savings.clear();
+        recentTransactions.clear();
+        users.clear();
+        categories.clear();
+    }
+
+    // Transactions change dashboard totals, budget spending, the recent list and reports
+    private void transactionWritten(int userID) {
+        invalidate(userID, InvalidationBus.REGION_DASHBOARDS, InvalidationBus.REGION_BUDGETS,
+                InvalidationBus.REGION_RECENT_TRANSACTIONS);
+        // ReportDAO drops the affected periods locally, other instances drop the user's reports
+        invalidationBus.publishRemote(InvalidationBus.REGION_REPORTS, userID);
+    }
+
+    @Override
+    public void transactionCreated(Transaction transaction) {
+        transactionWritten(transaction.getUserID());
+    }
+
+    @Override
+    public void transactionUpdated(Transaction before, Transaction after) {
+        transactionWritten(before.getUserID());
+        if (after.getUserID() != before.getUserID()) {
+            transactionWritten(after.getUserID());
+        }
+    }
+
+    @Override
+    public void transactionDeleted(Transaction transaction) {
+        transactionWritten(transaction.getUserID());
+    }
+}
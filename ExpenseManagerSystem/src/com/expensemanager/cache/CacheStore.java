@@ -0,0 +1,120 @@
+package com.expensemanager.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Small time-based cache for service results.
+ * Keys always start with the owning user ID ("userID:..."), so all entries
+ * of a user can be dropped at once after a write.
+ */
+public class CacheStore<V> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final PrefetchMetrics prefetchMetrics;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public CacheStore(String name, long ttlMillis, PrefetchMetrics prefetchMetrics) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.prefetchMetrics = prefetchMetrics;
+    }
+
+    public static String key(int userID, Object... parts) {
+        StringBuilder sb = new StringBuilder().append(userID).append(':');
+        for (Object part : parts) {
+            sb.append(part).append(':');
+        }
+        return sb.toString();
+    }
+
+    // Get cached value, null when missing or expired
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            if (entries.remove(key, entry)) {
+                discarded(entry);
+            }
+            return null;
+        }
+
+        if (entry.prefetched && !entry.used && !CacheManager.isPrefetchThread()) {
+            entry.used = true;
+            prefetchMetrics.recordPrefetchHit();
+        }
+        return entry.value;
+    }
+
+    // Get cached value or load and store it, null results are not cached
+    public V getOrLoad(String key, Supplier<V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+
+        value = loader.get();
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(String key, V value) {
+        boolean prefetched = CacheManager.isPrefetchThread();
+        Entry<V> previous = entries.put(key, new Entry<>(value, prefetched));
+        if (previous != null) {
+            discarded(previous);
+        }
+        if (prefetched) {
+            prefetchMetrics.recordPrefetchedLoad();
+        }
+    }
+
+    public void invalidate(String key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            discarded(removed);
+        }
+    }
+
+    // Drop every entry owned by the user
+    public void invalidateUser(int userID) {
+        String prefix = userID + ":";
+        entries.entrySet().removeIf(e -> {
+            if (e.getKey().startsWith(prefix)) {
+                discarded(e.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public void clear() {
+        entries.values().forEach(this::discarded);
+        entries.clear();
+    }
+
+    public String getName() { return name; }
+    public int size() { return entries.size(); }
+
+    private void discarded(Entry<V> entry) {
+        if (entry.prefetched && !entry.used) {
+            prefetchMetrics.recordWastedLoad();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final boolean prefetched;
+        private final long createdAt;
+        private volatile boolean used;
+
+        Entry(V value, boolean prefetched) {
+            this.value = value;
+            this.prefetched = prefetched;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.expensemanager.cache;
+
+import com.expensemanager.dao.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transport for several instances sharing one database.
+ * Published events are appended to the CacheInvalidations table and applied locally at once,
+ * other instances pick them up on their first poll after the insert commits.
+ *
+ * Sequence is assigned at insert, not at commit, so a row can become visible after rows with a
+ * higher Sequence have already been read. Each poll therefore also re-reads the rows created in
+ * the last SAFETY_WINDOW_SECONDS and skips the ones already applied. An insert that takes longer
+ * than the window to commit is still missed; the window is far above the time a single-row
+ * insert stays uncommitted.
+ */
+public class DatabasePollingTransport implements InvalidationTransport {
+
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 2000L;
+    public static final int DEFAULT_RETENTION_HOURS = 24;
+
+    // Rows created this recently are read again on every poll, in case they committed late
+    public static final int SAFETY_WINDOW_SECONDS = 30;
+
+    // Cleanup runs on every n-th poll
+    private static final int CLEANUP_EVERY_POLLS = 500;
+
+    private final long pollIntervalMillis;
+    private final int retentionHours;
+
+    private ScheduledExecutorService scheduler;
+    private volatile Consumer<InvalidationEvent> receiver;
+    private volatile String instanceID;
+    private long lastSequence;
+    private int pollCount;
+    // Sequences already applied that may still be in the safety window, with the time they were read;
+    // used by the poller thread only
+    private final Map<Long, Long> appliedSequences = new LinkedHashMap<>();
+
+    public DatabasePollingTransport() {
+        this(DEFAULT_POLL_INTERVAL_MILLIS, DEFAULT_RETENTION_HOURS);
+    }
+
+    public DatabasePollingTransport(long pollIntervalMillis, int retentionHours) {
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionHours = retentionHours;
+    }
+
+    @Override
+    public synchronized void start(String instanceID, Consumer<InvalidationEvent> receiver) {
+        this.instanceID = instanceID;
+        this.receiver = receiver;
+        // Only changes made after this instance started are relevant, its caches are empty
+        this.lastSequence = getMaxSequence();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        Consumer<InvalidationEvent> current = receiver;
+        if (current != null) {
+            current.accept(event);
+        }
+
+        String sql = "INSERT INTO CacheInvalidations (Region, UserID, SourceInstance) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, event.getRegion());
+            ps.setInt(2, event.getUserID());
+            ps.setString(3, event.getSourceInstance());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not publish cache invalidation " + event + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        receiver = null;
+    }
+
+    public long getPollIntervalMillis() { return pollIntervalMillis; }
+
+    // Apply events written by other instances since the last poll
+    private void poll() {
+        Consumer<InvalidationEvent> current = receiver;
+        if (current == null) return;
+
+        String sql = "SELECT Sequence, Region, UserID, SourceInstance FROM CacheInvalidations " +
+                     "WHERE Sequence > ? OR CreatedDate >= DATEADD(SECOND, ?, GETDATE()) ORDER BY Sequence";
+
+        long now = System.currentTimeMillis();
+        forgetAppliedBefore(now - 2000L * SAFETY_WINDOW_SECONDS);
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setLong(1, lastSequence);
+            ps.setInt(2, -SAFETY_WINDOW_SECONDS);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                long sequence = rs.getLong("Sequence");
+                // Rows of the safety window are read on several polls, apply each one once
+                if (appliedSequences.putIfAbsent(sequence, now) != null) continue;
+
+                lastSequence = Math.max(lastSequence, sequence);
+                String source = rs.getString("SourceInstance");
+                if (!instanceID.equals(source)) {
+                    current.accept(new InvalidationEvent(rs.getString("Region"), rs.getInt("UserID"), source));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not poll cache invalidations: " + e.getMessage());
+        }
+
+        if (++pollCount % CLEANUP_EVERY_POLLS == 0) {
+            deleteExpired();
+        }
+    }
+
+    // Drop the applied sequences read before the cutoff, they have left the safety window
+    private void forgetAppliedBefore(long cutoffMillis) {
+        Iterator<Long> readTimes = appliedSequences.values().iterator();
+        while (readTimes.hasNext() && readTimes.next() < cutoffMillis) {
+            readTimes.remove();
+        }
+    }
+
+    private long getMaxSequence() {
+        String sql = "SELECT ISNULL(MAX(Sequence), 0) FROM CacheInvalidations";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not read cache invalidation sequence: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private void deleteExpired() {
+        String sql = "DELETE FROM CacheInvalidations WHERE CreatedDate < DATEADD(HOUR, ?, GETDATE())";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, -retentionHours);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not delete old cache invalidations: " + e.getMessage());
+        }
+    }
+}
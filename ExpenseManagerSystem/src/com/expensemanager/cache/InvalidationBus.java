@@ -0,0 +1,115 @@
+package com.expensemanager.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Publish/subscribe bus for cache invalidations.
+ * Caches subscribe per region and drop a user's entries when an event arrives.
+ * Writers publish through the bus instead of touching the caches directly, so the same
+ * event reaches every instance that uses the configured transport.
+ */
+public class InvalidationBus {
+
+    public static final String REGION_USERS = "users";
+    public static final String REGION_CATEGORIES = "categories";
+    public static final String REGION_BUDGETS = "budgets";
+    public static final String REGION_SAVINGS = "savings";
+    public static final String REGION_DASHBOARDS = "dashboards";
+    public static final String REGION_RECENT_TRANSACTIONS = "recentTransactions";
+    public static final String REGION_REPORTS = "reports";
+
+    private static InvalidationBus instance;
+
+    private final String instanceID = UUID.randomUUID().toString();
+    private final Map<String, List<IntConsumer>> subscribers = new ConcurrentHashMap<>();
+    private InvalidationTransport transport;
+
+    private InvalidationBus() {
+        this.transport = new LoopbackTransport();
+        this.transport.start(instanceID, this::deliver);
+    }
+
+    public static synchronized InvalidationBus getInstance() {
+        if (instance == null) {
+            instance = new InvalidationBus();
+        }
+        return instance;
+    }
+
+    // Replace the transport, e.g. with DatabasePollingTransport when running several instances
+    public synchronized void setTransport(InvalidationTransport newTransport) {
+        transport.stop();
+        transport = newTransport;
+        transport.start(instanceID, this::deliver);
+    }
+
+    public synchronized InvalidationTransport getTransport() {
+        return transport;
+    }
+
+    // Register a handler receiving the userID of each event in the region
+    public void subscribe(String region, IntConsumer handler) {
+        subscribers.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    public void unsubscribe(String region, IntConsumer handler) {
+        List<IntConsumer> handlers = subscribers.get(region);
+        if (handlers != null) {
+            handlers.remove(handler);
+        }
+    }
+
+    public void publish(String region, int userID) {
+        send(new InvalidationEvent(region, userID, instanceID));
+    }
+
+    // Notify other instances only, the local cache was already invalidated by the caller
+    public void publishRemote(String region, int userID) {
+        send(new InvalidationEvent(region, userID, instanceID, true));
+    }
+
+    // Publish several regions of the same user
+    public void publish(int userID, String... regions) {
+        for (String region : regions) {
+            publish(region, userID);
+        }
+    }
+
+    public String getInstanceID() {
+        return instanceID;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            transport.stop();
+        }
+    }
+
+    private void send(InvalidationEvent event) {
+        InvalidationTransport current;
+        synchronized (this) {
+            current = transport;
+        }
+        current.publish(event);
+    }
+
+    private void deliver(InvalidationEvent event) {
+        if (event.isRemoteOnly() && instanceID.equals(event.getSourceInstance())) return;
+
+        List<IntConsumer> handlers = subscribers.get(event.getRegion());
+        if (handlers == null) return;
+
+        for (IntConsumer handler : handlers) {
+            try {
+                handler.accept(event.getUserID());
+            } catch (Exception e) {
+                System.err.println("Warning: Cache invalidation handler failed for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
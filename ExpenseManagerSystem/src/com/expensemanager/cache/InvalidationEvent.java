@@ -0,0 +1,40 @@
+package com.expensemanager.cache;
+
+/**
+ * A cache invalidation message: drop the entries of one user in one cache region.
+ * The source instance lets a transport skip messages it published itself.
+ * Remote-only events are for caches the publisher already updated more precisely.
+ */
+public class InvalidationEvent {
+
+    private final String region;
+    private final int userID;
+    private final String sourceInstance;
+    private final boolean remoteOnly;
+
+    public InvalidationEvent(String region, int userID, String sourceInstance) {
+        this(region, userID, sourceInstance, false);
+    }
+
+    public InvalidationEvent(String region, int userID, String sourceInstance, boolean remoteOnly) {
+        this.region = region;
+        this.userID = userID;
+        this.sourceInstance = sourceInstance;
+        this.remoteOnly = remoteOnly;
+    }
+
+    public String getRegion() { return region; }
+    public int getUserID() { return userID; }
+    public String getSourceInstance() { return sourceInstance; }
+    public boolean isRemoteOnly() { return remoteOnly; }
+
+    @Override
+    public String toString() {
+        return "InvalidationEvent{" +
+                "region='" + region + '\'' +
+                ", userID=" + userID +
+                ", sourceInstance='" + sourceInstance + '\'' +
+                ", remoteOnly=" + remoteOnly +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.expensemanager.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation events between application instances.
+ * Implementations must deliver published events to the local receiver as well,
+ * other instances receive them within the transport's delay.
+ */
+public interface InvalidationTransport {
+
+    void start(String instanceID, Consumer<InvalidationEvent> receiver);
+
+    void publish(InvalidationEvent event);
+
+    void stop();
+}
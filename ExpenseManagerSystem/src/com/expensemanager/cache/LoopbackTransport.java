@@ -0,0 +1,30 @@
+package com.expensemanager.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * In-process transport for a single instance and for tests.
+ * Events are delivered synchronously to the local receiver only.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+    private volatile Consumer<InvalidationEvent> receiver;
+
+    @Override
+    public void start(String instanceID, Consumer<InvalidationEvent> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        Consumer<InvalidationEvent> current = receiver;
+        if (current != null) {
+            current.accept(event);
+        }
+    }
+
+    @Override
+    public void stop() {
+        receiver = null;
+    }
+}
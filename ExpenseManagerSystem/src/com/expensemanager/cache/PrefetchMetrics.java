@@ -0,0 +1,50 @@
+package com.expensemanager.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how useful prefetched cache entries were.
+ * A prefetched entry is either hit at least once (useful) or dropped before any hit (wasted)
+ */
+public class PrefetchMetrics {
+
+    private final AtomicLong prefetchRuns = new AtomicLong();
+    private final AtomicLong prefetchedLoads = new AtomicLong();
+    private final AtomicLong prefetchHits = new AtomicLong();
+    private final AtomicLong wastedLoads = new AtomicLong();
+
+    public void recordPrefetchRun() { prefetchRuns.incrementAndGet(); }
+    public void recordPrefetchedLoad() { prefetchedLoads.incrementAndGet(); }
+    public void recordPrefetchHit() { prefetchHits.incrementAndGet(); }
+    public void recordWastedLoad() { wastedLoads.incrementAndGet(); }
+
+    public long getPrefetchRuns() { return prefetchRuns.get(); }
+    public long getPrefetchedLoads() { return prefetchedLoads.get(); }
+    public long getPrefetchHits() { return prefetchHits.get(); }
+    public long getWastedLoads() { return wastedLoads.get(); }
+
+    // Share of prefetched entries that were used before being dropped
+    public double getUsefulnessRate() {
+        long decided = prefetchHits.get() + wastedLoads.get();
+        if (decided == 0) return 0;
+        return (prefetchHits.get() * 100.0) / decided;
+    }
+
+    public void reset() {
+        prefetchRuns.set(0);
+        prefetchedLoads.set(0);
+        prefetchHits.set(0);
+        wastedLoads.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "PrefetchMetrics{" +
+                "prefetchRuns=" + prefetchRuns.get() +
+                ", prefetchedLoads=" + prefetchedLoads.get() +
+                ", prefetchHits=" + prefetchHits.get() +
+                ", wastedLoads=" + wastedLoads.get() +
+                ", usefulnessRate=" + String.format("%.1f%%", getUsefulnessRate()) +
+                '}';
+    }
+}
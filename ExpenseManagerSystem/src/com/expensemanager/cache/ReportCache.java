@@ -0,0 +1,140 @@
+package com.expensemanager.cache;
+
+import com.expensemanager.util.DateUtils;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for report results keyed by (user, report, period).
+ * Periods are normalized to epoch days. Entries for closed periods (ending before the
+ * current month) are kept until a written transaction falls inside their period,
+ * entries touching the current month are also dropped after a short time to live.
+ */
+public class ReportCache {
+
+    public static final long DEFAULT_OPEN_PERIOD_TTL_MILLIS = 5 * 60 * 1000L;
+
+    // userID -> (report key -> entry)
+    private final Map<Integer, Map<String, Entry>> entriesByUser = new ConcurrentHashMap<>();
+    private volatile long openPeriodTtlMillis = DEFAULT_OPEN_PERIOD_TTL_MILLIS;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    // Get cached report, null when missing or expired
+    @SuppressWarnings("unchecked")
+    public <T> T get(int userID, String report, int startDay, int endDay) {
+        Map<String, Entry> userEntries = entriesByUser.get(userID);
+        Entry entry = userEntries != null ? userEntries.get(buildKey(report, startDay, endDay)) : null;
+
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (!entry.closed && System.currentTimeMillis() - entry.createdAt > openPeriodTtlMillis) {
+            if (userEntries.remove(buildKey(report, startDay, endDay), entry)) {
+                discarded(entry);
+            }
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (entry.prefetched && !entry.used && !CacheManager.isPrefetchThread()) {
+            entry.used = true;
+            CacheManager.getInstance().getPrefetchMetrics().recordPrefetchHit();
+        }
+        hitCount.incrementAndGet();
+        return (T) entry.value;
+    }
+
+    // Store report result for the given period
+    public void put(int userID, String report, int startDay, int endDay, Object value) {
+        int currentMonthStart = DateUtils.toEpochDay(DateUtils.getCurrentMonthStart());
+        boolean prefetched = CacheManager.isPrefetchThread();
+        Entry entry = new Entry(startDay, endDay, endDay < currentMonthStart, value, prefetched);
+        Entry previous = entriesByUser.computeIfAbsent(userID, id -> new ConcurrentHashMap<>())
+                                      .put(buildKey(report, startDay, endDay), entry);
+        if (previous != null) {
+            discarded(previous);
+        }
+        if (prefetched) {
+            CacheManager.getInstance().getPrefetchMetrics().recordPrefetchedLoad();
+        }
+    }
+
+    // Drop every entry of the user whose period contains the given day
+    public void invalidate(int userID, int epochDay) {
+        Map<String, Entry> userEntries = entriesByUser.get(userID);
+        if (userEntries == null) return;
+
+        userEntries.values().removeIf(entry -> {
+            boolean affected = epochDay >= entry.startDay && epochDay <= entry.endDay;
+            if (affected) {
+                invalidationCount.incrementAndGet();
+                discarded(entry);
+            }
+            return affected;
+        });
+    }
+
+    public void invalidateUser(int userID) {
+        Map<String, Entry> removed = entriesByUser.remove(userID);
+        if (removed != null) {
+            invalidationCount.addAndGet(removed.size());
+            removed.values().forEach(this::discarded);
+        }
+    }
+
+    public void clear() {
+        entriesByUser.values().forEach(userEntries -> userEntries.values().forEach(this::discarded));
+        entriesByUser.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Entry> userEntries : entriesByUser.values()) {
+            size += userEntries.size();
+        }
+        return size;
+    }
+
+    public long getOpenPeriodTtlMillis() { return openPeriodTtlMillis; }
+    public void setOpenPeriodTtlMillis(long openPeriodTtlMillis) { this.openPeriodTtlMillis = openPeriodTtlMillis; }
+
+    public long getHitCount() { return hitCount.get(); }
+    public long getMissCount() { return missCount.get(); }
+    public long getInvalidationCount() { return invalidationCount.get(); }
+
+    // A prefetched entry dropped before its first hit was a wasted load
+    private void discarded(Entry entry) {
+        if (entry.prefetched && !entry.used) {
+            CacheManager.getInstance().getPrefetchMetrics().recordWastedLoad();
+        }
+    }
+
+    private static String buildKey(String report, int startDay, int endDay) {
+        return report + "|" + startDay + "|" + endDay;
+    }
+
+    private static class Entry {
+        private final int startDay;
+        private final int endDay;
+        private final boolean closed;
+        private final Object value;
+        private final boolean prefetched;
+        private final long createdAt;
+        private volatile boolean used;
+
+        Entry(int startDay, int endDay, boolean closed, Object value, boolean prefetched) {
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.closed = closed;
+            this.value = value;
+            this.prefetched = prefetched;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.expensemanager.dao;
 
 import com.expensemanager.model.Budget;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
@@ -8,19 +10,33 @@ import java.util.List;
 
 public class BudgetDAO {
     
-    // Create new budget
+    // Budget columns with the category fields shown next to a budget, read by mapResultSetToBudget
+    private static final String BUDGET_COLUMNS = "b.*, c.CategoryName, c.Color as CategoryColor, c.CategoryType";
+    
+    // Rows per MERGE of upsertYearBudgets, 4 parameters each stays under SQL Server's 2100 parameter limit
+    private static final int UPSERT_CHUNK_SIZE = 400;
+    
+    // Create new budget, CurrentSpent starts from the existing expenses of the period
+    // and is kept up to date by the tr_UpdateBudgetSpent trigger afterwards
     public boolean createBudget (Budget budget) {
-        String sql = "INSERT INTO Budget (UserID, CategoryID, BudgetAmount, Month, Year, AlertThreshold) VALUES (?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO Budget (UserID, CategoryID, BudgetAmount, Month, Year, AlertThreshold, CurrentSpent) " +
+                    "SELECT ?, ?, ?, ?, ?, ?, ISNULL(SUM(Amount), 0) FROM Transactions " +
+                    "WHERE UserID = ? AND CategoryID = ? AND TransactionType = 'EXPENSE' " +
+                    "AND TransactionDate >= ? AND TransactionDate < ?";
         
         try (Connection conn = DatabaseConnection.getDBConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, budget.getUserID());
             pstmt.setInt(2, budget.getCategoryID());
-            pstmt.setDouble(3, budget.getBudgetAmount());
+            Money.bind(pstmt, 3, budget.getBudgetAmountMinor());
             pstmt.setInt(4, budget.getMonth());
             pstmt.setInt(5, budget.getYear());
             pstmt.setDouble(6, budget.getAlertThreshold());
+            pstmt.setInt(7, budget.getUserID());
+            pstmt.setInt(8, budget.getCategoryID());
+            pstmt.setDate(9, new java.sql.Date(DateUtils.getMonthStart(budget.getMonth(), budget.getYear()).getTime()));
+            pstmt.setDate(10, new java.sql.Date(DateUtils.getNextMonthStart(budget.getMonth(), budget.getYear()).getTime()));
             
             int affectedRows = pstmt.executeUpdate();
             
@@ -28,9 +44,12 @@ public class BudgetDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         budget.setBudgetID(generatedKeys.getInt(1));
-                        return true;
                     }
                 }
+                
+                budget.setCurrentSpentMinor(getCurrentSpent(conn, budget.getBudgetID()));
+                budget.updateStatus();
+                return true;
             }
         } catch (SQLException e) {
             System.err.println("Error creating budget: " + e.getMessage());
@@ -40,9 +59,121 @@ public class BudgetDAO {
         return false;
     }
     
+    // Copy the budgets of one month into another in a single INSERT ... SELECT, skipping categories
+    // that already have a budget in the target month. CurrentSpent starts from the target month's expenses.
+    // Returns the number of budgets created, -1 on error.
+    public int copyBudgets (int userID, int fromMonth, int fromYear, int toMonth, int toYear) {
+        String sql = "INSERT INTO Budget (UserID, CategoryID, BudgetAmount, Month, Year, AlertThreshold, CurrentSpent) " +
+                    "SELECT p.UserID, p.CategoryID, p.BudgetAmount, ?, ?, p.AlertThreshold, ISNULL(s.Spent, 0) " +
+                    "FROM Budget p " +
+                    "LEFT JOIN (" +
+                    "  SELECT CategoryID, SUM(Amount) as Spent FROM Transactions " +
+                    "  WHERE UserID = ? AND TransactionType = 'EXPENSE' AND TransactionDate >= ? AND TransactionDate < ? " +
+                    "  GROUP BY CategoryID" +
+                    ") s ON s.CategoryID = p.CategoryID " +
+                    "WHERE p.UserID = ? AND p.Month = ? AND p.Year = ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM Budget t WITH (UPDLOCK, HOLDLOCK) " +
+                    "  WHERE t.UserID = p.UserID AND t.CategoryID = p.CategoryID AND t.Month = ? AND t.Year = ?)";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, toMonth);
+            pstmt.setInt(2, toYear);
+            pstmt.setInt(3, userID);
+            pstmt.setDate(4, new java.sql.Date(DateUtils.getMonthStart(toMonth, toYear).getTime()));
+            pstmt.setDate(5, new java.sql.Date(DateUtils.getNextMonthStart(toMonth, toYear).getTime()));
+            pstmt.setInt(6, userID);
+            pstmt.setInt(7, fromMonth);
+            pstmt.setInt(8, fromYear);
+            pstmt.setInt(9, toMonth);
+            pstmt.setInt(10, toYear);
+            
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error copying budgets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return -1;
+    }
+    
+    // Create or update the budgets of a year in one transaction, MERGE over chunks of rows.
+    // Each budget needs categoryID, month, budgetAmount and alertThreshold; rows whose category is
+    // not an expense category of the user (or a default one) are skipped. Existing budgets keep
+    // their CurrentSpent, new ones start from the month's expenses. Returns the rows written, -1 on error.
+    public int upsertYearBudgets (int userID, int year, List<Budget> budgets) {
+        int written = 0;
+        
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < budgets.size(); from += UPSERT_CHUNK_SIZE) {
+                    List<Budget> chunk = budgets.subList(from, Math.min(budgets.size(), from + UPSERT_CHUNK_SIZE));
+                    written += upsertYearChunk(conn, userID, year, chunk);
+                }
+                conn.commit();
+                return written;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error planning yearly budgets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return -1;
+    }
+    
+    private int upsertYearChunk (Connection conn, int userID, int year, List<Budget> chunk) throws SQLException {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+            values.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        
+        String sql = "MERGE Budget WITH (HOLDLOCK) AS b " +
+                    "USING (" +
+                    "  SELECT v.CategoryID, v.[Month], v.BudgetAmount, v.AlertThreshold, ISNULL(s.Spent, 0) as Spent " +
+                    "  FROM (VALUES " + values + ") v (CategoryID, [Month], BudgetAmount, AlertThreshold) " +
+                    "  INNER JOIN Categories c ON c.CategoryID = v.CategoryID AND c.CategoryType = 'EXPENSE' " +
+                    "    AND (c.UserID = ? OR c.IsDefault = 1) " +
+                    "  LEFT JOIN (" +
+                    "    SELECT CategoryID, MONTH(TransactionDate) as [Month], SUM(Amount) as Spent FROM Transactions " +
+                    "    WHERE UserID = ? AND TransactionType = 'EXPENSE' AND TransactionDate >= ? AND TransactionDate < ? " +
+                    "    GROUP BY CategoryID, MONTH(TransactionDate)" +
+                    "  ) s ON s.CategoryID = v.CategoryID AND s.[Month] = v.[Month]" +
+                    ") src " +
+                    "ON b.UserID = ? AND b.Year = ? AND b.CategoryID = src.CategoryID AND b.Month = src.[Month] " +
+                    "WHEN MATCHED THEN UPDATE SET BudgetAmount = src.BudgetAmount, AlertThreshold = src.AlertThreshold, " +
+                    "ModifiedDate = GETDATE() " +
+                    "WHEN NOT MATCHED THEN INSERT (UserID, CategoryID, BudgetAmount, Month, Year, AlertThreshold, CurrentSpent) " +
+                    "VALUES (?, src.CategoryID, src.BudgetAmount, src.[Month], ?, src.AlertThreshold, src.Spent);";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Budget budget : chunk) {
+                pstmt.setInt(index++, budget.getCategoryID());
+                pstmt.setInt(index++, budget.getMonth());
+                Money.bind(pstmt, index++, budget.getBudgetAmountMinor());
+                pstmt.setBigDecimal(index++, java.math.BigDecimal.valueOf(budget.getAlertThreshold()));
+            }
+            pstmt.setInt(index++, userID);
+            pstmt.setInt(index++, userID);
+            pstmt.setDate(index++, new java.sql.Date(DateUtils.getMonthStart(1, year).getTime()));
+            pstmt.setDate(index++, new java.sql.Date(DateUtils.getMonthStart(1, year + 1).getTime()));
+            pstmt.setInt(index++, userID);
+            pstmt.setInt(index++, year);
+            pstmt.setInt(index++, userID);
+            pstmt.setInt(index, year);
+            
+            return pstmt.executeUpdate();
+        }
+    }
+    
     // Get budget by ID
     public Budget getBudgetById (int budgetID) {
-        String sql = "SELECT b.*, c.CategoryName FROM Budget b " +
+        String sql = "SELECT " + BUDGET_COLUMNS + " FROM Budget b " +
                     "INNER JOIN Categories c ON b.CategoryID = c.CategoryID " +
                     "WHERE b.BudgetID = ?";
         
@@ -67,11 +198,7 @@ public class BudgetDAO {
     // Get budget by user and period 
     public List<Budget> getBudgetsByUserAndPeriod (int userID, int month, int year) {
         List<Budget> budgets = new ArrayList<>();
-        String sql = "SELECT b.*, c.CategoryName, " +
-                    "ISNULL((SELECT SUM(Amount) FROM Transactions t WHERE t.CategoryID = b.CategoryID " +
-                    "AND t.UserID = b.UserID AND MONTH(t.TransactionDate) = b.Month " +
-                    "AND YEAR(t.TransactionDate) = b.Year AND t.TransactionType = 'EXPENSE'), 0) as CurrentSpent " +
-                    "FROM Budget b " +
+        String sql = "SELECT " + BUDGET_COLUMNS + " FROM Budget b " +
                     "INNER JOIN Categories c ON b.CategoryID = c.CategoryID " +
                     "WHERE b.UserID = ? AND b.Month = ? AND b.Year = ? " +
                     "ORDER BY c.CategoryName";
@@ -85,19 +212,7 @@ public class BudgetDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Budget budget = mapResultSetToBudget(rs);
-                    budget.setCurrentSpent(rs.getDouble("CurrentSpent"));
-                    
-                    // Calculate status
-                        if (budget.isExceeded()) {
-                        budget.setStatus("EXCEED");
-                    } else if (budget.isWarning()) {
-                        budget.setStatus("WARNING");
-                    } else {
-                        budget.setStatus("OK");
-                    }
-                    
-                    budgets.add(budget);
+                    budgets.add(mapResultSetToBudget(rs));
                 }
             }
             
@@ -111,7 +226,7 @@ public class BudgetDAO {
     
     // Get budget by category and period
     public Budget getBudgetByCategory(int userID, int categoryID, int month, int year) {
-        String sql = "SELECT b.*, c.CategoryName FROM Budget b " +
+        String sql = "SELECT " + BUDGET_COLUMNS + " FROM Budget b " +
                     "INNER JOIN Categories c ON b.CategoryID = c.CategoryID " +
                     "WHERE b.UserID = ? AND b.CategoryID = ? AND b.Month = ? AND b.Year = ?";
         
@@ -144,7 +259,7 @@ public class BudgetDAO {
         try (Connection conn = DatabaseConnection.getDBConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setDouble(1, budget.getBudgetAmount());
+            Money.bind(pstmt, 1, budget.getBudgetAmountMinor());
             pstmt.setDouble(2, budget.getAlertThreshold());
             pstmt.setInt(3, budget.getBudgetID());
             
@@ -176,6 +291,54 @@ public class BudgetDAO {
         return false;
     }
     
+    // Read the stored spent amount of a budget
+    private long getCurrentSpent (Connection conn, int budgetID) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT CurrentSpent FROM Budget WHERE BudgetID = ?")) {
+            pstmt.setInt(1, budgetID);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Money.read(rs, "CurrentSpent") : 0;
+            }
+        }
+    }
+    
+    // Totals and status counts of a user's budgets for a month, one aggregate over the maintained CurrentSpent.
+    // Status conditions match Budget.calculateStatus: EXCEED over the amount, WARNING from the threshold up to it.
+    public BudgetTotals getBudgetTotals (int userID, int month, int year) {
+        String sql = "SELECT COUNT(*) as BudgetCount, " +
+                    "ISNULL(SUM(BudgetAmount), 0) as TotalBudgetAmount, ISNULL(SUM(CurrentSpent), 0) as TotalSpentAmount, " +
+                    "ISNULL(SUM(CASE WHEN CurrentSpent > BudgetAmount THEN 1 ELSE 0 END), 0) as ExceededCount, " +
+                    "ISNULL(SUM(CASE WHEN BudgetAmount > 0 AND CurrentSpent < BudgetAmount " +
+                    "AND CurrentSpent * 100 >= BudgetAmount * AlertThreshold THEN 1 ELSE 0 END), 0) as WarningCount " +
+                    "FROM Budget WHERE UserID = ? AND Month = ? AND Year = ?";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            pstmt.setInt(2, month);
+            pstmt.setInt(3, year);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    BudgetTotals totals = new BudgetTotals();
+                    totals.setBudgetCount(rs.getInt("BudgetCount"));
+                    totals.setTotalBudgetAmount(Money.read(rs, "TotalBudgetAmount"));
+                    totals.setTotalSpentAmount(Money.read(rs, "TotalSpentAmount"));
+                    totals.setWarningCount(rs.getInt("WarningCount"));
+                    totals.setExceededCount(rs.getInt("ExceededCount"));
+                    return totals;
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting budget totals: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
     // Check budget alerts
     public List<Budget> getBudgetAlerts(int userID, int month, int year) {
         List<Budget> alerts = new ArrayList<>();
@@ -191,9 +354,9 @@ public class BudgetDAO {
                 while (rs.next()) {
                     Budget budget = new Budget();
                     budget.setBudgetID(rs.getInt("BudgetID"));
-                    budget.setBudgetAmount(rs.getDouble("BudgetAmount"));
+                    budget.setBudgetAmountMinor(Money.read(rs, "BudgetAmount"));
                     budget.setCategoryName(rs.getString("CategoryName"));
-                    budget.setCurrentSpent(rs.getDouble("CurrentSpent"));
+                    budget.setCurrentSpentMinor(Money.read(rs, "CurrentSpent"));
                     budget.setStatus(rs.getString("Status"));
                     
                     // Only return WARNING or EXCEED budgets
@@ -211,19 +374,198 @@ public class BudgetDAO {
         return alerts;
     }
     
+    // Budgets of a month with the spending history used for forecasting, one grouped pass over the history.
+    // History covers the previous 3 months and the same month last year; HistoryToDate only counts
+    // days of month up to dayOfMonth. userID 0 loads the budgets of all users.
+    public List<ForecastInput> getForecastInputs (int userID, int month, int year, int dayOfMonth) {
+        List<ForecastInput> inputs = new ArrayList<>();
+        String userFilter = userID > 0 ? "AND t.UserID = ? " : "";
+        String sql = "SELECT " + BUDGET_COLUMNS + ", " +
+                    "ISNULL(h.HistoryTotal, 0) as HistoryTotal, ISNULL(h.HistoryToDate, 0) as HistoryToDate, " +
+                    "ISNULL(h.HistoryMonths, 0) as HistoryMonths " +
+                    "FROM Budget b " +
+                    "INNER JOIN Categories c ON b.CategoryID = c.CategoryID " +
+                    "LEFT JOIN (" +
+                    "  SELECT t.UserID, t.CategoryID, SUM(t.Amount) as HistoryTotal, " +
+                    "  SUM(CASE WHEN DAY(t.TransactionDate) <= ? THEN t.Amount ELSE 0 END) as HistoryToDate, " +
+                    "  COUNT(DISTINCT YEAR(t.TransactionDate) * 12 + MONTH(t.TransactionDate)) as HistoryMonths " +
+                    "  FROM Transactions t " +
+                    "  WHERE t.TransactionType = 'EXPENSE' " + userFilter +
+                    "  AND ((t.TransactionDate >= ? AND t.TransactionDate < ?) OR (t.TransactionDate >= ? AND t.TransactionDate < ?)) " +
+                    "  GROUP BY t.UserID, t.CategoryID" +
+                    ") h ON h.UserID = b.UserID AND h.CategoryID = b.CategoryID " +
+                    "WHERE b.Month = ? AND b.Year = ? " + (userID > 0 ? "AND b.UserID = ?" : "");
+        
+        java.util.Date monthStart = DateUtils.getMonthStart(month, year);
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            pstmt.setInt(index++, dayOfMonth);
+            if (userID > 0) pstmt.setInt(index++, userID);
+            pstmt.setDate(index++, new java.sql.Date(DateUtils.addMonths(monthStart, -3).getTime()));
+            pstmt.setDate(index++, new java.sql.Date(monthStart.getTime()));
+            pstmt.setDate(index++, new java.sql.Date(DateUtils.addMonths(monthStart, -12).getTime()));
+            pstmt.setDate(index++, new java.sql.Date(DateUtils.addMonths(monthStart, -11).getTime()));
+            pstmt.setInt(index++, month);
+            pstmt.setInt(index++, year);
+            if (userID > 0) pstmt.setInt(index, userID);
+            pstmt.setFetchSize(1000);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ForecastInput input = new ForecastInput();
+                    input.setBudget(mapResultSetToBudget(rs));
+                    input.setHistoryTotal(Money.read(rs, "HistoryTotal"));
+                    input.setHistoryToDate(Money.read(rs, "HistoryToDate"));
+                    input.setHistoryMonths(rs.getInt("HistoryMonths"));
+                    inputs.add(input);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting budget forecast inputs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return inputs;
+    }
+    
+    // Monthly expense totals per category in [startMonth/startYear, endMonth/endYear), one grouped pass
+    // ordered by user and category. userID 0 loads the totals of all users.
+    public List<MonthlySpend> getMonthlyCategorySpend (int userID, int startMonth, int startYear, int endMonth, int endYear) {
+        List<MonthlySpend> result = new ArrayList<>();
+        String sql = "SELECT UserID, CategoryID, YEAR(TransactionDate) as [Year], MONTH(TransactionDate) as [Month], " +
+                    "SUM(Amount) as TotalAmount " +
+                    "FROM Transactions " +
+                    "WHERE TransactionType = 'EXPENSE' AND TransactionDate >= ? AND TransactionDate < ? " +
+                    (userID > 0 ? "AND UserID = ? " : "") +
+                    "GROUP BY UserID, CategoryID, YEAR(TransactionDate), MONTH(TransactionDate) " +
+                    "ORDER BY UserID, CategoryID";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, new java.sql.Date(DateUtils.getMonthStart(startMonth, startYear).getTime()));
+            pstmt.setDate(2, new java.sql.Date(DateUtils.getMonthStart(endMonth, endYear).getTime()));
+            if (userID > 0) pstmt.setInt(3, userID);
+            pstmt.setFetchSize(1000);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    MonthlySpend spend = new MonthlySpend();
+                    spend.setUserID(rs.getInt("UserID"));
+                    spend.setCategoryID(rs.getInt("CategoryID"));
+                    spend.setYear(rs.getInt("Year"));
+                    spend.setMonth(rs.getInt("Month"));
+                    spend.setAmount(Money.read(rs, "TotalAmount"));
+                    result.add(spend);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting monthly category spend: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return result;
+    }
+    
     // Helper method to map ResultSet to Budget
     private Budget mapResultSetToBudget(ResultSet rs) throws SQLException {
         Budget budget = new Budget();
         budget.setBudgetID(rs.getInt("BudgetID"));
         budget.setUserID(rs.getInt("UserID"));
         budget.setCategoryID(rs.getInt("CategoryID"));
-        budget.setBudgetAmount(rs.getDouble("BudgetAmount"));
+        budget.setBudgetAmountMinor(Money.read(rs, "BudgetAmount"));
         budget.setMonth(rs.getInt("Month"));
         budget.setYear(rs.getInt("Year"));
         budget.setAlertThreshold(rs.getDouble("AlertThreshold"));
         budget.setCreatedDate(rs.getTimestamp("CreatedDate"));
         budget.setModifiedDate(rs.getTimestamp("ModifiedDate"));
         budget.setCategoryName(rs.getString("CategoryName"));
+        budget.setCategoryColor(rs.getString("CategoryColor"));
+        budget.setCategoryType(rs.getString("CategoryType"));
+        budget.setCurrentSpentMinor(Money.read(rs, "CurrentSpent"));
+        budget.updateStatus();
         return budget;
     }
+    
+    /**
+     * Totals of a user's budgets for one month, amounts in minor units.
+     */
+    public static class BudgetTotals {
+        private int budgetCount;
+        private long totalBudgetAmount;
+        private long totalSpentAmount;
+        private int warningCount;
+        private int exceededCount;
+        
+        public int getBudgetCount() { return budgetCount; }
+        public void setBudgetCount(int budgetCount) { this.budgetCount = budgetCount; }
+        
+        public long getTotalBudgetAmount() { return totalBudgetAmount; }
+        public void setTotalBudgetAmount(long totalBudgetAmount) { this.totalBudgetAmount = totalBudgetAmount; }
+        
+        public long getTotalSpentAmount() { return totalSpentAmount; }
+        public void setTotalSpentAmount(long totalSpentAmount) { this.totalSpentAmount = totalSpentAmount; }
+        
+        public int getWarningCount() { return warningCount; }
+        public void setWarningCount(int warningCount) { this.warningCount = warningCount; }
+        
+        public int getExceededCount() { return exceededCount; }
+        public void setExceededCount(int exceededCount) { this.exceededCount = exceededCount; }
+        
+        public int getOkCount() { return budgetCount - warningCount - exceededCount; }
+    }
+    
+    /**
+     * A budget with the history its forecast is based on, amounts in minor units.
+     */
+    public static class ForecastInput {
+        private Budget budget;
+        private long historyTotal;
+        private long historyToDate;
+        private int historyMonths;
+        
+        public Budget getBudget() { return budget; }
+        public void setBudget(Budget budget) { this.budget = budget; }
+        
+        public long getHistoryTotal() { return historyTotal; }
+        public void setHistoryTotal(long historyTotal) { this.historyTotal = historyTotal; }
+        
+        public long getHistoryToDate() { return historyToDate; }
+        public void setHistoryToDate(long historyToDate) { this.historyToDate = historyToDate; }
+        
+        public int getHistoryMonths() { return historyMonths; }
+        public void setHistoryMonths(int historyMonths) { this.historyMonths = historyMonths; }
+    }
+    
+    /**
+     * Expense total of one user, category and month, amount in minor units.
+     */
+    public static class MonthlySpend {
+        private int userID;
+        private int categoryID;
+        private int year;
+        private int month;
+        private long amount;
+        
+        public int getUserID() { return userID; }
+        public void setUserID(int userID) { this.userID = userID; }
+        
+        public int getCategoryID() { return categoryID; }
+        public void setCategoryID(int categoryID) { this.categoryID = categoryID; }
+        
+        public int getYear() { return year; }
+        public void setYear(int year) { this.year = year; }
+        
+        public int getMonth() { return month; }
+        public void setMonth(int month) { this.month = month; }
+        
+        public long getAmount() { return amount; }
+        public void setAmount(long amount) { this.amount = amount; }
+        
+        // Months since year 0, consecutive months differ by one
+        public int getMonthIndex() { return year * 12 + month - 1; }
+    }
 }
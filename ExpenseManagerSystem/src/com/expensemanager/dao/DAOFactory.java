@@ -1,5 +1,11 @@
 package com.expensemanager.dao;
 
+import com.expensemanager.cache.InvalidationBus;
+import com.expensemanager.model.Transaction;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
 
 public class DAOFactory {
     private static DAOFactory instance;
@@ -9,10 +15,17 @@ public class DAOFactory {
     private CategoryDAO categoryDAO;
     private TransactionDAO transactionDAO;
     private BudgetDAO budgetDAO;
+    private PeriodBudgetDAO periodBudgetDAO;
     private SavingDAO savingDAO;
     private SavingTransactionDAO savingTransactionDAO;
     private ReportDAO reportDAO;
+    private IntConsumer reportInvalidationHandler;
     private RecurringTransactionDAO recurringTransactionDAO;
+    private StatementDAO statementDAO;
+    private SpendSketchDAO spendSketchDAO;
+    
+    // Listeners notified after transaction writes
+    private final List<TransactionChangeListener> transactionListeners = new CopyOnWriteArrayList<>();
     
     private DAOFactory () {
         
@@ -54,6 +67,13 @@ public class DAOFactory {
         return budgetDAO;
     }
     
+    public PeriodBudgetDAO getPeriodBudgetDAO () {
+        if (periodBudgetDAO == null) {
+            periodBudgetDAO = new PeriodBudgetDAO();
+        }
+        return periodBudgetDAO;
+    }
+    
     public SavingDAO getSavingDAO () {
         if (savingDAO == null) {
             savingDAO = new SavingDAO();
@@ -71,6 +91,9 @@ public class DAOFactory {
     public ReportDAO getReportDAO () {
         if (reportDAO == null) {
             reportDAO = new ReportDAO();
+            addTransactionChangeListener(reportDAO);
+            reportInvalidationHandler = reportDAO.getReportCache()::invalidateUser;
+            InvalidationBus.getInstance().subscribe(InvalidationBus.REGION_REPORTS, reportInvalidationHandler);
         }
         return reportDAO;
     }
@@ -82,6 +105,81 @@ public class DAOFactory {
         return recurringTransactionDAO;
     }
     
+    public StatementDAO getStatementDAO () {
+        if (statementDAO == null) {
+            statementDAO = new StatementDAO();
+        }
+        return statementDAO;
+    }
+    
+    public SpendSketchDAO getSpendSketchDAO () {
+        if (spendSketchDAO == null) {
+            spendSketchDAO = new SpendSketchDAO();
+        }
+        return spendSketchDAO;
+    }
+    
+    // Transaction change notifications
+    public void addTransactionChangeListener (TransactionChangeListener listener) {
+        if (listener != null && !transactionListeners.contains(listener)) {
+            transactionListeners.add(listener);
+        }
+    }
+    
+    public void removeTransactionChangeListener (TransactionChangeListener listener) {
+        transactionListeners.remove(listener);
+    }
+    
+    public void fireBeginWrite (int userID) {
+        for (TransactionChangeListener listener : transactionListeners) {
+            try {
+                listener.beginWrite(userID);
+            } catch (Exception e) {
+                System.err.println("Warning: Transaction listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    public void fireEndWrite (int userID) {
+        for (TransactionChangeListener listener : transactionListeners) {
+            try {
+                listener.endWrite(userID);
+            } catch (Exception e) {
+                System.err.println("Warning: Transaction listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    public void fireTransactionCreated (Transaction transaction) {
+        for (TransactionChangeListener listener : transactionListeners) {
+            try {
+                listener.transactionCreated(transaction);
+            } catch (Exception e) {
+                System.err.println("Warning: Transaction listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    public void fireTransactionUpdated (Transaction before, Transaction after) {
+        for (TransactionChangeListener listener : transactionListeners) {
+            try {
+                listener.transactionUpdated(before, after);
+            } catch (Exception e) {
+                System.err.println("Warning: Transaction listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    public void fireTransactionDeleted (Transaction transaction) {
+        for (TransactionChangeListener listener : transactionListeners) {
+            try {
+                listener.transactionDeleted(transaction);
+            } catch (Exception e) {
+                System.err.println("Warning: Transaction listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
     // Method to test all DAO connections
     public boolean testAllConnections() {
         try {
@@ -181,14 +279,23 @@ public class DAOFactory {
     
     // Close all DAO connections (if needed)
     public void closeAll () {
+        if (reportDAO != null) {
+            removeTransactionChangeListener(reportDAO);
+            InvalidationBus.getInstance().unsubscribe(InvalidationBus.REGION_REPORTS, reportInvalidationHandler);
+            reportInvalidationHandler = null;
+        }
+        
         // Reset all DAO instances
         userDAO = null;
         categoryDAO = null;
         transactionDAO = null;
         budgetDAO = null;
+        periodBudgetDAO = null;
         savingDAO = null;
         savingTransactionDAO = null;
         recurringTransactionDAO = null;
+        statementDAO = null;
+        spendSketchDAO = null;
         reportDAO = null;
     }
     
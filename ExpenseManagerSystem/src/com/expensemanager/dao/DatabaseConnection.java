@@ -1,8 +1,17 @@
 package com.expensemanager.dao;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class DatabaseConnection {
@@ -18,56 +27,131 @@ public class DatabaseConnection {
             ";trustServerCertificate=true" +
             ";encrypt=false";
     
-    // Singleton pattern
-    private static DatabaseConnection instance;
-    private Connection connection;
+    // Connections kept open for reuse, callers never hold more than a few at once
+    private static final int POOL_SIZE = 10;
+    // A connection idle for longer is checked with the server before it is handed out again
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 30000L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
     
-    private DatabaseConnection () {
+    private static final BlockingQueue<PooledConnection> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+    
+    // Statements prepared through getDBConnection while counting is on, see setStatementCounting
+    private static volatile boolean statementCounting;
+    private static final AtomicLong statementCount = new AtomicLong();
+    
+    static {
         try {
             Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-            this.connection = DriverManager.getConnection(CONNECTION_URL, USERNAME, PASSWORD);
-            System.out.println("Database connection succesfully!");
         } catch (ClassNotFoundException e) {
             System.err.println("SQL Server JDBC Driver not found!");
             e.printStackTrace();
-        } catch (SQLException e) {
-            System.err.println("Failed to establish database connection!");
-            e.printStackTrace();
         }
     }
     
-    public static DatabaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DatabaseConnection();
-        } else if (instance.getConnection() == null) {
-            instance = new DatabaseConnection();
+    private DatabaseConnection () {
+    }
+    
+    // Static methods for easy access
+    // Callers close the connection they receive, so each call gets its own one;
+    // closing it returns the underlying connection to the pool
+    public static Connection getDBConnection() throws SQLException {
+        return lease(takeIdle(), statementCounting);
+    }
+    
+    // Count the statements issued by the application, used to check that a code path
+    // runs a fixed number of queries. Only connections taken while counting is on are counted.
+    public static void setStatementCounting (boolean enabled) {
+        statementCounting = enabled;
+    }
+    
+    public static long getStatementCount () {
+        return statementCount.get();
+    }
+    
+    public static void resetStatementCount () {
+        statementCount.set(0);
+    }
+    
+    // Close the pooled connections not in use, the application calls it on shutdown
+    public static void closeIdleConnections () {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            closeQuietly(pooled.connection);
         }
-        return instance;
     }
     
-    public Connection getConnection () {
-        try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(CONNECTION_URL, USERNAME, PASSWORD);
+    // An idle connection that still works, or a new one when there is none
+    private static Connection takeIdle () throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            boolean usable;
+            try {
+                usable = !pooled.connection.isClosed()
+                        && (System.currentTimeMillis() - pooled.idleSince < VALIDATE_AFTER_IDLE_MILLIS
+                            || pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS));
+            } catch (SQLException e) {
+                usable = false;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting database connection!");
-            e.printStackTrace();
+            if (usable) return pooled.connection;
+            closeQuietly(pooled.connection);
         }
-        return connection;
+        return DriverManager.getConnection(CONNECTION_URL, USERNAME, PASSWORD);
     }
     
-    // Static methods for easy access
-    public static Connection getDBConnection() throws SQLException {
-        return getInstance().getConnection();
+    // Hand out the connection behind a proxy whose close() releases it; statements left open by
+    // the caller are closed then, and counted when counting was on as the connection was taken
+    private static Connection lease (Connection conn, boolean counting) {
+        List<Statement> statements = new ArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        if (closed.compareAndSet(false, true)) release(conn, statements);
+                        return null;
+                    }
+                    if (name.equals("isClosed")) {
+                        return closed.get() || conn.isClosed();
+                    }
+                    if (closed.get()) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    
+                    boolean creates = name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement");
+                    if (creates && counting) {
+                        statementCount.incrementAndGet();
+                    }
+                    try {
+                        Object result = method.invoke(conn, args);
+                        if (creates) statements.add((Statement) result);
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
     }
     
-    public void closeConnection () {
+    // Reset the connection and return it to the pool, or close it when it is broken or the pool is full
+    private static void release (Connection conn, List<Statement> statements) {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
+            for (Statement statement : statements) {
+                statement.close();
+            }
+            if (!conn.getAutoCommit()) {
+                // Work the caller did not commit is discarded, as closing the connection would
+                conn.rollback();
+                conn.setAutoCommit(true);
             }
+            if (idle.offer(new PooledConnection(conn))) return;
+        } catch (SQLException e) {
+            System.err.println("Warning: Dropping pooled connection: " + e.getMessage());
+        }
+        closeQuietly(conn);
+    }
+    
+    private static void closeQuietly (Connection conn) {
+        try {
+            conn.close();
         } catch (SQLException e) {
             System.err.println("Error closing database connection!");
             e.printStackTrace();
@@ -83,4 +167,14 @@ public class DatabaseConnection {
             return false;
         }
     }
+    
+    private static class PooledConnection {
+        private final Connection connection;
+        private final long idleSince;
+        
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.idleSince = System.currentTimeMillis();
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package com.expensemanager.dao;
+
+import com.expensemanager.model.PeriodBudget;
+import com.expensemanager.util.Money;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PeriodBudgetDAO {
+
+    // Create new period budget
+    public boolean createPeriodBudget (PeriodBudget budget) {
+        String sql = "INSERT INTO PeriodBudgets (UserID, CategoryID, PeriodType, RollingDays, BudgetAmount, AlertThreshold) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setInt(1, budget.getUserID());
+            pstmt.setInt(2, budget.getCategoryID());
+            pstmt.setString(3, budget.getPeriodType());
+            pstmt.setInt(4, budget.getRollingDays());
+            Money.bind(pstmt, 5, budget.getBudgetAmountMinor());
+            pstmt.setDouble(6, budget.getAlertThreshold());
+
+            if (pstmt.executeUpdate() > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        budget.setPeriodBudgetID(generatedKeys.getInt(1));
+                    }
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating period budget: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    // Get period budget by ID, without period spending
+    public PeriodBudget getPeriodBudgetById (int periodBudgetID) {
+        String sql = "SELECT pb.*, c.CategoryName, c.Color as CategoryColor FROM PeriodBudgets pb " +
+                    "INNER JOIN Categories c ON pb.CategoryID = c.CategoryID " +
+                    "WHERE pb.PeriodBudgetID = ?";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, periodBudgetID);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToPeriodBudget(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting period budget by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // All period budgets of a user with the spending of their period containing asOfDate.
+    // One call: sp_CheckPeriodBudgets aggregates the daily spending once for every budget.
+    public List<PeriodBudget> getPeriodBudgets (int userID, java.util.Date asOfDate) {
+        List<PeriodBudget> budgets = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             CallableStatement cstmt = conn.prepareCall("{call sp_CheckPeriodBudgets(?, ?)}")) {
+
+            cstmt.setInt(1, userID);
+            cstmt.setDate(2, new Date(asOfDate.getTime()));
+
+            try (ResultSet rs = cstmt.executeQuery()) {
+                while (rs.next()) {
+                    PeriodBudget budget = mapResultSetToPeriodBudget(rs);
+                    budget.setPeriodStart(rs.getDate("PeriodStart"));
+                    budget.setPeriodEnd(rs.getDate("PeriodEnd"));
+                    budget.setCurrentSpentMinor(Money.read(rs, "CurrentSpent"));
+                    budget.updateStatus();
+                    budgets.add(budget);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting period budgets: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return budgets;
+    }
+
+    // Update amount and threshold, the period itself cannot change
+    public boolean updatePeriodBudget (PeriodBudget budget) {
+        String sql = "UPDATE PeriodBudgets SET BudgetAmount = ?, AlertThreshold = ?, ModifiedDate = GETDATE() " +
+                    "WHERE PeriodBudgetID = ?";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            Money.bind(pstmt, 1, budget.getBudgetAmountMinor());
+            pstmt.setDouble(2, budget.getAlertThreshold());
+            pstmt.setInt(3, budget.getPeriodBudgetID());
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating period budget: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    // Delete period budget
+    public boolean deletePeriodBudget (int periodBudgetID) {
+        String sql = "DELETE FROM PeriodBudgets WHERE PeriodBudgetID = ?";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, periodBudgetID);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error deleting period budget: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    // Helper method to map ResultSet to PeriodBudget
+    private PeriodBudget mapResultSetToPeriodBudget (ResultSet rs) throws SQLException {
+        PeriodBudget budget = new PeriodBudget();
+        budget.setPeriodBudgetID(rs.getInt("PeriodBudgetID"));
+        budget.setUserID(rs.getInt("UserID"));
+        budget.setCategoryID(rs.getInt("CategoryID"));
+        budget.setPeriodType(rs.getString("PeriodType"));
+        budget.setRollingDays(rs.getInt("RollingDays"));
+        budget.setBudgetAmountMinor(Money.read(rs, "BudgetAmount"));
+        budget.setAlertThreshold(rs.getDouble("AlertThreshold"));
+        budget.setCreatedDate(rs.getTimestamp("CreatedDate"));
+        budget.setModifiedDate(rs.getTimestamp("ModifiedDate"));
+        budget.setCategoryName(rs.getString("CategoryName"));
+        budget.setCategoryColor(rs.getString("CategoryColor"));
+        return budget;
+    }
+}
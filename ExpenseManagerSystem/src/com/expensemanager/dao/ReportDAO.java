@@ -1,13 +1,35 @@
 package com.expensemanager.dao;
 
+import com.expensemanager.analytics.LedgerEngine;
+import com.expensemanager.analytics.RollingStatsEngine;
+import com.expensemanager.analytics.RollingWindow;
+import com.expensemanager.cache.ReportCache;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
 import java.sql.*;
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.*;
 
-public class ReportDAO {
+public class ReportDAO implements TransactionChangeListener {
+    
+    private final ReportCache reportCache = new ReportCache();
     
     // Get expense by category for chart
     public Map<String, Double> getExpenseByCategory (int userID, Date startDate, Date endDate) {
+        int startDay = DateUtils.toEpochDay(startDate);
+        int endDay = DateUtils.toEpochDay(endDate);
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Map<String, Double> local = LedgerEngine.getInstance().getExpenseByCategory(userID, startDay, endDay);
+            if (local != null) return local;
+        }
+        
+        Map<String, Double> cached = reportCache.get(userID, "expenseByCategory", startDay, endDay);
+        if (cached != null) {
+            return new LinkedHashMap<>(cached);
+        }
+        
         Map<String, Double> result = new LinkedHashMap<>();
         String sql = "SELECT c.CategoryName, SUM(t.Amount) as TotalAmount " +
                     "FROM Transactions t " +
@@ -26,9 +48,10 @@ public class ReportDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    result.put(rs.getString("CategoryName"), rs.getDouble("TotalAmount"));
+                    result.put(rs.getString("CategoryName"), Money.toDouble(Money.read(rs, "TotalAmount")));
                 }
             }
+            reportCache.put(userID, "expenseByCategory", startDay, endDay, new LinkedHashMap<>(result));
         } catch (SQLException e) {
             System.err.println("Error getting expense by category: " + e.getMessage());
             e.printStackTrace();;
@@ -39,6 +62,19 @@ public class ReportDAO {
     
     // Get monthly trend data
     public List<MonthlyData> getMonthlyTrend (int userID, int numberOfMonths) {
+        // Window is relative to today, so the period key moves with the date
+        int startDay = DateUtils.toEpochDay(DateUtils.addMonths(new java.util.Date(), -numberOfMonths));
+        int endDay = DateUtils.getTodayEpochDay();
+        if (LedgerEngine.getInstance().isEnabled()) {
+            List<MonthlyData> local = LedgerEngine.getInstance().getMonthlyTrend(userID, startDay);
+            if (local != null) return local;
+        }
+        
+        List<MonthlyData> cached = reportCache.get(userID, "monthlyTrend", startDay, endDay);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        
         List<MonthlyData> result = new ArrayList<>();
         String sql = "SELECT " +
                     "YEAR(TransactionDate) as Year, " +
@@ -61,11 +97,12 @@ public class ReportDAO {
                     MonthlyData data = new MonthlyData();
                     data.setYear(rs.getInt("Year"));
                     data.setMonth(rs.getInt("Month"));
-                    data.setTotalIncome(rs.getDouble("TotalIncome"));
-                    data.setTotalExpense(rs.getDouble("TotalExpense"));
+                    data.setTotalIncome(Money.toDouble(Money.read(rs, "TotalIncome")));
+                    data.setTotalExpense(Money.toDouble(Money.read(rs, "TotalExpense")));
                     result.add(data);
                 }
             } 
+            reportCache.put(userID, "monthlyTrend", startDay, endDay, new ArrayList<>(result));
         } catch (SQLException e) {
             System.err.println("Error getting monthly trend: " + e.getMessage());
             e.printStackTrace();
@@ -76,27 +113,81 @@ public class ReportDAO {
         
     // Get daily expense for current month
     public Map<Integer, Double> getDailyExpenseCurrentMonth (int userID) {
+        int startDay = DateUtils.toEpochDay(DateUtils.getCurrentMonthStart());
+        int endDay = DateUtils.toEpochDay(DateUtils.getCurrentMonthEnd());
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Map<Integer, Double> local = LedgerEngine.getInstance().getDailyExpense(userID, startDay, endDay);
+            if (local != null) return local;
+        }
+        
         Map<Integer, Double> result = new HashMap<>();
-        String sql = "SELECT DAY(TransactionDate) as Day, SUM(Amount) as DailyAmount " +
-                    "FROM Transactions " +
-                    "WHERE UserID = ? AND TransactionType = 'EXPENSE' " +
-                    "AND MONTH(TransactionDate) = MONTH(GETDATE()) " +
-                    "AND YEAR(TransactionDate) = YEAR(GETDATE()) " +
-                    "GROUP BY DAY(TransactionDate) " +
-                    "ORDER BY Day";
+        long[] daily = getDailySeries(userID, "EXPENSE", startDay, endDay);
+        for (int i = 0; i < daily.length; i++) {
+            if (daily[i] != 0) {
+                result.put(i + 1, Money.toDouble(daily[i]));
+            }
+        }
+        return result;
+    }
+    
+    // Daily totals of one type in [startDate, endDate] in minor units, element i is startDate + i days
+    public long[] getDailySeries (int userID, String transactionType, Date startDate, Date endDate) {
+        return getDailySeries(userID, transactionType, DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+    }
+    
+    // Daily totals laid out by week, row 0 is the week (Monday first) holding startDate,
+    // cells before startDate or after endDate are 0
+    public long[][] getWeekdayGrid (int userID, String transactionType, Date startDate, Date endDate) {
+        int startDay = DateUtils.toEpochDay(startDate);
+        int endDay = DateUtils.toEpochDay(endDate);
+        long[] daily = getDailySeries(userID, transactionType, startDay, endDay);
+        
+        // Epoch day 0 (1970-01-01) was a Thursday
+        int leading = Math.floorMod(startDay + 3, 7);
+        long[][] grid = new long[(leading + daily.length + 6) / 7][7];
+        for (int i = 0; i < daily.length; i++) {
+            int cell = leading + i;
+            grid[cell / 7][cell % 7] = daily[i];
+        }
+        return grid;
+    }
+    
+    private long[] getDailySeries (int userID, String transactionType, int startDay, int endDay) {
+        if (endDay < startDay) return new long[0];
+        
+        if (LedgerEngine.getInstance().isEnabled()) {
+            long[] local = LedgerEngine.getInstance().getDailySums(userID, "EXPENSE".equals(transactionType), startDay, endDay);
+            if (local != null) return local;
+        }
+        
+        String report = "dailySeries:" + transactionType;
+        long[] cached = reportCache.get(userID, report, startDay, endDay);
+        if (cached != null) {
+            return cached.clone();
+        }
+        
+        long[] result = new long[endDay - startDay + 1];
+        // One row per day with transactions, kept by tr_UpdateDailySpendBuckets
+        String sql = "SELECT SpendDate, Amount FROM DailySpendBuckets " +
+                    "WHERE UserID = ? AND TransactionType = ? " +
+                    "AND SpendDate BETWEEN ? AND ?";
         
         try (Connection conn = DatabaseConnection.getDBConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userID);
+            pstmt.setString(2, transactionType);
+            pstmt.setDate(3, DateUtils.fromEpochDay(startDay));
+            pstmt.setDate(4, DateUtils.fromEpochDay(endDay));
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    result.put(rs.getInt("Day"), rs.getDouble("DailyAmount"));
+                    result[DateUtils.toEpochDay(rs.getDate("SpendDate")) - startDay] = Money.read(rs, "Amount");
                 }
-            } 
+            }
+            reportCache.put(userID, report, startDay, endDay, result.clone());
         } catch (SQLException e) {
-            System.err.println("Error getting daily expense: " + e.getMessage());
+            System.err.println("Error getting daily series: " + e.getMessage());
             e.printStackTrace();
         }
         
@@ -105,6 +196,19 @@ public class ReportDAO {
     
     // Get top expense categories
     public List<CategoryExpense> getTopExpenseCategories(int userID, Date startDate, Date endDate, int limit) {
+        String report = "topExpenseCategories:" + limit;
+        int startDay = DateUtils.toEpochDay(startDate);
+        int endDay = DateUtils.toEpochDay(endDate);
+        if (LedgerEngine.getInstance().isEnabled()) {
+            List<CategoryExpense> local = LedgerEngine.getInstance().getTopExpenseCategories(userID, startDay, endDay, limit);
+            if (local != null) return local;
+        }
+        
+        List<CategoryExpense> cached = reportCache.get(userID, report, startDay, endDay);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        
         List<CategoryExpense> result = new ArrayList<>();
         String sql = "SELECT TOP (?) c.CategoryName, c.Color, SUM(t.Amount) as TotalAmount, COUNT(t.TransactionID) as TransactionCount " +
                     "FROM Transactions t " +
@@ -127,11 +231,12 @@ public class ReportDAO {
                     CategoryExpense ce = new CategoryExpense();
                     ce.setCategoryName(rs.getString("CategoryName"));
                     ce.setColor(rs.getString("Color"));
-                    ce.setTotalAmount(rs.getDouble("TotalAmount"));
+                    ce.setTotalAmount(Money.toDouble(Money.read(rs, "TotalAmount")));
                     ce.setTransactionCount(rs.getInt("TransactionCount"));
                     result.add(ce);
                 }
             }
+            reportCache.put(userID, report, startDay, endDay, new ArrayList<>(result));
             
         } catch (SQLException e) {
             System.err.println("Error getting top expense categories: " + e.getMessage());
@@ -141,6 +246,188 @@ public class ReportDAO {
         return result;
     }
     
+    // Compare a month with the previous month and the same month last year, and its quarter
+    // with the previous quarter, per category and type. One grouped scan with one SUM per period.
+    // Rows with categoryID 0 hold the totals of each type.
+    public List<PeriodComparison> getPeriodComparison (int userID, int month, int year) {
+        LocalDate monthStart = LocalDate.of(year, month, 1);
+        LocalDate quarterStart = monthStart.withMonth((month - 1) / 3 * 3 + 1);
+        LocalDate[] bounds = {
+            monthStart, monthStart.plusMonths(1),                     // current month
+            monthStart.minusMonths(1), monthStart,                    // previous month
+            monthStart.minusYears(1), monthStart.minusYears(1).plusMonths(1), // same month last year
+            quarterStart, quarterStart.plusMonths(3),                 // current quarter
+            quarterStart.minusMonths(3), quarterStart                 // previous quarter
+        };
+        
+        int startDay = (int) bounds[4].toEpochDay();
+        int endDay = (int) bounds[7].toEpochDay() - 1;
+        String report = "periodComparison:" + month + ":" + year;
+        List<PeriodComparison> cached = reportCache.get(userID, report, startDay, endDay);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT t.CategoryID, c.CategoryName, t.TransactionType");
+        for (int i = 0; i < bounds.length; i += 2) {
+            sql.append(", SUM(CASE WHEN t.TransactionDate >= ? AND t.TransactionDate < ? THEN t.Amount ELSE 0 END) as P").append(i / 2);
+        }
+        // Only the last-year month and the two quarters are read, the months in between are skipped
+        sql.append(" FROM Transactions t ")
+           .append("INNER JOIN Categories c ON t.CategoryID = c.CategoryID ")
+           .append("WHERE t.UserID = ? ")
+           .append("AND ((t.TransactionDate >= ? AND t.TransactionDate < ?) OR (t.TransactionDate >= ? AND t.TransactionDate < ?)) ")
+           .append("GROUP BY t.CategoryID, c.CategoryName, t.TransactionType ")
+           .append("ORDER BY t.TransactionType, c.CategoryName");
+        
+        List<PeriodComparison> result = new ArrayList<>();
+        Map<String, PeriodComparison> totals = new LinkedHashMap<>();
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            for (LocalDate bound : bounds) {
+                pstmt.setDate(index++, Date.valueOf(bound));
+            }
+            pstmt.setInt(index++, userID);
+            pstmt.setDate(index++, Date.valueOf(bounds[4]));
+            pstmt.setDate(index++, Date.valueOf(bounds[5]));
+            pstmt.setDate(index++, Date.valueOf(bounds[8]));
+            pstmt.setDate(index, Date.valueOf(bounds[7]));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long[] amounts = new long[bounds.length / 2];
+                    for (int p = 0; p < amounts.length; p++) {
+                        amounts[p] = Money.read(rs, "P" + p);
+                    }
+                    
+                    String type = rs.getString("TransactionType");
+                    result.add(new PeriodComparison(rs.getInt("CategoryID"), rs.getString("CategoryName"), type, amounts));
+                    
+                    PeriodComparison total = totals.get(type);
+                    if (total == null) {
+                        total = new PeriodComparison(0, "Tổng", type, new long[amounts.length]);
+                        totals.put(type, total);
+                    }
+                    total.add(amounts);
+                }
+            }
+            result.addAll(totals.values());
+            reportCache.put(userID, report, startDay, endDay, new ArrayList<>(result));
+        } catch (SQLException e) {
+            System.err.println("Error getting period comparison: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return result;
+    }
+    
+    // Current 7/30/90-day expense totals per category, key 0 holds the totals over all categories
+    public Map<Integer, RollingExpense> getRollingExpenseByCategory (int userID) {
+        Map<Integer, RollingExpense> result = RollingStatsEngine.getInstance().getRollingExpense(userID);
+        return result != null ? result : new HashMap<>();
+    }
+    
+    // Daily rolling expense total and average over windowDays for each day of [startDate, endDate]
+    // categoryID 0 covers all categories
+    public List<RollingPoint> getRollingExpenseSeries (int userID, int categoryID, int windowDays, Date startDate, Date endDate) {
+        List<RollingPoint> result = new ArrayList<>();
+        int startDay = DateUtils.toEpochDay(startDate);
+        int endDay = DateUtils.toEpochDay(endDate);
+        if (windowDays <= 0 || endDay < startDay) return result;
+        
+        // The first point needs the windowDays - 1 days before the start
+        int firstDay = startDay - windowDays + 1;
+        Map<Integer, long[]> daily = loadDailyExpenseByCategory(userID, firstDay, endDay);
+        if (daily == null) return result;
+        
+        long[] amounts = new long[endDay - firstDay + 1];
+        for (Map.Entry<Integer, long[]> entry : daily.entrySet()) {
+            if (categoryID != 0 && entry.getKey() != categoryID) continue;
+            long[] categoryAmounts = entry.getValue();
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] += categoryAmounts[i];
+            }
+        }
+        
+        RollingWindow window = new RollingWindow(new int[] {windowDays}, firstDay - 1);
+        for (int day = firstDay; day <= endDay; day++) {
+            window.advanceTo(day);
+            window.add(day, amounts[day - firstDay]);
+            if (day < startDay) continue;
+            
+            RollingPoint point = new RollingPoint();
+            point.setDate(DateUtils.fromEpochDay(day));
+            point.setDailyAmount(Money.toDouble(amounts[day - firstDay]));
+            point.setRollingTotal(Money.toDouble(window.getTotal(windowDays)));
+            point.setRollingAverage(Money.toDouble(window.getTotal(windowDays)) / windowDays);
+            result.add(point);
+        }
+        
+        return result;
+    }
+    
+    // Daily expense per category in [startDay, endDay], element i of each array is day startDay + i
+    public Map<Integer, long[]> loadDailyExpenseByCategory (int userID, int startDay, int endDay) {
+        Map<Integer, long[]> result = new HashMap<>();
+        String sql = "SELECT CategoryID, TransactionDate, SUM(Amount) as DailyAmount " +
+                    "FROM Transactions " +
+                    "WHERE UserID = ? AND TransactionType = 'EXPENSE' " +
+                    "AND TransactionDate BETWEEN ? AND ? " +
+                    "GROUP BY CategoryID, TransactionDate";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            pstmt.setDate(2, DateUtils.fromEpochDay(startDay));
+            pstmt.setDate(3, DateUtils.fromEpochDay(endDay));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int day = (int) rs.getDate("TransactionDate").toLocalDate().toEpochDay();
+                    result.computeIfAbsent(rs.getInt("CategoryID"), id -> new long[endDay - startDay + 1])
+                            [day - startDay] += Money.read(rs, "DailyAmount");
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            System.err.println("Error getting daily expense by category: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    // Invalidate cached reports whose period contains the transaction date
+    public void invalidateCache (int userID, java.util.Date transactionDate) {
+        if (transactionDate != null) {
+            reportCache.invalidate(userID, DateUtils.toEpochDay(transactionDate));
+        }
+    }
+    
+    public ReportCache getReportCache () {
+        return reportCache;
+    }
+    
+    @Override
+    public void transactionCreated (Transaction transaction) {
+        invalidateCache(transaction.getUserID(), transaction.getTransactionDate());
+    }
+    
+    @Override
+    public void transactionUpdated (Transaction before, Transaction after) {
+        invalidateCache(before.getUserID(), before.getTransactionDate());
+        invalidateCache(after.getUserID(), after.getTransactionDate());
+    }
+    
+    @Override
+    public void transactionDeleted (Transaction transaction) {
+        invalidateCache(transaction.getUserID(), transaction.getTransactionDate());
+    }
+    
     // Inner classes for report data
     public static class MonthlyData {
         private int year;
@@ -189,4 +476,111 @@ public class ReportDAO {
             return transactionCount > 0 ? totalAmount / transactionCount : 0;
         }
     }
+    
+    // Amounts of one category and type over the compared periods
+    public static class PeriodComparison {
+        private static final int CURRENT_MONTH = 0;
+        private static final int PREVIOUS_MONTH = 1;
+        private static final int SAME_MONTH_LAST_YEAR = 2;
+        private static final int CURRENT_QUARTER = 3;
+        private static final int PREVIOUS_QUARTER = 4;
+        
+        private final int categoryID;
+        private final String categoryName;
+        private final String transactionType;
+        // Minor units, indexed by the constants above
+        private final long[] amounts;
+        
+        public PeriodComparison(int categoryID, String categoryName, String transactionType, long[] amounts) {
+            this.categoryID = categoryID;
+            this.categoryName = categoryName;
+            this.transactionType = transactionType;
+            this.amounts = amounts;
+        }
+        
+        void add(long[] other) {
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] += other[i];
+            }
+        }
+        
+        // Getters
+        public int getCategoryID() { return categoryID; }
+        public String getCategoryName() { return categoryName; }
+        public String getTransactionType() { return transactionType; }
+        public boolean isTotal() { return categoryID == 0; }
+        
+        public double getCurrentMonth() { return Money.toDouble(amounts[CURRENT_MONTH]); }
+        public double getPreviousMonth() { return Money.toDouble(amounts[PREVIOUS_MONTH]); }
+        public double getSameMonthLastYear() { return Money.toDouble(amounts[SAME_MONTH_LAST_YEAR]); }
+        public double getCurrentQuarter() { return Money.toDouble(amounts[CURRENT_QUARTER]); }
+        public double getPreviousQuarter() { return Money.toDouble(amounts[PREVIOUS_QUARTER]); }
+        
+        // Month over month
+        public double getMonthOverMonthChange() { return change(CURRENT_MONTH, PREVIOUS_MONTH); }
+        public Double getMonthOverMonthPercent() { return percent(CURRENT_MONTH, PREVIOUS_MONTH); }
+        
+        // Year over year (same month)
+        public double getYearOverYearChange() { return change(CURRENT_MONTH, SAME_MONTH_LAST_YEAR); }
+        public Double getYearOverYearPercent() { return percent(CURRENT_MONTH, SAME_MONTH_LAST_YEAR); }
+        
+        // Quarter over quarter
+        public double getQuarterOverQuarterChange() { return change(CURRENT_QUARTER, PREVIOUS_QUARTER); }
+        public Double getQuarterOverQuarterPercent() { return percent(CURRENT_QUARTER, PREVIOUS_QUARTER); }
+        
+        private double change(int current, int previous) {
+            return Money.toDouble(amounts[current] - amounts[previous]);
+        }
+        
+        // Null when the base period is empty, the change has no meaningful percentage then
+        private Double percent(int current, int previous) {
+            if (amounts[previous] == 0) return null;
+            return (amounts[current] - amounts[previous]) * 100.0 / amounts[previous];
+        }
+    }
+    
+    public static class RollingExpense {
+        private int categoryID;
+        private double last7Days;
+        private double last30Days;
+        private double last90Days;
+        
+        // Getters and Setters
+        public int getCategoryID() { return categoryID; }
+        public void setCategoryID(int categoryID) { this.categoryID = categoryID; }
+        
+        public double getLast7Days() { return last7Days; }
+        public void setLast7Days(double last7Days) { this.last7Days = last7Days; }
+        
+        public double getLast30Days() { return last30Days; }
+        public void setLast30Days(double last30Days) { this.last30Days = last30Days; }
+        
+        public double getLast90Days() { return last90Days; }
+        public void setLast90Days(double last90Days) { this.last90Days = last90Days; }
+        
+        // Average spend per day over each window
+        public double getAverage7Days() { return last7Days / 7; }
+        public double getAverage30Days() { return last30Days / 30; }
+        public double getAverage90Days() { return last90Days / 90; }
+    }
+    
+    public static class RollingPoint {
+        private java.util.Date date;
+        private double dailyAmount;
+        private double rollingTotal;
+        private double rollingAverage;
+        
+        // Getters and Setters
+        public java.util.Date getDate() { return date; }
+        public void setDate(java.util.Date date) { this.date = date; }
+        
+        public double getDailyAmount() { return dailyAmount; }
+        public void setDailyAmount(double dailyAmount) { this.dailyAmount = dailyAmount; }
+        
+        public double getRollingTotal() { return rollingTotal; }
+        public void setRollingTotal(double rollingTotal) { this.rollingTotal = rollingTotal; }
+        
+        public double getRollingAverage() { return rollingAverage; }
+        public void setRollingAverage(double rollingAverage) { this.rollingAverage = rollingAverage; }
+    }
 }
@@ -1,6 +1,8 @@
 package com.expensemanager.dao;
 
 import com.expensemanager.model.Saving;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
@@ -18,8 +20,8 @@ public class SavingDAO {
             pstmt.setInt(1, saving.getUserID());
             pstmt.setString(2, saving.getSavingName());
             pstmt.setString(3, saving.getDescription());
-            pstmt.setDouble(4, saving.getTargetAmount());
-            pstmt.setDouble(5, saving.getCurrentAmount());
+            Money.bind(pstmt, 4, saving.getTargetAmountMinor());
+            Money.bind(pstmt, 5, saving.getCurrentAmountMinor());
             pstmt.setDate(6, saving.getTargetDate() != null ? new java.sql.Date(saving.getTargetDate().getTime()) : null);
             pstmt.setInt(7, saving.getPriority());
             
@@ -92,7 +94,8 @@ public class SavingDAO {
     // Get active savings (not completed)
     public List<Saving> getActiveSavings(int userID) {
         List<Saving> savings = new ArrayList<>();
-        String sql = "SELECT * FROM Savings WHERE UserID = ? AND IsCompleted = 0 ORDER BY Priority DESC, TargetDate ASC";
+        String sql = "SELECT * FROM Savings WHERE UserID = ? AND IsCompleted = 0 " +
+                    "ORDER BY Priority DESC, CASE WHEN TargetDate IS NULL THEN 1 ELSE 0 END, TargetDate ASC";
         
         try (Connection conn = DatabaseConnection.getDBConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -113,6 +116,66 @@ public class SavingDAO {
         return savings;
     }
     
+    // Active savings that need attention as of a time: overdue, high priority (4-5) under 25% done,
+    // or due within nearDeadlineDays days and under 75% done. Overdue first, then by target date.
+    public List<Saving> getSavingsNeedingAttention(int userID, Date asOf, int nearDeadlineDays) {
+        List<Saving> savings = new ArrayList<>();
+        String sql = "SELECT * FROM Savings WHERE UserID = ? AND IsCompleted = 0 AND (" +
+                    "TargetDate < ? " +
+                    "OR (Priority >= 4 AND CurrentAmount * 4 < TargetAmount) " +
+                    "OR (TargetDate >= ? AND TargetDate < ? AND CurrentAmount * 4 < TargetAmount * 3)) " +
+                    "ORDER BY CASE WHEN TargetDate < ? THEN 0 ELSE 1 END, " +
+                    "CASE WHEN TargetDate IS NULL THEN 1 ELSE 0 END, TargetDate ASC, Priority DESC";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            Timestamp now = new Timestamp(asOf.getTime());
+            pstmt.setInt(1, userID);
+            pstmt.setTimestamp(2, now);
+            // Due in 1 to nearDeadlineDays whole days
+            pstmt.setTimestamp(3, new Timestamp(DateUtils.addDays(asOf, 1).getTime()));
+            pstmt.setTimestamp(4, new Timestamp(DateUtils.addDays(asOf, nearDeadlineDays + 1).getTime()));
+            pstmt.setTimestamp(5, now);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    savings.add(mapResultSetToSaving(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting savings needing attention: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return savings;
+    }
+    
+    // Whether the user has another saving with this name, excludeSavingID 0 checks all of them
+    public boolean savingNameExists(int userID, String savingName, int excludeSavingID) {
+        String sql = "SELECT CASE WHEN EXISTS (SELECT 1 FROM Savings WHERE UserID = ? AND SavingName = ? AND SavingID <> ?) " +
+                    "THEN 1 ELSE 0 END";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            pstmt.setString(2, savingName);
+            pstmt.setInt(3, excludeSavingID);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error checking saving name: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return false;
+    }
+    
     // Update saving
     public boolean updateSaving(Saving saving) {
         String sql = "UPDATE Savings SET SavingName = ?, Description = ?, TargetAmount = ?, TargetDate = ?, Priority = ? WHERE SavingID = ?";
@@ -122,7 +185,7 @@ public class SavingDAO {
             
             pstmt.setString(1, saving.getSavingName());
             pstmt.setString(2, saving.getDescription());
-            pstmt.setDouble(3, saving.getTargetAmount());
+            Money.bind(pstmt, 3, saving.getTargetAmountMinor());
             pstmt.setDate(4, saving.getTargetDate() != null ? new java.sql.Date(saving.getTargetDate().getTime()) : null);
             pstmt.setInt(5, saving.getPriority());
             pstmt.setInt(6, saving.getSavingID());
@@ -139,48 +202,51 @@ public class SavingDAO {
     
     // Add money to saving
     public boolean addToSaving(int savingID, double amount, String description) {
-        String sql = "{call sp_UpdateSavingProgress(?, ?, ?, ?)}";
-        
-        try (Connection conn = DatabaseConnection.getDBConnection();
-             CallableStatement cstmt = conn.prepareCall(sql)) {
-            
-            cstmt.setInt(1, savingID);
-            cstmt.setDouble(2, amount);
-            cstmt.setString(3, "DEPOSIT");
-            cstmt.setString(4, description);
-            
-            cstmt.executeUpdate();
-            return true;
-            
-        } catch (SQLException e) {
-            System.err.println("Error adding to saving: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return false;
+        return updateSavingProgress(savingID, 0, "DEPOSIT", Money.toMinor(amount), description) != null;
     }
     
     // Withdraw from saving
     public boolean withdrawFromSaving(int savingID, double amount, String description) {
-        String sql = "{call sp_UpdateSavingProgress(?, ?, ?, ?)}";
+        return updateSavingProgress(savingID, 0, "WITHDRAW", Money.toMinor(amount), description) != null;
+    }
+    
+    // Deposit or withdraw in one call: sp_UpdateSavingProgress changes the balance in place and records
+    // the transaction atomically, so concurrent writes are never lost. userID 0 skips the owner check.
+    // Returns null when refused (missing, not owned, completed for a deposit, short of funds for a withdrawal)
+    public SavingProgress updateSavingProgress(int savingID, int userID, String transactionType, long amountMinor, String description) {
+        String sql = "{call sp_UpdateSavingProgress(?, ?, ?, ?, ?)}";
         
         try (Connection conn = DatabaseConnection.getDBConnection();
              CallableStatement cstmt = conn.prepareCall(sql)) {
             
             cstmt.setInt(1, savingID);
-            cstmt.setDouble(2, amount);
-            cstmt.setString(3, "WITHDRAW");
+            cstmt.setBigDecimal(2, Money.toBigDecimal(amountMinor));
+            cstmt.setString(3, transactionType);
             cstmt.setString(4, description);
+            if (userID > 0) {
+                cstmt.setInt(5, userID);
+            } else {
+                cstmt.setNull(5, Types.INTEGER);
+            }
             
-            cstmt.executeUpdate();
-            return true;
+            try (ResultSet rs = cstmt.executeQuery()) {
+                if (rs.next()) {
+                    SavingProgress progress = new SavingProgress();
+                    progress.setSavingTransactionID(rs.getInt("SavingTransactionID"));
+                    progress.setCurrentAmount(Money.read(rs, "CurrentAmount"));
+                    progress.setTargetAmount(Money.read(rs, "TargetAmount"));
+                    progress.setCompleted(rs.getBoolean("IsCompleted"));
+                    progress.setCompletedDate(rs.getTimestamp("CompletedDate"));
+                    return progress;
+                }
+            }
             
         } catch (SQLException e) {
-            System.err.println("Error withdrawing from saving: " + e.getMessage());
+            System.err.println("Error updating saving progress: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return false;
+        return null;
     }
     
     // Mark saving as completed
@@ -234,7 +300,7 @@ public class SavingDAO {
                     SavingTransaction st = new SavingTransaction();
                     st.setSavingTransactionID(rs.getInt("SavingTransactionID"));
                     st.setSavingID(rs.getInt("SavingID"));
-                    st.setAmount(rs.getDouble("Amount"));
+                    st.setAmount(Money.toDouble(Money.read(rs, "Amount")));
                     st.setTransactionType(rs.getString("TransactionType"));
                     st.setDescription(rs.getString("Description"));
                     st.setTransactionDate(rs.getDate("TransactionDate"));
@@ -251,11 +317,13 @@ public class SavingDAO {
         return transactions;
     }
     
-    // Get savings summary for user
+    // Get savings summary for user, overdue counts active savings with a target date before now
     public SavingSummary getSavingSummary(int userID) {
         String sql = "SELECT " +
                     "COUNT(*) as TotalSavings, " +
                     "COUNT(CASE WHEN IsCompleted = 1 THEN 1 END) as CompletedSavings, " +
+                    "COUNT(CASE WHEN Priority >= 4 THEN 1 END) as HighPrioritySavings, " +
+                    "COUNT(CASE WHEN IsCompleted = 0 AND TargetDate < ? THEN 1 END) as OverdueSavings, " +
                     "SUM(TargetAmount) as TotalTargetAmount, " +
                     "SUM(CurrentAmount) as TotalCurrentAmount " +
                     "FROM Savings WHERE UserID = ?";
@@ -263,15 +331,18 @@ public class SavingDAO {
         try (Connection conn = DatabaseConnection.getDBConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, userID);
+            pstmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            pstmt.setInt(2, userID);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     SavingSummary summary = new SavingSummary();
                     summary.setTotalSavings(rs.getInt("TotalSavings"));
                     summary.setCompletedSavings(rs.getInt("CompletedSavings"));
-                    summary.setTotalTargetAmount(rs.getDouble("TotalTargetAmount"));
-                    summary.setTotalCurrentAmount(rs.getDouble("TotalCurrentAmount"));
+                    summary.setHighPrioritySavings(rs.getInt("HighPrioritySavings"));
+                    summary.setOverdueSavings(rs.getInt("OverdueSavings"));
+                    summary.setTotalTargetAmount(Money.toDouble(Money.read(rs, "TotalTargetAmount")));
+                    summary.setTotalCurrentAmount(Money.toDouble(Money.read(rs, "TotalCurrentAmount")));
                     return summary;
                 }
             }
@@ -284,6 +355,59 @@ public class SavingDAO {
         return null;
     }
     
+    // Active savings with their deposit history since a date, one grouped pass over SavingTransactions.
+    // userID 0 loads the savings of all users; rows are ordered by user.
+    public List<SavingDepositStats> getSavingDepositStats(int userID, Date sinceDate) {
+        List<SavingDepositStats> stats = new ArrayList<>();
+        String sql = "SELECT s.*, ISNULL(t.DepositCount, 0) as DepositCount, " +
+                    "ISNULL(t.DepositTotal, 0) as DepositTotal, ISNULL(t.WithdrawTotal, 0) as WithdrawTotal, " +
+                    "t.FirstDepositDate, t.LastDepositDate " +
+                    "FROM Savings s LEFT JOIN (" +
+                    "SELECT SavingID, " +
+                    "SUM(CASE WHEN TransactionType = 'DEPOSIT' THEN 1 ELSE 0 END) as DepositCount, " +
+                    "SUM(CASE WHEN TransactionType = 'DEPOSIT' THEN Amount ELSE 0 END) as DepositTotal, " +
+                    "SUM(CASE WHEN TransactionType = 'WITHDRAW' THEN Amount ELSE 0 END) as WithdrawTotal, " +
+                    "MIN(CASE WHEN TransactionType = 'DEPOSIT' THEN TransactionDate END) as FirstDepositDate, " +
+                    "MAX(CASE WHEN TransactionType = 'DEPOSIT' THEN TransactionDate END) as LastDepositDate " +
+                    // Aggregate only the active savings being listed, not every user's history
+                    "FROM SavingTransactions WHERE TransactionDate >= ? " +
+                    "AND SavingID IN (SELECT SavingID FROM Savings WHERE IsCompleted = 0" +
+                    (userID > 0 ? " AND UserID = ?" : "") + ") " +
+                    "GROUP BY SavingID" +
+                    ") t ON t.SavingID = s.SavingID " +
+                    "WHERE s.IsCompleted = 0 " + (userID > 0 ? "AND s.UserID = ? " : "") +
+                    "ORDER BY s.UserID, s.Priority DESC, s.TargetDate ASC";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, new java.sql.Date(sinceDate.getTime()));
+            if (userID > 0) {
+                pstmt.setInt(2, userID);
+                pstmt.setInt(3, userID);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SavingDepositStats stat = new SavingDepositStats();
+                    stat.setSaving(mapResultSetToSaving(rs));
+                    stat.setDepositCount(rs.getInt("DepositCount"));
+                    stat.setDepositTotal(Money.read(rs, "DepositTotal"));
+                    stat.setWithdrawTotal(Money.read(rs, "WithdrawTotal"));
+                    stat.setFirstDepositDate(rs.getDate("FirstDepositDate"));
+                    stat.setLastDepositDate(rs.getDate("LastDepositDate"));
+                    stats.add(stat);
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting saving deposit stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return stats;
+    }
+    
     // Helper method to map ResultSet to Saving
     private Saving mapResultSetToSaving(ResultSet rs) throws SQLException {
         Saving saving = new Saving();
@@ -291,8 +415,8 @@ public class SavingDAO {
         saving.setUserID(rs.getInt("UserID"));
         saving.setSavingName(rs.getString("SavingName"));
         saving.setDescription(rs.getString("Description"));
-        saving.setTargetAmount(rs.getDouble("TargetAmount"));
-        saving.setCurrentAmount(rs.getDouble("CurrentAmount"));
+        saving.setTargetAmountMinor(Money.read(rs, "TargetAmount"));
+        saving.setCurrentAmountMinor(Money.read(rs, "CurrentAmount"));
         saving.setTargetDate(rs.getDate("TargetDate"));
         saving.setPriority(rs.getInt("Priority"));
         saving.setIsCompleted(rs.getBoolean("IsCompleted"));
@@ -334,10 +458,66 @@ public class SavingDAO {
         public void setCreatedDate(Date createdDate) { this.createdDate = createdDate; }
     }
     
+    // Inner class for the state of a saving right after a deposit or withdrawal, amounts in minor units
+    public static class SavingProgress {
+        private int savingTransactionID;
+        private long currentAmount;
+        private long targetAmount;
+        private boolean completed;
+        private Date completedDate;
+        
+        // Getters and Setters
+        public int getSavingTransactionID() { return savingTransactionID; }
+        public void setSavingTransactionID(int savingTransactionID) { this.savingTransactionID = savingTransactionID; }
+        
+        public long getCurrentAmount() { return currentAmount; }
+        public void setCurrentAmount(long currentAmount) { this.currentAmount = currentAmount; }
+        
+        public long getTargetAmount() { return targetAmount; }
+        public void setTargetAmount(long targetAmount) { this.targetAmount = targetAmount; }
+        
+        public boolean isCompleted() { return completed; }
+        public void setCompleted(boolean completed) { this.completed = completed; }
+        
+        public Date getCompletedDate() { return completedDate; }
+        public void setCompletedDate(Date completedDate) { this.completedDate = completedDate; }
+    }
+    
+    // Inner class for the deposit history of a saving over a window, amounts in minor units
+    public static class SavingDepositStats {
+        private Saving saving;
+        private int depositCount;
+        private long depositTotal;
+        private long withdrawTotal;
+        private Date firstDepositDate;
+        private Date lastDepositDate;
+        
+        // Getters and Setters
+        public Saving getSaving() { return saving; }
+        public void setSaving(Saving saving) { this.saving = saving; }
+        
+        public int getDepositCount() { return depositCount; }
+        public void setDepositCount(int depositCount) { this.depositCount = depositCount; }
+        
+        public long getDepositTotal() { return depositTotal; }
+        public void setDepositTotal(long depositTotal) { this.depositTotal = depositTotal; }
+        
+        public long getWithdrawTotal() { return withdrawTotal; }
+        public void setWithdrawTotal(long withdrawTotal) { this.withdrawTotal = withdrawTotal; }
+        
+        public Date getFirstDepositDate() { return firstDepositDate; }
+        public void setFirstDepositDate(Date firstDepositDate) { this.firstDepositDate = firstDepositDate; }
+        
+        public Date getLastDepositDate() { return lastDepositDate; }
+        public void setLastDepositDate(Date lastDepositDate) { this.lastDepositDate = lastDepositDate; }
+    }
+    
     // Inner class for saving summary
     public static class SavingSummary {
         private int totalSavings;
         private int completedSavings;
+        private int highPrioritySavings;
+        private int overdueSavings;
         private double totalTargetAmount;
         private double totalCurrentAmount;
         
@@ -348,6 +528,12 @@ public class SavingDAO {
         public int getCompletedSavings() { return completedSavings; }
         public void setCompletedSavings(int completedSavings) { this.completedSavings = completedSavings; }
         
+        public int getHighPrioritySavings() { return highPrioritySavings; }
+        public void setHighPrioritySavings(int highPrioritySavings) { this.highPrioritySavings = highPrioritySavings; }
+        
+        public int getOverdueSavings() { return overdueSavings; }
+        public void setOverdueSavings(int overdueSavings) { this.overdueSavings = overdueSavings; }
+        
         public double getTotalTargetAmount() { return totalTargetAmount; }
         public void setTotalTargetAmount(double totalTargetAmount) { this.totalTargetAmount = totalTargetAmount; }
         
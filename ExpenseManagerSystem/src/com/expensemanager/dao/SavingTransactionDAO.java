@@ -1,6 +1,7 @@
 package com.expensemanager.dao;
 
 import com.expensemanager.model.*;
+import com.expensemanager.util.Money;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +16,7 @@ public class SavingTransactionDAO {
                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, savingTransaction.getSavingID());
-            pstmt.setDouble(2, savingTransaction.getAmount());
+            Money.bind(pstmt, 2, savingTransaction.getAmountMinor());
             pstmt.setString(3, savingTransaction.getTransactionType());
             pstmt.setString(4, savingTransaction.getDescription());
             pstmt.setDate(5, savingTransaction.getTransactionDate() != null ?
@@ -144,7 +145,7 @@ public class SavingTransactionDAO {
         try (Connection conn = DatabaseConnection.getDBConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setDouble(1, savingTransaction.getAmount());
+            Money.bind(pstmt, 1, savingTransaction.getAmountMinor());
             pstmt.setString(2, savingTransaction.getTransactionType());
             pstmt.setString(3, savingTransaction.getDescription());
             pstmt.setDate(4, new Date(savingTransaction.getTransactionDate().getTime()));
@@ -187,7 +188,7 @@ public class SavingTransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getDouble("TotalDeposits");
+                    return Money.toDouble(Money.read(rs, "TotalDeposits"));
                 }
             }
         } catch (SQLException e) {
@@ -209,7 +210,7 @@ public class SavingTransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getDouble("TotalWithdrawals");
+                    return Money.toDouble(Money.read(rs, "TotalWithdrawals"));
                 }
             }
             
@@ -243,8 +244,8 @@ public class SavingTransactionDAO {
                     summary.setTotalTransactions(rs.getInt("TotalTransactions"));
                     summary.setTotalDeposits(rs.getInt("TotalDeposits"));
                     summary.setTotalWithdrawals(rs.getInt("TotalWithdrawals"));
-                    summary.setTotalDepositAmount(rs.getDouble("TotalDepositAmount"));
-                    summary.setTotalWithdrawalAmount(rs.getDouble("TotalWithdrawalAmount"));
+                    summary.setTotalDepositAmount(Money.toDouble(Money.read(rs, "TotalDepositAmount")));
+                    summary.setTotalWithdrawalAmount(Money.toDouble(Money.read(rs, "TotalWithdrawalAmount")));
                     return summary;
                 }
             }
@@ -307,7 +308,7 @@ public class SavingTransactionDAO {
         SavingTransaction transaction = new SavingTransaction();
         transaction.setSavingTransactionID(rs.getInt("SavingTransactionID"));
         transaction.setSavingID(rs.getInt("SavingID"));
-        transaction.setAmount(rs.getDouble("Amount"));
+        transaction.setAmountMinor(Money.read(rs, "Amount"));
         transaction.setTransactionType(rs.getString("TransactionType"));
         transaction.setDescription(rs.getString("Description"));
         transaction.setTransactionDate(rs.getDate("TransactionDate"));
@@ -0,0 +1,49 @@
+package com.expensemanager.dao;
+
+import com.expensemanager.analytics.QuantileSketch;
+import com.expensemanager.util.Money;
+import java.sql.*;
+
+/**
+ * Reads the monthly amount sketches from CategorySpendBuckets, one row per user, month,
+ * category and sketch bucket. The rows are kept up to date by the tr_UpdateCategorySpendBuckets
+ * trigger in the same transaction as the transaction writes, so there is nothing to maintain here.
+ */
+public class SpendSketchDAO {
+
+    // Merged sketch of one category between two months (inclusive)
+    public QuantileSketch getCategorySketch (int userID, int categoryID, int startMonth, int startYear,
+                                             int endMonth, int endYear) {
+        QuantileSketch sketch = new QuantileSketch();
+        // Written as bounds on Year and Month so the (UserID, Year, Month) key is seeked
+        String sql = "SELECT Bucket, SUM(SampleCount) as SampleCount, SUM(TotalAmount) as TotalAmount " +
+                    "FROM CategorySpendBuckets " +
+                    "WHERE UserID = ? AND (Year > ? OR (Year = ? AND Month >= ?)) " +
+                    "AND (Year < ? OR (Year = ? AND Month <= ?)) AND CategoryID = ? " +
+                    "GROUP BY Bucket";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userID);
+            pstmt.setInt(2, startYear);
+            pstmt.setInt(3, startYear);
+            pstmt.setInt(4, startMonth);
+            pstmt.setInt(5, endYear);
+            pstmt.setInt(6, endYear);
+            pstmt.setInt(7, endMonth);
+            pstmt.setInt(8, categoryID);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sketch.addBucket(rs.getInt("Bucket"), rs.getLong("SampleCount"), Money.read(rs, "TotalAmount"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting spend sketch: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return sketch;
+    }
+}
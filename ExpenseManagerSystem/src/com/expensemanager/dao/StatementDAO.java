@@ -0,0 +1,354 @@
+package com.expensemanager.dao;
+
+import com.expensemanager.model.MonthlyStatement;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Batched reads and writes of the monthly close job.
+ * Each load covers a batch of users with one grouped query per table instead of
+ * one query per user and table.
+ */
+public class StatementDAO {
+
+    // Run states stored in StatementRuns.Status
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    // Next page of user IDs after lastUserID (keyset paging, no OFFSET scans)
+    public int[] getUserIDsAfter (int lastUserID, int limit) {
+        String sql = "SELECT TOP (?) UserID FROM Users WHERE UserID > ? ORDER BY UserID";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, lastUserID);
+
+            int[] ids = new int[limit];
+            int count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids[count++] = rs.getInt(1);
+                }
+            }
+            return Arrays.copyOf(ids, count);
+        } catch (SQLException e) {
+            System.err.println("Error getting user page: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Compute the statements of a batch of users, null on error
+    public List<MonthlyStatement> loadStatements (int[] userIDs, int month, int year) {
+        Map<Integer, MonthlyStatement> statements = new LinkedHashMap<>();
+        for (int userID : userIDs) {
+            statements.put(userID, new MonthlyStatement(userID, month, year));
+        }
+        if (userIDs.length == 0) return new ArrayList<>();
+
+        java.sql.Date monthStart = new java.sql.Date(DateUtils.getMonthStart(month, year).getTime());
+        java.sql.Date nextMonthStart = new java.sql.Date(DateUtils.getNextMonthStart(month, year).getTime());
+        String inList = placeholders(userIDs.length);
+
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            loadTransactionTotals(conn, inList, userIDs, monthStart, nextMonthStart, statements);
+            loadBudgetTotals(conn, inList, userIDs, month, year, statements);
+            loadSavingTotals(conn, inList, userIDs, nextMonthStart, statements);
+            return new ArrayList<>(statements.values());
+        } catch (SQLException e) {
+            System.err.println("Error loading monthly statements: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Upsert a batch of statements in one transaction
+    public boolean saveStatements (List<MonthlyStatement> statements) {
+        String sql = "MERGE MonthlyStatements AS target " +
+                    "USING (SELECT ? AS UserID, ? AS Month, ? AS Year) AS source " +
+                    "ON target.UserID = source.UserID AND target.Month = source.Month AND target.Year = source.Year " +
+                    "WHEN MATCHED THEN UPDATE SET TotalIncome = ?, TotalExpense = ?, IncomeCount = ?, ExpenseCount = ?, " +
+                    "BudgetCount = ?, TotalBudgetAmount = ?, TotalSpentAmount = ?, WarningCount = ?, ExceededCount = ?, " +
+                    "SavingCount = ?, CompletedSavingCount = ?, HighPrioritySavingCount = ?, OverdueSavingCount = ?, " +
+                    "TotalTargetAmount = ?, TotalSavedAmount = ?, CreatedDate = GETDATE() " +
+                    "WHEN NOT MATCHED THEN INSERT (UserID, Month, Year, TotalIncome, TotalExpense, IncomeCount, ExpenseCount, " +
+                    "BudgetCount, TotalBudgetAmount, TotalSpentAmount, WarningCount, ExceededCount, " +
+                    "SavingCount, CompletedSavingCount, HighPrioritySavingCount, OverdueSavingCount, TotalTargetAmount, TotalSavedAmount) " +
+                    "VALUES (source.UserID, source.Month, source.Year, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (MonthlyStatement statement : statements) {
+                    pstmt.setInt(1, statement.getUserID());
+                    pstmt.setInt(2, statement.getMonth());
+                    pstmt.setInt(3, statement.getYear());
+                    // Same values for the UPDATE and the INSERT branch
+                    bindValues(pstmt, 4, statement);
+                    bindValues(pstmt, 19, statement);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving monthly statements: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    // Get a saved statement
+    public MonthlyStatement getStatement (int userID, int month, int year) {
+        String sql = "SELECT * FROM MonthlyStatements WHERE UserID = ? AND Month = ? AND Year = ?";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userID);
+            pstmt.setInt(2, month);
+            pstmt.setInt(3, year);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToStatement(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting monthly statement: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Checkpoint of a run, null when the period was never started
+    public RunCheckpoint getCheckpoint (int month, int year) {
+        String sql = "SELECT LastUserID, ProcessedCount, Status FROM StatementRuns WHERE Month = ? AND Year = ?";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, month);
+            pstmt.setInt(2, year);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    RunCheckpoint checkpoint = new RunCheckpoint();
+                    checkpoint.setLastUserID(rs.getInt("LastUserID"));
+                    checkpoint.setProcessedCount(rs.getInt("ProcessedCount"));
+                    checkpoint.setStatus(rs.getString("Status"));
+                    return checkpoint;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting statement checkpoint: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Record that every user up to lastUserID is done
+    public boolean saveCheckpoint (int month, int year, int lastUserID, int processedCount, String status) {
+        String sql = "MERGE StatementRuns AS target " +
+                    "USING (SELECT ? AS Month, ? AS Year) AS source " +
+                    "ON target.Month = source.Month AND target.Year = source.Year " +
+                    "WHEN MATCHED THEN UPDATE SET LastUserID = ?, ProcessedCount = ?, Status = ?, ModifiedDate = GETDATE() " +
+                    "WHEN NOT MATCHED THEN INSERT (Month, Year, LastUserID, ProcessedCount, Status) " +
+                    "VALUES (source.Month, source.Year, ?, ?, ?);";
+
+        try (Connection conn = DatabaseConnection.getDBConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, month);
+            pstmt.setInt(2, year);
+            pstmt.setInt(3, lastUserID);
+            pstmt.setInt(4, processedCount);
+            pstmt.setString(5, status);
+            pstmt.setInt(6, lastUserID);
+            pstmt.setInt(7, processedCount);
+            pstmt.setString(8, status);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving statement checkpoint: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private void loadTransactionTotals (Connection conn, String inList, int[] userIDs,
+            java.sql.Date monthStart, java.sql.Date nextMonthStart, Map<Integer, MonthlyStatement> statements) throws SQLException {
+        String sql = "SELECT UserID, " +
+                    "SUM(CASE WHEN TransactionType = 'INCOME' THEN Amount ELSE 0 END) as TotalIncome, " +
+                    "SUM(CASE WHEN TransactionType = 'EXPENSE' THEN Amount ELSE 0 END) as TotalExpense, " +
+                    "SUM(CASE WHEN TransactionType = 'INCOME' THEN 1 ELSE 0 END) as IncomeCount, " +
+                    "SUM(CASE WHEN TransactionType = 'EXPENSE' THEN 1 ELSE 0 END) as ExpenseCount " +
+                    "FROM Transactions WHERE UserID IN (" + inList + ") " +
+                    "AND TransactionDate >= ? AND TransactionDate < ? " +
+                    "GROUP BY UserID";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = bindUserIDs(pstmt, userIDs);
+            pstmt.setDate(index++, monthStart);
+            pstmt.setDate(index, nextMonthStart);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    MonthlyStatement statement = statements.get(rs.getInt("UserID"));
+                    statement.setTotalIncome(Money.read(rs, "TotalIncome"));
+                    statement.setTotalExpense(Money.read(rs, "TotalExpense"));
+                    statement.setIncomeCount(rs.getInt("IncomeCount"));
+                    statement.setExpenseCount(rs.getInt("ExpenseCount"));
+                }
+            }
+        }
+    }
+
+    // Status rules match Budget.calculateStatus
+    private void loadBudgetTotals (Connection conn, String inList, int[] userIDs, int month, int year,
+            Map<Integer, MonthlyStatement> statements) throws SQLException {
+        String sql = "SELECT UserID, COUNT(*) as BudgetCount, " +
+                    "SUM(BudgetAmount) as TotalBudgetAmount, SUM(CurrentSpent) as TotalSpentAmount, " +
+                    "SUM(CASE WHEN CurrentSpent > BudgetAmount THEN 1 ELSE 0 END) as ExceededCount, " +
+                    "SUM(CASE WHEN CurrentSpent < BudgetAmount " +
+                    "AND CurrentSpent * 100 >= BudgetAmount * AlertThreshold THEN 1 ELSE 0 END) as WarningCount " +
+                    "FROM Budget WHERE UserID IN (" + inList + ") AND Month = ? AND Year = ? " +
+                    "GROUP BY UserID";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = bindUserIDs(pstmt, userIDs);
+            pstmt.setInt(index++, month);
+            pstmt.setInt(index, year);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    MonthlyStatement statement = statements.get(rs.getInt("UserID"));
+                    statement.setBudgetCount(rs.getInt("BudgetCount"));
+                    statement.setTotalBudgetAmount(Money.read(rs, "TotalBudgetAmount"));
+                    statement.setTotalSpentAmount(Money.read(rs, "TotalSpentAmount"));
+                    statement.setExceededCount(rs.getInt("ExceededCount"));
+                    statement.setWarningCount(rs.getInt("WarningCount"));
+                }
+            }
+        }
+    }
+
+    // A goal is overdue when its target date passed before the end of the month
+    private void loadSavingTotals (Connection conn, String inList, int[] userIDs, java.sql.Date nextMonthStart,
+            Map<Integer, MonthlyStatement> statements) throws SQLException {
+        String sql = "SELECT UserID, COUNT(*) as SavingCount, " +
+                    "SUM(CASE WHEN IsCompleted = 1 THEN 1 ELSE 0 END) as CompletedCount, " +
+                    "SUM(CASE WHEN Priority >= 4 THEN 1 ELSE 0 END) as HighPriorityCount, " +
+                    "SUM(CASE WHEN IsCompleted = 0 AND TargetDate < ? THEN 1 ELSE 0 END) as OverdueCount, " +
+                    "SUM(TargetAmount) as TotalTargetAmount, SUM(CurrentAmount) as TotalSavedAmount " +
+                    "FROM Savings WHERE UserID IN (" + inList + ") " +
+                    "GROUP BY UserID";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, nextMonthStart);
+            for (int i = 0; i < userIDs.length; i++) {
+                pstmt.setInt(i + 2, userIDs[i]);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    MonthlyStatement statement = statements.get(rs.getInt("UserID"));
+                    statement.setSavingCount(rs.getInt("SavingCount"));
+                    statement.setCompletedSavingCount(rs.getInt("CompletedCount"));
+                    statement.setHighPrioritySavingCount(rs.getInt("HighPriorityCount"));
+                    statement.setOverdueSavingCount(rs.getInt("OverdueCount"));
+                    statement.setTotalTargetAmount(Money.read(rs, "TotalTargetAmount"));
+                    statement.setTotalSavedAmount(Money.read(rs, "TotalSavedAmount"));
+                }
+            }
+        }
+    }
+
+    // Bind the statement values starting at index, in column order
+    private void bindValues (PreparedStatement pstmt, int index, MonthlyStatement statement) throws SQLException {
+        Money.bind(pstmt, index++, statement.getTotalIncome());
+        Money.bind(pstmt, index++, statement.getTotalExpense());
+        pstmt.setInt(index++, statement.getIncomeCount());
+        pstmt.setInt(index++, statement.getExpenseCount());
+        pstmt.setInt(index++, statement.getBudgetCount());
+        Money.bind(pstmt, index++, statement.getTotalBudgetAmount());
+        Money.bind(pstmt, index++, statement.getTotalSpentAmount());
+        pstmt.setInt(index++, statement.getWarningCount());
+        pstmt.setInt(index++, statement.getExceededCount());
+        pstmt.setInt(index++, statement.getSavingCount());
+        pstmt.setInt(index++, statement.getCompletedSavingCount());
+        pstmt.setInt(index++, statement.getHighPrioritySavingCount());
+        pstmt.setInt(index++, statement.getOverdueSavingCount());
+        Money.bind(pstmt, index++, statement.getTotalTargetAmount());
+        Money.bind(pstmt, index, statement.getTotalSavedAmount());
+    }
+
+    private int bindUserIDs (PreparedStatement pstmt, int[] userIDs) throws SQLException {
+        for (int i = 0; i < userIDs.length; i++) {
+            pstmt.setInt(i + 1, userIDs[i]);
+        }
+        return userIDs.length + 1;
+    }
+
+    private static String placeholders (int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private MonthlyStatement mapResultSetToStatement (ResultSet rs) throws SQLException {
+        MonthlyStatement statement = new MonthlyStatement(rs.getInt("UserID"), rs.getInt("Month"), rs.getInt("Year"));
+        statement.setTotalIncome(Money.read(rs, "TotalIncome"));
+        statement.setTotalExpense(Money.read(rs, "TotalExpense"));
+        statement.setIncomeCount(rs.getInt("IncomeCount"));
+        statement.setExpenseCount(rs.getInt("ExpenseCount"));
+        statement.setBudgetCount(rs.getInt("BudgetCount"));
+        statement.setTotalBudgetAmount(Money.read(rs, "TotalBudgetAmount"));
+        statement.setTotalSpentAmount(Money.read(rs, "TotalSpentAmount"));
+        statement.setWarningCount(rs.getInt("WarningCount"));
+        statement.setExceededCount(rs.getInt("ExceededCount"));
+        statement.setSavingCount(rs.getInt("SavingCount"));
+        statement.setCompletedSavingCount(rs.getInt("CompletedSavingCount"));
+        statement.setHighPrioritySavingCount(rs.getInt("HighPrioritySavingCount"));
+        statement.setOverdueSavingCount(rs.getInt("OverdueSavingCount"));
+        statement.setTotalTargetAmount(Money.read(rs, "TotalTargetAmount"));
+        statement.setTotalSavedAmount(Money.read(rs, "TotalSavedAmount"));
+        return statement;
+    }
+
+    /**
+     * Progress of a monthly run as stored in StatementRuns.
+     */
+    public static class RunCheckpoint {
+        private int lastUserID;
+        private int processedCount;
+        private String status;
+
+        public int getLastUserID() { return lastUserID; }
+        public void setLastUserID(int lastUserID) { this.lastUserID = lastUserID; }
+
+        public int getProcessedCount() { return processedCount; }
+        public void setProcessedCount(int processedCount) { this.processedCount = processedCount; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public boolean isCompleted() { return STATUS_COMPLETED.equals(status); }
+    }
+}
@@ -0,0 +1,29 @@
+package com.expensemanager.dao;
+
+import com.expensemanager.model.Transaction;
+
+/**
+ * Receives notifications after a transaction has been written through the service layer.
+ * Register implementations with DAOFactory.addTransactionChangeListener
+ * Each write is bracketed by beginWrite / endWrite, so listeners that load state from the
+ * database can tell whether a write was in flight while they read.
+ */
+public interface TransactionChangeListener {
+
+    // Called before a transaction of the user is written, always followed by endWrite
+    default void beginWrite(int userID) {
+    }
+
+    // Called after the write and its change events, whether the write succeeded or not
+    default void endWrite(int userID) {
+    }
+
+    // Called after a new transaction has been saved
+    void transactionCreated(Transaction transaction);
+
+    // Called after a transaction has been changed, before holds the previous values
+    void transactionUpdated(Transaction before, Transaction after);
+
+    // Called after a transaction has been deleted
+    void transactionDeleted(Transaction transaction);
+}
@@ -1,7 +1,12 @@
 package com.expensemanager.dao;
 
+import com.expensemanager.analytics.ColumnarLedger;
+import com.expensemanager.analytics.LedgerEngine;
+import com.expensemanager.analytics.RangeIndexEngine;
+import com.expensemanager.analytics.RangeSumIndex;
 import com.expensemanager.model.Transaction;
 import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
@@ -20,7 +25,7 @@ public class TransactionDAO {
             
             pstmt.setInt(1, transaction.getUserID());
             pstmt.setInt(2, transaction.getCategoryID());
-            pstmt.setDouble(3, transaction.getAmount());
+            Money.bind(pstmt, 3, transaction.getAmountMinor());
             pstmt.setString(4, transaction.getTransactionType());
             pstmt.setString(5, transaction.getDescription());
             pstmt.setDate(6, new java.sql.Date(transaction.getTransactionDate().getTime()));
@@ -45,6 +50,84 @@ public class TransactionDAO {
         return false;
     }
     
+    // Load a user's daily totals per category and type into a range index
+    public RangeSumIndex loadRangeIndex (int userID) {
+        String sql = "SELECT CategoryID, TransactionType, TransactionDate, SUM(Amount) AS DailyAmount " +
+                    "FROM Transactions WHERE UserID = ? " +
+                    "GROUP BY CategoryID, TransactionType, TransactionDate";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            pstmt.setFetchSize(1000);
+            
+            List<int[]> keys = new ArrayList<>();
+            List<Long> amounts = new ArrayList<>();
+            int firstDay = Integer.MAX_VALUE;
+            int lastDay = Integer.MIN_VALUE;
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int day = (int) rs.getDate("TransactionDate").toLocalDate().toEpochDay();
+                    keys.add(new int[] {rs.getInt("CategoryID"), "EXPENSE".equals(rs.getString("TransactionType")) ? 1 : 0, day});
+                    amounts.add(Money.read(rs, "DailyAmount"));
+                    firstDay = Math.min(firstDay, day);
+                    lastDay = Math.max(lastDay, day);
+                }
+            }
+            
+            // Without transactions start with the current month, the trees grow on the first write
+            if (keys.isEmpty()) {
+                firstDay = DateUtils.toEpochDay(DateUtils.getCurrentMonthStart());
+                lastDay = firstDay + 31;
+            }
+            
+            RangeSumIndex index = new RangeSumIndex(userID, firstDay, lastDay);
+            for (int i = 0; i < keys.size(); i++) {
+                int[] key = keys.get(i);
+                index.add(key[0], key[1] == 1, key[2], amounts.get(i));
+            }
+            return index;
+        } catch (SQLException e) {
+            System.err.println("Error loading transaction range index: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    // Load all transactions of a user into columnar form, ordered by date
+    public ColumnarLedger loadLedger (int userID) {
+        ColumnarLedger ledger = new ColumnarLedger(userID);
+        String sql = "SELECT TransactionID, CategoryID, Amount, TransactionType, TransactionDate " +
+                    "FROM Transactions WHERE UserID = ? ORDER BY TransactionDate, TransactionID";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            pstmt.setFetchSize(1000);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ledger.append(
+                            rs.getInt("TransactionID"),
+                            (int) rs.getDate("TransactionDate").toLocalDate().toEpochDay(),
+                            Money.read(rs, "Amount"),
+                            rs.getInt("CategoryID"),
+                            "EXPENSE".equals(rs.getString("TransactionType")));
+                }
+            }
+            return ledger;
+        } catch (SQLException e) {
+            System.err.println("Error loading transaction ledger: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
     // Get transaction by ID
     
     public Transaction getTransactionById (int transactionID) {
@@ -195,7 +278,7 @@ public class TransactionDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, transaction.getCategoryID());
-            pstmt.setDouble(2, transaction.getAmount());
+            Money.bind(pstmt, 2, transaction.getAmountMinor());
             pstmt.setString(3, transaction.getTransactionType());
             pstmt.setString(4, transaction.getDescription());
             pstmt.setDate(5, new java.sql.Date(transaction.getTransactionDate().getTime()));
@@ -232,6 +315,17 @@ public class TransactionDAO {
     
     // Get total amount by category and period
     public double getTotalAmountByCategory(int userID, int categoryID, String transactionType, Date startDate, Date endDate) {
+        if (RangeIndexEngine.getInstance().isEnabled()) {
+            Double local = RangeIndexEngine.getInstance().getTotalAmountByCategory(userID, categoryID, transactionType,
+                    DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+            if (local != null) return local;
+        }
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Double local = LedgerEngine.getInstance().getTotalAmountByCategory(userID, categoryID, transactionType,
+                    DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+            if (local != null) return local;
+        }
+        
         String sql = "SELECT ISNULL(SUM(Amount), 0) FROM Transactions WHERE UserID = ? AND CategoryID = ? AND TransactionType = ? AND TransactionDate BETWEEN ? AND ?";
         
         try (Connection conn = DatabaseConnection.getDBConnection();
@@ -245,7 +339,7 @@ public class TransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getDouble(1);
+                    return Money.toDouble(Money.read(rs, 1));
                 }
             }
             
@@ -259,6 +353,12 @@ public class TransactionDAO {
     
     // Get expense summary by category for period
     public Map<String, Double> getExpenseSummaryByCategory(int userID, Date startDate, Date endDate) {
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Map<String, Double> local = LedgerEngine.getInstance().getExpenseByCategory(userID,
+                    DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+            if (local != null) return local;
+        }
+        
         Map<String, Double> summary = new HashMap<>();
         String sql = "SELECT c.CategoryName, SUM(t.Amount) as TotalAmount FROM Transactions t " +
                     "INNER JOIN Categories c ON t.CategoryID = c.CategoryID " +
@@ -274,7 +374,7 @@ public class TransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    summary.put(rs.getString("CategoryName"), rs.getDouble("TotalAmount"));
+                    summary.put(rs.getString("CategoryName"), Money.toDouble(Money.read(rs, "TotalAmount")));
                 }
             }
             
@@ -288,6 +388,17 @@ public class TransactionDAO {
     
     // Get income vs expense for period
     public Map<String, Double> getIncomeVsExpense(int userID, Date startDate, Date endDate) {
+        if (RangeIndexEngine.getInstance().isEnabled()) {
+            Map<String, Double> local = RangeIndexEngine.getInstance().getIncomeVsExpense(userID,
+                    DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+            if (local != null) return local;
+        }
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Map<String, Double> local = LedgerEngine.getInstance().getIncomeVsExpense(userID,
+                    DateUtils.toEpochDay(startDate), DateUtils.toEpochDay(endDate));
+            if (local != null) return local;
+        }
+        
         Map<String, Double> result = new HashMap<>();
         String sql = "SELECT TransactionType, SUM(Amount) as TotalAmount FROM Transactions " +
                     "WHERE UserID = ? AND TransactionDate BETWEEN ? AND ? " +
@@ -302,7 +413,7 @@ public class TransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    result.put(rs.getString("TransactionType"), rs.getDouble("TotalAmount"));
+                    result.put(rs.getString("TransactionType"), Money.toDouble(Money.read(rs, "TotalAmount")));
                 }
             }
             
@@ -341,6 +452,11 @@ public class TransactionDAO {
     
     // Get monthly statistics
     public Map<String, Object> getMonthlyStatistics(int userID, int month, int year) {
+        if (LedgerEngine.getInstance().isEnabled()) {
+            Map<String, Object> local = LedgerEngine.getInstance().getMonthlyStatistics(userID, month, year);
+            if (local != null) return local;
+        }
+        
         Map<String, Object> stats = new HashMap<>();
         String sql = "SELECT " +
                     "SUM(CASE WHEN TransactionType = 'INCOME' THEN Amount ELSE 0 END) as TotalIncome, " +
@@ -358,8 +474,8 @@ public class TransactionDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    double totalIncome = rs.getDouble("TotalIncome");
-                    double totalExpense = rs.getDouble("TotalExpense");
+                    double totalIncome = Money.toDouble(Money.read(rs, "TotalIncome"));
+                    double totalExpense = Money.toDouble(Money.read(rs, "TotalExpense"));
                     
                     stats.put("totalIncome", totalIncome);
                     stats.put("totalExpense", totalExpense);
@@ -406,6 +522,13 @@ public class TransactionDAO {
     
     // Get total expense by category
     public double getTotalExpenseByCategory(int userID, int categoryID, int month, int year) {
+        if (LedgerEngine.getInstance().isEnabled()) {
+            int startDay = DateUtils.getMonthStartEpochDay(month, year);
+            int endDay = DateUtils.toEpochDay(DateUtils.getMonthEnd(month, year));
+            Double local = LedgerEngine.getInstance().getTotalAmountByCategory(userID, categoryID, "EXPENSE", startDay, endDay);
+            if (local != null) return local;
+        }
+        
         String sql = "SELECT ISNULL(SUM(Amount), 0) as TotalAmount " +
                     "FROM Transactions " +
                     "WHERE UserID = ? AND CategoryID = ? AND TransactionType = 'EXPENSE' " +
@@ -421,7 +544,7 @@ public class TransactionDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getDouble("TotalAmount");
+                    return Money.toDouble(Money.read(rs, "TotalAmount"));
                 }
             }
 
@@ -439,7 +562,7 @@ public class TransactionDAO {
         transaction.setTransactionID(rs.getInt("TransactionID"));
         transaction.setUserID(rs.getInt("UserID"));
         transaction.setCategoryID(rs.getInt("CategoryID"));
-        transaction.setAmount(rs.getDouble("Amount"));
+        transaction.setAmountMinor(Money.read(rs, "Amount"));
         transaction.setTransactionType(rs.getString("TransactionType"));
         transaction.setDescription(rs.getString("Description"));
         transaction.setTransactionDate(rs.getDate("TransactionDate"));
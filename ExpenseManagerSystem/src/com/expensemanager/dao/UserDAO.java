@@ -194,6 +194,29 @@ public class UserDAO {
         return null;
     }
     
+    // Get current data version of user, -1 if user not found
+    // The version is bumped by triggers in the same transaction as every data write
+    public long getDataVersion (int userID) {
+        String sql = "SELECT DataVersion FROM Users WHERE UserID = ?";
+        
+        try (Connection conn = DatabaseConnection.getDBConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userID);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("DataVersion");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting data version: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return -1;
+    }
+    
     // Helper method to map ResultSet to User object
     private User mapResultSetToUser (ResultSet rs) throws SQLException {
         User user = new User();
@@ -206,6 +229,7 @@ public class UserDAO {
         user.setCreatedDate(rs.getTimestamp("CreatedDate"));
         user.setLastLogin(rs.getTimestamp("LastLogin"));
         user.setActive(rs.getBoolean("IsActive"));
+        user.setDataVersion(rs.getLong("DataVersion"));
         
         return user;
     }
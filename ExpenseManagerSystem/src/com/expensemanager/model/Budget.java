@@ -1,5 +1,6 @@
 package com.expensemanager.model;
 
+import com.expensemanager.util.Money;
 import java.util.Date;
 
 
@@ -7,7 +8,7 @@ public class Budget {
     private int budgetID;
     private int userID;
     private int categoryID;
-    private double budgetAmount;
+    private long budgetAmount; // minor units
     private int month;
     private int year;
     private double alertThreshold;
@@ -16,14 +17,16 @@ public class Budget {
     
     // Additional fields for reports
     private String categoryName;
-    private double currentSpent;
+    private String categoryColor;
+    private String categoryType;
+    private long currentSpent; // minor units
     private String status; // OK, WARNING, EXCEEDED
     
     public Budget () {
         this.alertThreshold = 80.0; // Default 80%
         this.createdDate = new Date();
         this.modifiedDate = new Date();
-        this.currentSpent = 0.0;
+        this.currentSpent = 0;
         this.status = "OK";
     }
 
@@ -31,14 +34,14 @@ public class Budget {
         this.budgetID = budgetID;
         this.userID = userID;
         this.categoryID = categoryID;
-        this.budgetAmount = budgetAmount;
+        this.budgetAmount = Money.toMinor(budgetAmount);
         this.month = month;
         this.year = year;
         this.alertThreshold = alertThreshold;
         this.createdDate = createdDate;
         this.modifiedDate = modifiedDate;
         this.categoryName = categoryName;
-        this.currentSpent = currentSpent;
+        this.currentSpent = Money.toMinor(currentSpent);
         this.status = status;
     }
 
@@ -67,10 +70,19 @@ public class Budget {
     }
 
     public double getBudgetAmount() {
-        return budgetAmount;
+        return Money.toDouble(budgetAmount);
     }
 
     public void setBudgetAmount(double budgetAmount) {
+        this.budgetAmount = Money.toMinor(budgetAmount);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getBudgetAmountMinor() {
+        return budgetAmount;
+    }
+
+    public void setBudgetAmountMinor(long budgetAmount) {
         this.budgetAmount = budgetAmount;
     }
 
@@ -122,11 +134,43 @@ public class Budget {
         this.categoryName = categoryName;
     }
 
+    public String getCategoryColor() {
+        return categoryColor;
+    }
+
+    public void setCategoryColor(String categoryColor) {
+        this.categoryColor = categoryColor;
+    }
+
+    public String getCategoryType() {
+        return categoryType;
+    }
+
+    public void setCategoryType(String categoryType) {
+        this.categoryType = categoryType;
+    }
+
+    // Copy the display fields of the budget's category
+    public void setCategory(Category category) {
+        this.categoryName = category.getCategoryName();
+        this.categoryColor = category.getColor();
+        this.categoryType = category.getCategoryType();
+    }
+
     public double getCurrentSpent() {
-        return currentSpent;
+        return Money.toDouble(currentSpent);
     }
 
     public void setCurrentSpent(double currentSpent) {
+        this.currentSpent = Money.toMinor(currentSpent);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getCurrentSpentMinor() {
+        return currentSpent;
+    }
+
+    public void setCurrentSpentMinor(long currentSpent) {
         this.currentSpent = currentSpent;
     }
 
@@ -145,17 +189,17 @@ public class Budget {
     
     public boolean isWarning () {
         if (budgetAmount == 0) return false;
-        double percentageUsed = (currentSpent / budgetAmount) * 100;
+        double percentageUsed = Money.percentage(currentSpent, budgetAmount);
         return percentageUsed >= alertThreshold && percentageUsed < 100;
     }
     
     public double getUsedPercentage () {
         if (budgetAmount == 0) return 0;
-        return (currentSpent / budgetAmount) * 100;
+        return Money.percentage(currentSpent, budgetAmount);
     }
     
     public double getRemainingAmount () {
-        return budgetAmount - currentSpent;
+        return Money.toDouble(budgetAmount - currentSpent);
     }
     
     public String calculateStatus () {
@@ -173,11 +217,11 @@ public class Budget {
     }
     
     public String getFormattedBudgetAmount () {
-        return String.format("%,.0f VNĐ", budgetAmount);
+        return String.format("%,.0f VNĐ", getBudgetAmount());
     }
     
     public String getFormattedCurrentSpent () {
-        return String.format("%,.0f VNĐ", currentSpent);
+        return String.format("%,.0f VNĐ", getCurrentSpent());
     }
     
     public String getFormattedRemainingAmount() {
@@ -194,8 +238,8 @@ public class Budget {
         return "Budget{" +
                 "budgetID=" + budgetID +
                 ", categoryName='" + categoryName + '\'' +
-                ", budgetAmount=" + budgetAmount +
-                ", currentSpent=" + currentSpent +
+                ", budgetAmount=" + getBudgetAmount() +
+                ", currentSpent=" + getCurrentSpent() +
                 ", status='" + status + '\'' +
                 ", month=" + month +
                 ", year=" + year +
@@ -0,0 +1,114 @@
+package com.expensemanager.model;
+
+import com.expensemanager.util.Money;
+
+/**
+ * Snapshot of one user's month written by the monthly close job:
+ * income/expense statistics, budget results and savings progress.
+ * Amounts are minor units (see Money).
+ */
+public class MonthlyStatement {
+    private int userID;
+    private int month;
+    private int year;
+
+    // Transactions of the month
+    private long totalIncome;
+    private long totalExpense;
+    private int incomeCount;
+    private int expenseCount;
+
+    // Budgets of the month
+    private int budgetCount;
+    private long totalBudgetAmount;
+    private long totalSpentAmount;
+    private int warningCount;
+    private int exceededCount;
+
+    // Savings at the time of the run
+    private int savingCount;
+    private int completedSavingCount;
+    private int highPrioritySavingCount;
+    private int overdueSavingCount;
+    private long totalTargetAmount;
+    private long totalSavedAmount;
+
+    public MonthlyStatement () {
+    }
+
+    public MonthlyStatement (int userID, int month, int year) {
+        this.userID = userID;
+        this.month = month;
+        this.year = year;
+    }
+
+    public int getUserID() { return userID; }
+    public void setUserID(int userID) { this.userID = userID; }
+
+    public int getMonth() { return month; }
+    public void setMonth(int month) { this.month = month; }
+
+    public int getYear() { return year; }
+    public void setYear(int year) { this.year = year; }
+
+    public long getTotalIncome() { return totalIncome; }
+    public void setTotalIncome(long totalIncome) { this.totalIncome = totalIncome; }
+
+    public long getTotalExpense() { return totalExpense; }
+    public void setTotalExpense(long totalExpense) { this.totalExpense = totalExpense; }
+
+    public long getNetAmount() { return totalIncome - totalExpense; }
+
+    public int getIncomeCount() { return incomeCount; }
+    public void setIncomeCount(int incomeCount) { this.incomeCount = incomeCount; }
+
+    public int getExpenseCount() { return expenseCount; }
+    public void setExpenseCount(int expenseCount) { this.expenseCount = expenseCount; }
+
+    public int getBudgetCount() { return budgetCount; }
+    public void setBudgetCount(int budgetCount) { this.budgetCount = budgetCount; }
+
+    public long getTotalBudgetAmount() { return totalBudgetAmount; }
+    public void setTotalBudgetAmount(long totalBudgetAmount) { this.totalBudgetAmount = totalBudgetAmount; }
+
+    public long getTotalSpentAmount() { return totalSpentAmount; }
+    public void setTotalSpentAmount(long totalSpentAmount) { this.totalSpentAmount = totalSpentAmount; }
+
+    public int getWarningCount() { return warningCount; }
+    public void setWarningCount(int warningCount) { this.warningCount = warningCount; }
+
+    public int getExceededCount() { return exceededCount; }
+    public void setExceededCount(int exceededCount) { this.exceededCount = exceededCount; }
+
+    public int getOkCount() { return budgetCount - warningCount - exceededCount; }
+
+    public int getSavingCount() { return savingCount; }
+    public void setSavingCount(int savingCount) { this.savingCount = savingCount; }
+
+    public int getCompletedSavingCount() { return completedSavingCount; }
+    public void setCompletedSavingCount(int completedSavingCount) { this.completedSavingCount = completedSavingCount; }
+
+    public int getHighPrioritySavingCount() { return highPrioritySavingCount; }
+    public void setHighPrioritySavingCount(int highPrioritySavingCount) { this.highPrioritySavingCount = highPrioritySavingCount; }
+
+    public int getOverdueSavingCount() { return overdueSavingCount; }
+    public void setOverdueSavingCount(int overdueSavingCount) { this.overdueSavingCount = overdueSavingCount; }
+
+    public long getTotalTargetAmount() { return totalTargetAmount; }
+    public void setTotalTargetAmount(long totalTargetAmount) { this.totalTargetAmount = totalTargetAmount; }
+
+    public long getTotalSavedAmount() { return totalSavedAmount; }
+    public void setTotalSavedAmount(long totalSavedAmount) { this.totalSavedAmount = totalSavedAmount; }
+
+    @Override
+    public String toString() {
+        return "MonthlyStatement{" +
+                "userID=" + userID +
+                ", period=" + month + "/" + year +
+                ", income=" + Money.ofMinor(totalIncome) +
+                ", expense=" + Money.ofMinor(totalExpense) +
+                ", budgets=" + budgetCount +
+                ", savings=" + savingCount +
+                '}';
+    }
+}
@@ -0,0 +1,150 @@
+package com.expensemanager.model;
+
+import com.expensemanager.util.Money;
+import java.util.Date;
+
+/**
+ * Budget of a category over a week (Monday first), calendar quarter, calendar year
+ * or the last N days. The current period and its spending are filled in when the
+ * budget is read for a date (PeriodBudgetDAO.getPeriodBudgets).
+ * Amounts are minor units (see Money).
+ */
+public class PeriodBudget {
+
+    public static final String PERIOD_WEEK = "WEEK";
+    public static final String PERIOD_QUARTER = "QUARTER";
+    public static final String PERIOD_YEAR = "YEAR";
+    public static final String PERIOD_ROLLING = "ROLLING";
+
+    private int periodBudgetID;
+    private int userID;
+    private int categoryID;
+    private String periodType;
+    private int rollingDays; // ROLLING only, 0 otherwise
+    private long budgetAmount;
+    private double alertThreshold;
+    private Date createdDate;
+    private Date modifiedDate;
+
+    // Additional fields for reports
+    private String categoryName;
+    private String categoryColor;
+    private Date periodStart;
+    private Date periodEnd;
+    private long currentSpent;
+    private String status; // OK, WARNING, EXCEED
+
+    public PeriodBudget () {
+        this.alertThreshold = 80.0; // Default 80%
+        this.createdDate = new Date();
+        this.modifiedDate = new Date();
+        this.status = "OK";
+    }
+
+    public int getPeriodBudgetID() { return periodBudgetID; }
+    public void setPeriodBudgetID(int periodBudgetID) { this.periodBudgetID = periodBudgetID; }
+
+    public int getUserID() { return userID; }
+    public void setUserID(int userID) { this.userID = userID; }
+
+    public int getCategoryID() { return categoryID; }
+    public void setCategoryID(int categoryID) { this.categoryID = categoryID; }
+
+    public String getPeriodType() { return periodType; }
+    public void setPeriodType(String periodType) { this.periodType = periodType; }
+
+    public int getRollingDays() { return rollingDays; }
+    public void setRollingDays(int rollingDays) { this.rollingDays = rollingDays; }
+
+    public double getBudgetAmount() { return Money.toDouble(budgetAmount); }
+    public void setBudgetAmount(double budgetAmount) { this.budgetAmount = Money.toMinor(budgetAmount); }
+
+    public long getBudgetAmountMinor() { return budgetAmount; }
+    public void setBudgetAmountMinor(long budgetAmount) { this.budgetAmount = budgetAmount; }
+
+    public double getAlertThreshold() { return alertThreshold; }
+    public void setAlertThreshold(double alertThreshold) { this.alertThreshold = alertThreshold; }
+
+    public Date getCreatedDate() { return createdDate; }
+    public void setCreatedDate(Date createdDate) { this.createdDate = createdDate; }
+
+    public Date getModifiedDate() { return modifiedDate; }
+    public void setModifiedDate(Date modifiedDate) { this.modifiedDate = modifiedDate; }
+
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+
+    public String getCategoryColor() { return categoryColor; }
+    public void setCategoryColor(String categoryColor) { this.categoryColor = categoryColor; }
+
+    public Date getPeriodStart() { return periodStart; }
+    public void setPeriodStart(Date periodStart) { this.periodStart = periodStart; }
+
+    public Date getPeriodEnd() { return periodEnd; }
+    public void setPeriodEnd(Date periodEnd) { this.periodEnd = periodEnd; }
+
+    public double getCurrentSpent() { return Money.toDouble(currentSpent); }
+    public void setCurrentSpent(double currentSpent) { this.currentSpent = Money.toMinor(currentSpent); }
+
+    public long getCurrentSpentMinor() { return currentSpent; }
+    public void setCurrentSpentMinor(long currentSpent) { this.currentSpent = currentSpent; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    // Helper methods
+    public boolean isExceeded () {
+        return currentSpent > budgetAmount;
+    }
+
+    public boolean isWarning () {
+        if (budgetAmount == 0) return false;
+        double percentageUsed = Money.percentage(currentSpent, budgetAmount);
+        return percentageUsed >= alertThreshold && percentageUsed < 100;
+    }
+
+    public double getUsedPercentage () {
+        if (budgetAmount == 0) return 0;
+        return Money.percentage(currentSpent, budgetAmount);
+    }
+
+    public double getRemainingAmount () {
+        return Money.toDouble(budgetAmount - currentSpent);
+    }
+
+    public String calculateStatus () {
+        if (isExceeded()) {
+            return "EXCEED";
+        } else if (isWarning()) {
+            return "WARNING";
+        } else {
+            return "OK";
+        }
+    }
+
+    public void updateStatus () {
+        this.status = calculateStatus();
+    }
+
+    public String getPeriodLabel () {
+        switch (periodType) {
+            case PERIOD_WEEK: return "Tuần";
+            case PERIOD_QUARTER: return "Quý";
+            case PERIOD_YEAR: return "Năm";
+            case PERIOD_ROLLING: return rollingDays + " ngày gần nhất";
+            default: return periodType;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodBudget{" +
+                "periodBudgetID=" + periodBudgetID +
+                ", categoryName='" + categoryName + '\'' +
+                ", periodType='" + periodType + '\'' +
+                ", budgetAmount=" + getBudgetAmount() +
+                ", currentSpent=" + getCurrentSpent() +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
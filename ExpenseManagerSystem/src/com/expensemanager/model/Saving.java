@@ -1,5 +1,6 @@
 package com.expensemanager.model;
 
+import com.expensemanager.util.Money;
 import java.util.Date;
 
 
@@ -8,8 +9,8 @@ public class Saving {
     private int userID;
     private String savingName;
     private String description;
-    private double targetAmount;
-    private double currentAmount;
+    private long targetAmount; // minor units
+    private long currentAmount; // minor units
     private Date targetDate;
     private int priority; // 1-5 (1=Low, 5=High)
     private boolean isCompleted;
@@ -17,7 +18,7 @@ public class Saving {
     private Date completedDate;
     
     public Saving () {
-        this.currentAmount = 0.0;
+        this.currentAmount = 0;
         this.priority = 1;
         this.isCompleted = false;
         this.createdDate = new Date();
@@ -28,8 +29,8 @@ public class Saving {
         this.userID = userID;
         this.savingName = savingName;
         this.description = description;
-        this.targetAmount = targetAmount;
-        this.currentAmount = currentAmount;
+        this.targetAmount = Money.toMinor(targetAmount);
+        this.currentAmount = Money.toMinor(currentAmount);
         this.targetDate = targetDate;
         this.priority = priority;
         this.isCompleted = isCompleted; 
@@ -70,18 +71,36 @@ public class Saving {
     }
 
     public double getTargetAmount() {
-        return targetAmount;
+        return Money.toDouble(targetAmount);
     }
 
     public void setTargetAmount(double targetAmount) {
+        this.targetAmount = Money.toMinor(targetAmount);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getTargetAmountMinor() {
+        return targetAmount;
+    }
+
+    public void setTargetAmountMinor(long targetAmount) {
         this.targetAmount = targetAmount;
     }
 
     public double getCurrentAmount() {
-        return currentAmount;
+        return Money.toDouble(currentAmount);
     }
 
     public void setCurrentAmount(double currentAmount) {
+        this.currentAmount = Money.toMinor(currentAmount);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getCurrentAmountMinor() {
+        return currentAmount;
+    }
+
+    public void setCurrentAmountMinor(long currentAmount) {
         this.currentAmount = currentAmount;
     }
 
@@ -128,11 +147,11 @@ public class Saving {
     // Helper methods
     public double getCompletionPercentage () {
         if (targetAmount == 0) return 0;
-        return Math.min(100, (currentAmount / targetAmount) * 100);
+        return Math.min(100, Money.percentage(currentAmount, targetAmount));
     }
     
     public double getRemainingAmount () {
-        return Math.max(0, targetAmount - currentAmount);
+        return Money.toDouble(Math.max(0, targetAmount - currentAmount));
     }
     
     public long getDaysRemaining () {
@@ -159,11 +178,11 @@ public class Saving {
     }
     
     public String getFormattedTargetAmount() {
-        return String.format("%,.0f VNĐ", targetAmount);
+        return String.format("%,.0f VNĐ", getTargetAmount());
     }
 
     public String getFormattedCurrentAmount() {
-        return String.format("%,.0f VNĐ", currentAmount);
+        return String.format("%,.0f VNĐ", getCurrentAmount());
     }
 
     public String getFormattedRemainingAmount() {
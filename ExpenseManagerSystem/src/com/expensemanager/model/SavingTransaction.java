@@ -1,11 +1,12 @@
 package com.expensemanager.model;
 
+import com.expensemanager.util.Money;
 import java.util.Date;
 
 public class SavingTransaction {
     private int savingTransactionID;
     private int savingID;
-    private double amount;
+    private long amount; // minor units
     private String transactionType; // DEPOSIT OR WITHDRAW
     private String description;
     private Date transactionDate;
@@ -21,7 +22,7 @@ public class SavingTransaction {
     public SavingTransaction(int savingTransactionID, int savingID, double amount, String transactionType, String description, Date transactionDate, Date createdDate) {
         this.savingTransactionID = savingTransactionID;
         this.savingID = savingID;
-        this.amount = amount;
+        this.amount = Money.toMinor(amount);
         this.transactionType = transactionType;
         this.description = description;
         this.transactionDate = transactionDate;
@@ -31,7 +32,7 @@ public class SavingTransaction {
     // Constructor for new transaction
     public SavingTransaction(int savingID, double amount, String transactionType, String description) {
         this.savingID = savingID;
-        this.amount = amount;
+        this.amount = Money.toMinor(amount);
         this.transactionType = transactionType;
         this.description = description;
         this.transactionDate = new Date();
@@ -55,10 +56,19 @@ public class SavingTransaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amount);
     }
 
     public void setAmount(double amount) {
+        this.amount = Money.toMinor(amount);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getAmountMinor() {
+        return amount;
+    }
+
+    public void setAmountMinor(long amount) {
         this.amount = amount;
     }
 
@@ -115,12 +125,12 @@ public class SavingTransaction {
     }
     
     public String getFormattedAmount() {
-        return String.format("%,.0f VNĐ", amount);
+        return String.format("%,.0f VNĐ", getAmount());
     }
     
     public String getAmountWithSign() {
         String sign = isDeposit() ? "+" : "-";
-        return sign + String.format("%,.0f VNĐ", amount);
+        return sign + String.format("%,.0f VNĐ", getAmount());
     }
     
     public String getAmountColorClass() {
@@ -1,5 +1,6 @@
 package com.expensemanager.model;
 
+import com.expensemanager.util.Money;
 import java.util.Date;
 
 
@@ -7,7 +8,7 @@ public class Transaction {
     private int transactionID;
     private int userID;
     private int categoryID;
-    private double amount;
+    private long amount; // minor units
     private String transactionType; // INCOME or EXPENSE
     private String description;
     private Date transactionDate;
@@ -30,7 +31,7 @@ public class Transaction {
         this.transactionID = transactionID;
         this.userID = userID;
         this.categoryID = categoryID;
-        this.amount = amount;
+        this.amount = Money.toMinor(amount);
         this.transactionType = transactionType;
         this.description = description;
         this.transactionDate = transactionDate;
@@ -68,10 +69,19 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amount);
     }
 
     public void setAmount(double amount) {
+        this.amount = Money.toMinor(amount);
+    }
+
+    // Exact amount in minor units, see Money
+    public long getAmountMinor() {
+        return amount;
+    }
+
+    public void setAmountMinor(long amount) {
         this.amount = amount;
     }
 
@@ -165,13 +175,13 @@ public class Transaction {
     }
     
     public String getFormattedAmount () {
-        return String.format("%,.0f VNĐ", amount);
+        return String.format("%,.0f VNĐ", getAmount());
     }
     
     public String toString () {
         return "Transaction{" +
                 "transactionID=" + transactionID +
-                ", amount=" + amount +
+                ", amount=" + getAmount() +
                 ", transactionType='" + transactionType + '\'' +
                 ", description='" + description + '\'' +
                 ", transactionDate=" + transactionDate +
@@ -12,6 +12,7 @@ public class User {
     private Date createdDate;
     private Date lastLogin;
     private boolean isActive;
+    private long dataVersion;
     
     // Constructor mặc định
     public User() {
@@ -56,6 +57,9 @@ public class User {
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
     
+    public long getDataVersion() { return dataVersion; }
+    public void setDataVersion(long dataVersion) { this.dataVersion = dataVersion; }
+    
     @Override
     public String toString() {
         return "User{" +
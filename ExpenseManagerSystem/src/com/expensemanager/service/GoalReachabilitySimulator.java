@@ -0,0 +1,191 @@
+package com.expensemanager.service;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.RecurringTransactionDAO;
+import com.expensemanager.dao.ReportDAO;
+import com.expensemanager.dao.SavingDAO;
+import com.expensemanager.model.Saving;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates the probability that a saving goal is reached by its target date.
+ *
+ * Each simulated month adds the planned net flow of the user's active recurring transactions
+ * in that month and one past month drawn at random from the user's history of what was left
+ * besides the recurring flows (income minus expense minus the recurring net). The goal gets
+ * its share of the flow, its remaining amount over the remaining amount of all active goals;
+ * a negative month takes money back out, never below zero. Paths run in parallel chunks, each
+ * with its own SplittableRandom split from one seed, so a seed always gives the same result.
+ */
+public class GoalReachabilitySimulator {
+
+    public static final int DEFAULT_PATHS = 10000;
+    // Horizon of goals without target date
+    public static final int DEFAULT_HORIZON_MONTHS = 60;
+
+    private static final int HISTORY_MONTHS = 24;
+    private static final int MIN_HISTORY_MONTHS = 3;
+    private static final int MAX_HORIZON_MONTHS = 600;
+    private static final int PATHS_PER_CHUNK = 500;
+    private static final double DAYS_PER_MONTH = 30.44;
+    private static final double WEEKS_PER_MONTH = 52 / 12.0;
+
+    private final SavingDAO savingDAO;
+    private final ReportDAO reportDAO;
+    private final RecurringTransactionDAO recurringTransactionDAO;
+
+    public GoalReachabilitySimulator() {
+        DAOFactory daoFactory = DAOFactory.getInstance();
+        this.savingDAO = daoFactory.getSavingDAO();
+        this.reportDAO = daoFactory.getReportDAO();
+        this.recurringTransactionDAO = daoFactory.getRecurringTransactionDAO();
+    }
+
+    // Simulate the goal from the user's history, the same goal in the same month always gives the same result
+    public ServiceResult<GoalSimulation> simulate(Saving saving, int paths) {
+        if (paths <= 0) {
+            return ServiceResult.error("Số lần mô phỏng phải lớn hơn 0");
+        }
+
+        try {
+            int currentIndex = monthIndex(new Date());
+            int horizon = DEFAULT_HORIZON_MONTHS;
+            if (saving.getTargetDate() != null) {
+                horizon = monthIndex(saving.getTargetDate()) - currentIndex;
+                if (horizon < 0) {
+                    return ServiceResult.error("Mục tiêu tiết kiệm đã quá hạn");
+                }
+                horizon = Math.min(horizon, MAX_HORIZON_MONTHS);
+            }
+
+            List<RecurringTransactionDAO.RecurringTransaction> recurring =
+                    recurringTransactionDAO.getActiveRecurringTransactions(saving.getUserID());
+
+            // Past months without the current one, which is not over yet
+            List<Long> history = new ArrayList<>();
+            for (ReportDAO.MonthlyData month : reportDAO.getMonthlyTrend(saving.getUserID(), HISTORY_MONTHS)) {
+                int index = month.getYear() * 12 + month.getMonth() - 1;
+                if (index < currentIndex) {
+                    history.add(Money.toMinor(month.getNetAmount()) - recurringFlow(recurring, index));
+                }
+            }
+            if (history.size() < MIN_HISTORY_MONTHS) {
+                return ServiceResult.error("Chưa đủ lịch sử thu chi để mô phỏng (cần ít nhất "
+                        + MIN_HISTORY_MONTHS + " tháng)");
+            }
+
+            long[] residuals = new long[history.size()];
+            for (int i = 0; i < residuals.length; i++) {
+                residuals[i] = history.get(i);
+            }
+            long[] plannedFlows = new long[horizon];
+            for (int month = 0; month < horizon; month++) {
+                plannedFlows[month] = recurringFlow(recurring, currentIndex + 1 + month);
+            }
+
+            long seed = (long) saving.getSavingID() * 100003 + currentIndex;
+            GoalSimulation simulation = simulate(saving.getCurrentAmountMinor(), saving.getTargetAmountMinor(),
+                    residuals, plannedFlows, goalShare(saving), paths, seed);
+            return ServiceResult.success(simulation, "Khả năng đạt mục tiêu: " + simulation.getFormattedProbability());
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+
+    // Run the paths, one month per entry of plannedFlows, each adding a random residual. Amounts in minor units.
+    public static GoalSimulation simulate(long currentAmount, long targetAmount, long[] residuals, long[] plannedFlows,
+                                          double share, int paths, long seed) {
+        int chunks = (paths + PATHS_PER_CHUNK - 1) / PATHS_PER_CHUNK;
+        // Split in order before going parallel so the streams do not depend on scheduling
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            randoms[chunk] = root.split();
+        }
+
+        int[][] chunkResults = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> chunkResults[chunk] = runPaths(randoms[chunk],
+                Math.min(PATHS_PER_CHUNK, paths - chunk * PATHS_PER_CHUNK),
+                currentAmount, targetAmount, residuals, plannedFlows, share));
+
+        long[] reachedByMonth = new long[plannedFlows.length + 1];
+        for (int[] result : chunkResults) {
+            for (int month = 0; month < result.length; month++) {
+                reachedByMonth[month] += result[month];
+            }
+        }
+        return new GoalSimulation(paths, reachedByMonth);
+    }
+
+    // Hot loop, nothing is allocated per path or per month
+    private static int[] runPaths(SplittableRandom random, int paths, long currentAmount, long targetAmount,
+                                  long[] residuals, long[] plannedFlows, double share) {
+        int[] reached = new int[plannedFlows.length + 1];
+        if (currentAmount >= targetAmount) {
+            reached[0] = paths;
+            return reached;
+        }
+
+        for (int path = 0; path < paths; path++) {
+            double balance = currentAmount;
+            for (int month = 0; month < plannedFlows.length; month++) {
+                long flow = plannedFlows[month] + residuals[random.nextInt(residuals.length)];
+                balance = Math.max(0, balance + flow * share);
+                if (balance >= targetAmount) {
+                    reached[month + 1]++;
+                    break;
+                }
+            }
+        }
+        return reached;
+    }
+
+    // Share of the free cash flow going to this goal among the user's active goals
+    private double goalShare(Saving saving) {
+        long remaining = Math.max(0, saving.getTargetAmountMinor() - saving.getCurrentAmountMinor());
+        long totalRemaining = 0;
+        for (Saving active : savingDAO.getActiveSavings(saving.getUserID())) {
+            totalRemaining += Math.max(0, active.getTargetAmountMinor() - active.getCurrentAmountMinor());
+        }
+        if (totalRemaining == 0 || remaining == 0) return 1;
+        return Math.min(1, (double) remaining / totalRemaining);
+    }
+
+    // Net of the recurring transactions in a month (minor units), income positive
+    private static long recurringFlow(List<RecurringTransactionDAO.RecurringTransaction> recurring, int monthIndex) {
+        long flow = 0;
+        for (RecurringTransactionDAO.RecurringTransaction transaction : recurring) {
+            int start = monthIndex(transaction.getStartDate());
+            if (start > monthIndex) continue;
+            if (transaction.getEndDate() != null && monthIndex(transaction.getEndDate()) < monthIndex) continue;
+
+            long amount = Money.toMinor(transaction.getAmount());
+            long monthly;
+            switch (transaction.getFrequency()) {
+                case "DAILY":
+                    monthly = Math.round(amount * DAYS_PER_MONTH);
+                    break;
+                case "WEEKLY":
+                    monthly = Math.round(amount * WEEKS_PER_MONTH);
+                    break;
+                case "YEARLY":
+                    monthly = (monthIndex - start) % 12 == 0 ? amount : 0;
+                    break;
+                default:
+                    monthly = amount;
+            }
+            flow += "INCOME".equals(transaction.getTransactionType()) ? monthly : -monthly;
+        }
+        return flow;
+    }
+
+    private static int monthIndex(Date date) {
+        return DateUtils.getYear(date) * 12 + DateUtils.getMonth(date) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package com.expensemanager.service;
+
+public class GoalSimulation {
+
+    private final int paths;
+    private final int horizonMonths;
+    // reachedByMonth[m] = paths reaching the target in month m, index 0 = already reached
+    private final long[] reachedByMonth;
+
+    public GoalSimulation(int paths, long[] reachedByMonth) {
+        this.paths = paths;
+        this.horizonMonths = reachedByMonth.length - 1;
+        this.reachedByMonth = reachedByMonth;
+    }
+
+    // Getters
+        public int getPaths() { return paths; }
+        public int getHorizonMonths() { return horizonMonths; }
+        public long[] getReachedByMonth() { return reachedByMonth.clone(); }
+
+        // Helper methods
+        public long getReachedPaths () {
+            long reached = 0;
+            for (long count : reachedByMonth) {
+                reached += count;
+            }
+            return reached;
+        }
+
+        // Share of paths reaching the target within the horizon
+        public double getProbability () {
+            if (paths == 0) return 0;
+            return (double) getReachedPaths() / paths;
+        }
+
+        // Months until the given share of paths has reached the target, -1 when fewer paths reach it
+        public int getMonthsToReach (double share) {
+            long needed = (long) Math.ceil(share * paths);
+            long reached = 0;
+            for (int month = 0; month <= horizonMonths; month++) {
+                reached += reachedByMonth[month];
+                if (reached >= needed && reached > 0) return month;
+            }
+            return -1;
+        }
+
+        public int getMedianMonthsToReach () {
+            return getMonthsToReach(0.5);
+        }
+
+        public String getFormattedProbability () {
+            return String.format("%.1f%%", getProbability() * 100);
+        }
+
+        public String toString () {
+            return "GoalSimulation{" +
+                    "paths=" + paths +
+                    ", horizonMonths=" + horizonMonths +
+                    ", probability=" + getFormattedProbability() +
+                    ", medianMonthsToReach=" + getMedianMonthsToReach() +
+                    '}';
+        }
+}
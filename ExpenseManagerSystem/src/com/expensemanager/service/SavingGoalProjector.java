@@ -0,0 +1,136 @@
+package com.expensemanager.service;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.SavingDAO;
+import com.expensemanager.model.Saving;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projects when each active saving goal will be reached and how much it needs per month.
+ *
+ * The cadence of a goal is fitted from its deposits over the lookback window: the average
+ * gap between deposits and the net amount saved (deposits minus withdrawals). Each deposit
+ * is taken to cover one gap, so the rate is the net amount over the deposits' span plus one
+ * gap, or over the time since the first deposit when deposits have stopped since. The
+ * remaining amount at that rate gives the projected completion date. All goals come from
+ * one grouped query (SavingDAO.getSavingDepositStats), for a single user or for every user.
+ */
+public class SavingGoalProjector {
+
+    public static final int DEFAULT_LOOKBACK_MONTHS = 12;
+
+    private static final double DAYS_PER_MONTH = 30.44;
+    // Gap assumed after a single deposit
+    private static final int DEFAULT_INTERVAL_DAYS = 30;
+    // Projections further away than this are treated as never
+    private static final int MAX_PROJECTION_DAYS = 100 * 365;
+
+    private final SavingDAO savingDAO;
+    private final int lookbackMonths;
+
+    public SavingGoalProjector() {
+        this(DEFAULT_LOOKBACK_MONTHS);
+    }
+
+    public SavingGoalProjector(int lookbackMonths) {
+        if (lookbackMonths <= 0) {
+            throw new IllegalArgumentException("Lookback must be at least one month");
+        }
+        this.savingDAO = DAOFactory.getInstance().getSavingDAO();
+        this.lookbackMonths = lookbackMonths;
+    }
+
+    // Projections of one user's active goals
+    public ServiceResult<List<SavingProjection>> projectForUser(int userID) {
+        if (userID <= 0) {
+            return ServiceResult.error("Người dùng không hợp lệ");
+        }
+        ServiceResult<Map<Integer, List<SavingProjection>>> result = project(userID);
+        if (!result.isSuccess()) {
+            return ServiceResult.error(result.getMessage());
+        }
+
+        List<SavingProjection> projections = result.getData().get(userID);
+        return ServiceResult.success(projections != null ? projections : new ArrayList<>(),
+                "Đã dự báo tiến độ các mục tiêu tiết kiệm");
+    }
+
+    // Projections of the active goals of every user, keyed by user
+    public ServiceResult<Map<Integer, List<SavingProjection>>> projectForAllUsers() {
+        return project(0);
+    }
+
+    private ServiceResult<Map<Integer, List<SavingProjection>>> project(int userID) {
+        try {
+            int today = DateUtils.getTodayEpochDay();
+            List<SavingDAO.SavingDepositStats> rows = savingDAO.getSavingDepositStats(userID,
+                    DateUtils.addMonths(DateUtils.fromEpochDay(today), -lookbackMonths));
+
+            Map<Integer, List<SavingProjection>> result = new LinkedHashMap<>();
+            for (SavingDAO.SavingDepositStats row : rows) {
+                result.computeIfAbsent(row.getSaving().getUserID(), id -> new ArrayList<>())
+                        .add(project(row, today));
+            }
+
+            return ServiceResult.success(result, "Đã dự báo tiến độ cho " + result.size() + " người dùng");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+
+    // Projection of one goal as of the given day
+    SavingProjection project(SavingDAO.SavingDepositStats stats, int today) {
+        Saving saving = stats.getSaving();
+        SavingProjection projection = new SavingProjection();
+        projection.setSaving(saving);
+        projection.setDepositCount(stats.getDepositCount());
+
+        long remaining = Math.max(0, saving.getTargetAmountMinor() - saving.getCurrentAmountMinor());
+        Integer targetDay = saving.getTargetDate() != null ? DateUtils.toEpochDay(saving.getTargetDate()) : null;
+
+        // Cadence and net daily rate over the window
+        double dailyRate = 0;
+        if (stats.getDepositCount() > 0) {
+            int first = DateUtils.toEpochDay(stats.getFirstDepositDate());
+            int last = DateUtils.toEpochDay(stats.getLastDepositDate());
+            double interval = stats.getDepositCount() > 1 ? (last - first) / (stats.getDepositCount() - 1.0) : 0;
+            double cadence = interval > 0 ? interval : DEFAULT_INTERVAL_DAYS;
+            double observedDays = Math.max(today - first, last - first + cadence);
+
+            dailyRate = (stats.getDepositTotal() - stats.getWithdrawTotal()) / observedDays;
+            projection.setDepositIntervalDays(interval);
+            projection.setAverageDeposit(Money.toDouble(stats.getDepositTotal() / stats.getDepositCount()));
+        }
+        projection.setMonthlyRate(Money.toDouble(Math.round(dailyRate * DAYS_PER_MONTH)));
+
+        if (remaining == 0) {
+            projection.setProjectedCompletionDate(DateUtils.fromEpochDay(today));
+        } else if (dailyRate > 0 && remaining / dailyRate <= MAX_PROJECTION_DAYS) {
+            projection.setProjectedCompletionDate(DateUtils.fromEpochDay(today + (long) Math.ceil(remaining / dailyRate)));
+        }
+
+        // Monthly amount that reaches the target on time, a goal due or overdue needs the rest now
+        if (targetDay != null) {
+            double monthsLeft = Math.max(1, (targetDay - today) / DAYS_PER_MONTH);
+            projection.setRequiredMonthlyAmount(Money.toDouble(Math.round(remaining / monthsLeft)));
+        }
+
+        projection.setStatus(status(remaining, targetDay, today, projection));
+        return projection;
+    }
+
+    private static String status(long remaining, Integer targetDay, int today, SavingProjection projection) {
+        if (remaining == 0) return SavingProjection.STATUS_REACHED;
+        if (targetDay != null && targetDay < today) return SavingProjection.STATUS_OVERDUE;
+        if (projection.getProjectedCompletionDate() == null) return SavingProjection.STATUS_NO_PROGRESS;
+        if (targetDay == null) return SavingProjection.STATUS_ON_TRACK;
+
+        return DateUtils.toEpochDay(projection.getProjectedCompletionDate()) <= targetDay
+                ? SavingProjection.STATUS_ON_TRACK : SavingProjection.STATUS_BEHIND;
+    }
+}
@@ -0,0 +1,75 @@
+package com.expensemanager.service;
+
+import com.expensemanager.model.Saving;
+import com.expensemanager.util.CurrencyUtils;
+import java.util.Date;
+
+public class SavingProjection {
+
+    public static final String STATUS_REACHED = "REACHED";
+    public static final String STATUS_ON_TRACK = "ON_TRACK";
+    public static final String STATUS_BEHIND = "BEHIND";
+    public static final String STATUS_OVERDUE = "OVERDUE";
+    public static final String STATUS_NO_PROGRESS = "NO_PROGRESS";
+
+    private Saving saving;
+    private int depositCount;
+    private double depositIntervalDays; // 0 when fewer than 2 deposits
+    private double averageDeposit;
+    private double monthlyRate; // net saved per month at the current cadence
+    private Date projectedCompletionDate; // null when the goal is not being reached
+    private double requiredMonthlyAmount; // 0 without target date
+    private String status; // REACHED, ON_TRACK, BEHIND, OVERDUE, NO_PROGRESS
+
+    // Getters and setters
+        public Saving getSaving() { return saving; }
+        public void setSaving(Saving saving) { this.saving = saving; }
+
+        public int getDepositCount() { return depositCount; }
+        public void setDepositCount(int depositCount) { this.depositCount = depositCount; }
+
+        public double getDepositIntervalDays() { return depositIntervalDays; }
+        public void setDepositIntervalDays(double depositIntervalDays) { this.depositIntervalDays = depositIntervalDays; }
+
+        public double getAverageDeposit() { return averageDeposit; }
+        public void setAverageDeposit(double averageDeposit) { this.averageDeposit = averageDeposit; }
+
+        public double getMonthlyRate() { return monthlyRate; }
+        public void setMonthlyRate(double monthlyRate) { this.monthlyRate = monthlyRate; }
+
+        public Date getProjectedCompletionDate() { return projectedCompletionDate; }
+        public void setProjectedCompletionDate(Date projectedCompletionDate) { this.projectedCompletionDate = projectedCompletionDate; }
+
+        public double getRequiredMonthlyAmount() { return requiredMonthlyAmount; }
+        public void setRequiredMonthlyAmount(double requiredMonthlyAmount) { this.requiredMonthlyAmount = requiredMonthlyAmount; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        // Helper methods
+        public boolean isOnTrack () {
+            return STATUS_ON_TRACK.equals(status) || STATUS_REACHED.equals(status);
+        }
+
+        public double getMonthlyShortfall () {
+            return Math.max(0, requiredMonthlyAmount - monthlyRate);
+        }
+
+        public String getFormattedRequiredMonthlyAmount () {
+            return CurrencyUtils.formatCurrency(requiredMonthlyAmount);
+        }
+
+        public String getFormattedMonthlyRate () {
+            return CurrencyUtils.formatCurrency(monthlyRate);
+        }
+
+        public String getStatusText () {
+            switch (status) {
+                case STATUS_REACHED: return "Đã đủ số tiền";
+                case STATUS_ON_TRACK: return "Đúng tiến độ";
+                case STATUS_BEHIND: return "Chậm tiến độ";
+                case STATUS_OVERDUE: return "Quá hạn";
+                default: return "Chưa có tiến triển";
+            }
+        }
+}
@@ -1,23 +1,32 @@
 package com.expensemanager.service;
 
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.cache.CacheStore;
+import com.expensemanager.cache.InvalidationBus;
 import com.expensemanager.dao.*;
 import com.expensemanager.model.*;
 import com.expensemanager.util.DateUtils;
 import com.expensemanager.util.CurrencyUtils;
+import com.expensemanager.util.Money;
 import java.util.*;
 
 public class SavingService {
     
+    // Goals due within this many days and under 75% done need attention
+    private static final int ATTENTION_DEADLINE_DAYS = 30;
+    
     private final DAOFactory daoFactory;
     private final SavingDAO savingDAO;
     private final SavingTransactionDAO savingTransactionDAO;
     private final UserDAO userDAO;
+    private final CacheManager cacheManager;
     
     public SavingService() {
         this.daoFactory = DAOFactory.getInstance();
         this.savingDAO = daoFactory.getSavingDAO();
         this.savingTransactionDAO = daoFactory.getSavingTransactionDAO();
         this.userDAO = daoFactory.getUserDAO();
+        this.cacheManager = CacheManager.getInstance();
     }
 
     
@@ -33,11 +42,8 @@ public class SavingService {
             }
             
             // Check if saving name already exists for this user
-            List<Saving> existingSavings = savingDAO.getSavingsByUser(userID);
-            for (Saving saving : existingSavings) {
-                if (saving.getSavingName().equalsIgnoreCase(savingName.trim())) {
-                    return ServiceResult.error("Mục tiêu tiết kiệm '" + savingName + "' đã tồn tại");
-                }
+            if (savingDAO.savingNameExists(userID, savingName.trim(), 0)) {
+                return ServiceResult.error("Mục tiêu tiết kiệm '" + savingName + "' đã tồn tại");
             }
             
             // Create saving object
@@ -56,6 +62,7 @@ public class SavingService {
             boolean created = savingDAO.createSaving(saving);
             
             if (created) {
+                invalidateCache(userID);
                 return ServiceResult.success(saving, "Mục tiêu tiết kiệm đã được tạo thành công");
             } else {
                 return ServiceResult.error("Không thể tạo mục tiết kiệm");
@@ -98,12 +105,8 @@ public class SavingService {
             }
             
             // Check if new name conflicts with existing savings (except current one)
-            List<Saving> existingSavings = savingDAO.getSavingsByUser(saving.getUserID());
-            for (Saving s : existingSavings) {
-                if (s.getSavingID() != saving.getSavingID() &&
-                    s.getSavingName().equalsIgnoreCase(saving.getSavingName().trim())) {
-                    return ServiceResult.error("Mục tiêu tiết kiệm '" + saving.getSavingName() + "' đã tồn tại");
-                }
+            if (savingDAO.savingNameExists(saving.getUserID(), saving.getSavingName().trim(), saving.getSavingID())) {
+                return ServiceResult.error("Mục tiêu tiết kiệm '" + saving.getSavingName() + "' đã tồn tại");
             }
             
             // Preserve current amount and completion status
@@ -121,6 +124,7 @@ public class SavingService {
             boolean updated = savingDAO.updateSaving(saving);
             
             if (updated) {
+                invalidateCache(saving.getUserID());
                 return ServiceResult.success(saving, "Mục tiêu tiết kiệm đã được cập nhật");
             } else {
                 return ServiceResult.error("Không thể cập nhật mục tiêu tiết kiệm");
@@ -153,6 +157,7 @@ public class SavingService {
             boolean deleted = savingDAO.deleteSaving(savingID);
             
             if (deleted) {
+                invalidateCache(userID);
                 return ServiceResult.success("Mục tiêu tiết kiệm đã được xóa");
             } else {
                 return ServiceResult.error("Không thể xóa mục tiêu tiết kiệm");
@@ -174,53 +179,21 @@ public class SavingService {
                 return ServiceResult.error("Số tiền gửi quá lớn");
             }
             
-            // Check if saving exists and belongs to user
-            Saving saving = savingDAO.getSavingById(savingID);
-            if (saving == null) {
-                return ServiceResult.error("Không tìm thấy mục tiêu tiết kiệm");
-            }
-            
-            if (saving.getUserID() != userID) {
-                return ServiceResult.error("Bạn không có quyền thêm tiền vào mục tiêu này");
+            // Balance, completion and the transaction row change in one atomic call
+            String note = description != null ? description.trim() : "Gửi tiền tiết kiệm";
+            SavingDAO.SavingProgress progress = savingDAO.updateSavingProgress(savingID, userID, "DEPOSIT", Money.toMinor(amount), note);
+            if (progress == null) {
+                return ServiceResult.error(explainRefusedChange(savingID, userID, "DEPOSIT", amount));
             }
             
-            if (saving.isIsCompleted()) {
-                return ServiceResult.error("Mục tiêu tiết kiệm đã hoàn thành , không thể thêm tiền");
+            SavingTransaction transaction = toSavingTransaction(savingID, "DEPOSIT", amount, note, progress);
+            invalidateCache(userID);
+            String message = "Đã gửi " + CurrencyUtils.formatCurrency(amount) + " vào mục tiêu tiết kiệm";
+            if (progress.isCompleted()) {
+                message += ". 🎉 Chúc mừng! Bạn đã hoàn thành mục tiêu tiết kiệm!";
             }
             
-            // Create saving transaction
-            SavingTransaction transaction = new SavingTransaction();
-            transaction.setSavingID(savingID);
-            transaction.setAmount(amount);
-            transaction.setTransactionType("DEPOSIT");
-            transaction.setDescription(description != null ? description.trim(): "Gửi tiền tiết kiệm");
-            transaction.setTransactionDate(new Date());
-            transaction.setCreatedDate(new Date());
-            
-            // Add transaction
-            boolean created = savingTransactionDAO.createSavingTransaction(transaction);
-            
-            if (created) {
-                // Update saving current amount
-                double newCurrentAmount = saving.getCurrentAmount() + amount;
-                saving.setCurrentAmount(newCurrentAmount);
-                
-                // Check if goal is completed
-                if (newCurrentAmount >= saving.getTargetAmount() && !saving.isIsCompleted()) {
-                    saving.setIsCompleted(true);
-                    saving.setCompletedDate(new Date());
-                }
-                
-                savingDAO.updateSaving(saving);
-                String message = "Đã gửi " + CurrencyUtils.formatCurrency(amount) + " vào mục tiêu tiết kiệm";
-                if (saving.isIsCompleted()) {
-                    message += ". 🎉 Chúc mừng! Bạn đã hoàn thành mục tiêu tiết kiệm!";
-                }
-                
-                return ServiceResult.success(transaction, message);
-            } else {
-                return ServiceResult.error("Không thê gửi tiền vào mục tiêu tiết kiệm");
-            }
+            return ServiceResult.success(transaction, message);
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
@@ -234,47 +207,18 @@ public class SavingService {
                 return ServiceResult.error("Số tiền rút phải lớn hơn 0");
             }
             
-            // Check if saving exists and belongs to user
-            Saving saving = savingDAO.getSavingById(savingID);
-            if (saving == null) {
-                return ServiceResult.error("Không tìm thấy mục tiêu tiết kiệm");
-            }
-            
-            // Check if sufficient funds
-            if (saving.getUserID() != userID) {
-                return ServiceResult.error("Số dư không đủ. Số dư hiện tại: " + CurrencyUtils.formatCurrency(saving.getCurrentAmount()));
+            // The balance only goes down when it covers the amount, checked in the same atomic call
+            String note = description != null ? description.trim() : "Rút tiền tiết kiệm";
+            SavingDAO.SavingProgress progress = savingDAO.updateSavingProgress(savingID, userID, "WITHDRAW", Money.toMinor(amount), note);
+            if (progress == null) {
+                return ServiceResult.error(explainRefusedChange(savingID, userID, "WITHDRAW", amount));
             }
             
-            // Create saving transaction
-            SavingTransaction transaction = new SavingTransaction();
-            transaction.setSavingID(savingID);
-            transaction.setAmount(amount);
-            transaction.setTransactionType("WITHDRAW");
-            transaction.setDescription(description != null ? description.trim() : "Rút tiền tiết kiệm");
-            transaction.setTransactionDate(new Date());
-            transaction.setCreatedDate(new Date());
+            SavingTransaction transaction = toSavingTransaction(savingID, "WITHDRAW", amount, note, progress);
+            invalidateCache(userID);
             
-            // Add transaction
-            boolean created = savingTransactionDAO.createSavingTransaction(transaction);
-            
-            if (created) {
-                // Update saving current amount
-                double newCurrentAmount = saving.getCurrentAmount() - amount;
-                saving.setCurrentAmount(newCurrentAmount);
-                
-                // If was completed but now below target, mark as incomplete
-                if (saving.isIsCompleted() && newCurrentAmount < saving.getTargetAmount()) {
-                    saving.setIsCompleted(false);
-                    saving.setCompletedDate(null);
-                }
-                
-                savingDAO.updateSaving(saving);
-                
-                return ServiceResult.success(transaction, 
-                    "Đã rút " + CurrencyUtils.formatCurrency(amount) + " từ mục tiêu tiết kiệm");
-            } else {
-                return ServiceResult.error("Không thể rút tiền từ mục tiêu tiết kiệm");
-            }
+            return ServiceResult.success(transaction, 
+                "Đã rút " + CurrencyUtils.formatCurrency(amount) + " từ mục tiêu tiết kiệm");
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
@@ -283,6 +227,11 @@ public class SavingService {
     // Get all savings for a user
     public ServiceResult<List<Saving>> getUserSavings (int userID) {
         try {
+            List<Saving> cached = cacheManager.getSavings().get(CacheStore.key(userID));
+            if (cached != null) {
+                return ServiceResult.success(new ArrayList<>(cached), "Lấy danh sách mục tiêu tiết kiệm thành công");
+            }
+            
             List<Saving> savings = savingDAO.getSavingsByUser(userID);
             
             // Sort by priority (high to low) and then by creation date (newest first)
@@ -293,6 +242,7 @@ public class SavingService {
                 return s2.getCreatedDate().compareTo(s1.getCreatedDate());
             });
             
+            cacheManager.getSavings().put(CacheStore.key(userID), new ArrayList<>(savings));
             return ServiceResult.success(savings, "Lấy danh sách mục tiêu tiết kiệm thành công");
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
@@ -302,27 +252,8 @@ public class SavingService {
     // Get active (incomplete) savings for a user
     public ServiceResult<List<Saving>> getActiveSavings (int userID) {
         try {
-            List<Saving> allSavings = savingDAO.getSavingsByUser(userID);
-            List<Saving> activeSavings = new ArrayList<>();
-            
-            for (Saving saving : allSavings) {
-                if (!saving.isIsCompleted()) {
-                    activeSavings.add(saving);
-                }
-            }
-            
-            // Sort by priority and target date
-            activeSavings.sort((s1, s2) -> {
-                // First by priority (high to low)
-                int priorityCompare = Integer.compare(s2.getPriority(), s1.getPriority());
-                if (priorityCompare != 0) return priorityCompare;
-                
-                // Then by target date (closest first)
-                if (s1.getTargetDate() == null && s2.getTargetDate() == null) return 0;
-                if (s1.getTargetDate() == null) return 1;
-                if (s2.getTargetDate() == null) return -1;
-                return s1.getTargetDate().compareTo(s2.getTargetDate());
-            });
+            // Sorted by priority (high to low), then target date (closest first, none last)
+            List<Saving> activeSavings = savingDAO.getActiveSavings(userID);
             
             return ServiceResult.success(activeSavings, "Lấy danh sách mục tiêu tiết kiệm đang hoạt động thành công");
         } catch (Exception e) {
@@ -350,46 +281,46 @@ public class SavingService {
         }
     }
     
-    // Get saving progress summary
-    public ServiceResult<SavingProgressSummary> getSavingProgressSummary (int userID) {
+    // Projected completion date and required monthly amount of each active goal, from its deposit cadence
+    public ServiceResult<List<SavingProjection>> getSavingProjections (int userID) {
+        return new SavingGoalProjector().projectForUser(userID);
+    }
+    
+    // Probability of reaching the goal by its target date, simulated from the user's income and expense history
+    public ServiceResult<GoalSimulation> simulateGoalReachability (int savingID, int userID) {
         try {
-            List<Saving> savings = savingDAO.getSavingsByUser(userID);
-            
-            SavingProgressSummary summary = new SavingProgressSummary();
-            summary.setTotalSavings(savings.size());
-            
-            double totalTargetAmount = 0;
-            double totalCurrentAmount = 0;
-            int completedCount = 0;
-            int highPriority = 0;
-            int overdueSavings = 0;
+            Saving saving = savingDAO.getSavingById(savingID);
+            if (saving == null) {
+                return ServiceResult.error("Không tìm thấy mục tiêu tiết kiệm");
+            }
             
-            Date today = new Date();
+            if (saving.getUserID() != userID) {
+                return ServiceResult.error("Bạn không có quyền xem mục tiêu này");
+            }
             
-            for (Saving saving : savings) {
-                totalTargetAmount += saving.getTargetAmount();
-                totalCurrentAmount += saving.getCurrentAmount();
-                
-                if (saving.isIsCompleted()) {
-                    completedCount++;
-                }
-                
-                if (saving.getPriority() >= 4) { // High priority (4-5)
-                    highPriority++;
-                }
-                
-                // Check if overdue
-                if (!saving.isIsCompleted() && saving.getTargetDate() != null && saving.getTargetDate().before(today)) {
-                    overdueSavings++;
-                }
+            return new GoalReachabilitySimulator().simulate(saving, GoalReachabilitySimulator.DEFAULT_PATHS);
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Get saving progress summary
+    public ServiceResult<SavingProgressSummary> getSavingProgressSummary (int userID) {
+        try {
+            // Sums and counts come from one aggregate query
+            SavingDAO.SavingSummary totals = savingDAO.getSavingSummary(userID);
+            if (totals == null) {
+                return ServiceResult.error("Không thể lấy tổng hợp tiến độ tiết kiệm");
             }
             
-            summary.setTotalTargetAmount(totalTargetAmount);
-            summary.setTotalCurrentAmount(totalCurrentAmount);
-            summary.setCompletedCount(completedCount);
-            summary.setActiveCount(savings.size() - completedCount);
-            summary.setHighPriorityCount(highPriority);
-            summary.setOverdueCount(overdueSavings);
+            SavingProgressSummary summary = new SavingProgressSummary();
+            summary.setTotalSavings(totals.getTotalSavings());
+            summary.setTotalTargetAmount(totals.getTotalTargetAmount());
+            summary.setTotalCurrentAmount(totals.getTotalCurrentAmount());
+            summary.setCompletedCount(totals.getCompletedSavings());
+            summary.setActiveCount(totals.getActiveSavings());
+            summary.setHighPriorityCount(totals.getHighPrioritySavings());
+            summary.setOverdueCount(totals.getOverdueSavings());
             
             return ServiceResult.success(summary, "Lấy tổng hợp tiến độ tiết kiệm thành công");
         } catch (Exception e) {
@@ -400,46 +331,46 @@ public class SavingService {
     // Get savings that need attetion (overdue or high priority with low progress)
     public ServiceResult<List<Saving>> getSavingsNeedingAttention (int userID) {
         try {
-            List<Saving> allSavings = savingDAO.getSavingsByUser(userID);
-            List<Saving> needAttention = new ArrayList<>();
-            
-            Date today = new Date();
-            
-            for (Saving saving : allSavings) {
-                if (saving.isIsCompleted()) continue;
-                
-                boolean needsAttention = false;
-                
-                // Overdue savings
-                if (saving.getTargetDate() != null && saving.getTargetDate().before(today)) {
-                    needsAttention = true;
-                }
-                
-                // High priority savings with low progress
-                if (saving.getPriority() >= 4 && saving.getCompletionPercentage() < 25) {
-                    needsAttention = true;
-                }
-                
-                // Savings with target date in next 30 days but low progress
-                if (saving.getTargetDate() != null) {
-                    long daysUntilTarget = (saving.getTargetDate().getTime() - today.getTime()) / (1000 * 60 * 60 * 24);
-                    if (daysUntilTarget > 0 && daysUntilTarget <= 30 && saving.getCompletionPercentage() < 75) {
-                        needsAttention = true;
-                    }
-                }
-                
-                if (needsAttention) {
-                    needAttention.add(saving);
-                }
-            }
-            
-            // Sort by urgency (overdue first, then by target date)
-            
+            // Overdue, high priority with low progress, or close to the target date with low progress
+            List<Saving> needAttention = savingDAO.getSavingsNeedingAttention(userID, new Date(), ATTENTION_DEADLINE_DAYS);
+            return ServiceResult.success(needAttention, "Lấy danh sách mục tiêu tiết kiệm cần chú ý thành công");
         } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
     
     // Private helper methods
+    
+    // Transaction recorded by a deposit or withdrawal
+    private SavingTransaction toSavingTransaction (int savingID, String transactionType, double amount, String description,
+                                                  SavingDAO.SavingProgress progress) {
+        SavingTransaction transaction = new SavingTransaction(savingID, amount, transactionType, description);
+        transaction.setSavingTransactionID(progress.getSavingTransactionID());
+        return transaction;
+    }
+    
+    // Reason a deposit or withdrawal was refused, only read once the atomic update changed nothing
+    private String explainRefusedChange (int savingID, int userID, String transactionType, double amount) {
+        boolean deposit = "DEPOSIT".equals(transactionType);
+        Saving saving = savingDAO.getSavingById(savingID);
+        if (saving == null) {
+            return "Không tìm thấy mục tiêu tiết kiệm";
+        }
+        
+        if (saving.getUserID() != userID) {
+            return deposit ? "Bạn không có quyền thêm tiền vào mục tiêu này" : "Bạn không có quyền rút tiền từ mục tiêu này";
+        }
+        
+        if (deposit && saving.isIsCompleted()) {
+            return "Mục tiêu tiết kiệm đã hoàn thành , không thể thêm tiền";
+        }
+        
+        if (!deposit && saving.getCurrentAmountMinor() < Money.toMinor(amount)) {
+            return "Số dư không đủ. Số dư hiện tại: " + CurrencyUtils.formatCurrency(saving.getCurrentAmount());
+        }
+        
+        return deposit ? "Không thể gửi tiền vào mục tiêu tiết kiệm" : "Không thể rút tiền từ mục tiêu tiết kiệm";
+    }
     private ServiceResult<Void> validateSavingData(int userID, String savingName, String description, 
                                                  double targetAmount, Date targetDate, int priority) {
         // Check user exists
@@ -494,6 +425,11 @@ public class SavingService {
         return ServiceResult.success("Dữ liệu hợp lệ");
     }
     
+    // Saving changes affect cached saving lists and dashboard progress
+    private void invalidateCache (int userID) {
+        cacheManager.invalidate(userID, InvalidationBus.REGION_SAVINGS, InvalidationBus.REGION_DASHBOARDS);
+    }
+    
     // Inner class for saving progress summary data
     public static class SavingProgressSummary {
         private int totalSavings;
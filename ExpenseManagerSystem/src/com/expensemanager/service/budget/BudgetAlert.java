@@ -0,0 +1,64 @@
+package com.expensemanager.service.budget;
+
+import com.expensemanager.model.Budget;
+import com.expensemanager.util.CurrencyUtils;
+import java.util.Date;
+
+/**
+ * A budget that has just reached its alert threshold (WARNING) or gone over its amount (EXCEED).
+ * Values are a snapshot taken when the alert was raised.
+ */
+public class BudgetAlert {
+
+    private final int userID;
+    private final int budgetID;
+    private final int categoryID;
+    private final String categoryName;
+    private final int month;
+    private final int year;
+    private final String status; // WARNING, EXCEED
+    private final double budgetAmount;
+    private final double currentSpent;
+    private final double usedPercentage;
+    private final Date raisedDate;
+
+    public BudgetAlert(Budget budget, String status) {
+        this.userID = budget.getUserID();
+        this.budgetID = budget.getBudgetID();
+        this.categoryID = budget.getCategoryID();
+        this.categoryName = budget.getCategoryName();
+        this.month = budget.getMonth();
+        this.year = budget.getYear();
+        this.status = status;
+        this.budgetAmount = budget.getBudgetAmount();
+        this.currentSpent = budget.getCurrentSpent();
+        this.usedPercentage = budget.getUsedPercentage();
+        this.raisedDate = new Date();
+    }
+
+    // Getters
+        public int getUserID() { return userID; }
+        public int getBudgetID() { return budgetID; }
+        public int getCategoryID() { return categoryID; }
+        public String getCategoryName() { return categoryName; }
+        public int getMonth() { return month; }
+        public int getYear() { return year; }
+        public String getStatus() { return status; }
+        public double getBudgetAmount() { return budgetAmount; }
+        public double getCurrentSpent() { return currentSpent; }
+        public double getUsedPercentage() { return usedPercentage; }
+        public Date getRaisedDate() { return raisedDate; }
+
+        // Helper methods
+        public boolean isExceeded () {
+            return "EXCEED".equals(status);
+        }
+
+        public String getMessage () {
+            if (isExceeded()) {
+                return "Ngân sách " + categoryName + " đã vượt mức: " + CurrencyUtils.formatCurrency(currentSpent)
+                        + " / " + CurrencyUtils.formatCurrency(budgetAmount);
+            }
+            return "Ngân sách " + categoryName + " đã dùng " + String.format("%.0f", usedPercentage) + "%";
+        }
+}
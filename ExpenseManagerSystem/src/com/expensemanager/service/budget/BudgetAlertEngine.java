@@ -0,0 +1,352 @@
+package com.expensemanager.service.budget;
+
+import com.expensemanager.cache.InvalidationBus;
+import com.expensemanager.dao.BudgetDAO;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.TransactionChangeListener;
+import com.expensemanager.model.Budget;
+import com.expensemanager.model.Transaction;
+import com.expensemanager.util.DateUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Raises budget alerts as transactions are written instead of when the alert list is opened.
+ *
+ * The current month's budgets of a user are loaded once on the engine's loader thread and then
+ * kept in memory until logout (evict). Loading is queued at login (prime) and again by any write
+ * or drain of a user who is not tracked, so a missed login or a failed load only delays tracking
+ * until the user's next write. Each expense write adds its amount to the budget of its
+ * category and compares the new status with the highest one already alerted, without touching
+ * the database. Crossing into WARNING or EXCEED puts one BudgetAlert on the user's bounded queue;
+ * a budget alerts at most once per level. Budget changes reload the user's budgets in the
+ * background, keeping the levels already alerted.
+ *
+ * The queue is drained by TransactionService, which reports the alerts raised by a write in
+ * the result of that write, and by BudgetService.getBudgetAlerts, which shows every alert anyway.
+ *
+ * Each write is bracketed with beginWrite/endWrite (DAOFactory.fireBeginWrite). A load only publishes what it
+ * read when no write of the user was in flight during the read, so a write is either in the loaded
+ * spent amounts or applied to them afterwards, never both.
+ */
+public class BudgetAlertEngine implements TransactionChangeListener {
+
+    private static final int QUEUE_CAPACITY = 100;
+    private static final int MAX_LOAD_ATTEMPTS = 5;
+    // Wait between load attempts while a write of the user is in flight
+    private static final long LOAD_RETRY_MILLIS = 20;
+
+    private static BudgetAlertEngine instance;
+
+    private final BudgetDAO budgetDAO;
+    // Every user being written or tracked, entries of users not tracked go away when idle
+    private final Map<Integer, UserState> users = new ConcurrentHashMap<>();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final ExecutorService loader;
+    // Users with a load queued on the loader and not started yet
+    private final Set<Integer> queuedLoads = ConcurrentHashMap.newKeySet();
+
+    // Budget changes (here or on other instances) reload the user's budgets if they are tracked
+    private final IntConsumer budgetChangeHandler = userID -> {
+        UserState state = users.get(userID);
+        if (state != null && state.isTracked()) {
+            queueLoad(userID);
+        }
+    };
+
+    private BudgetAlertEngine() {
+        this.budgetDAO = DAOFactory.getInstance().getBudgetDAO();
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "budget-alert-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized BudgetAlertEngine getInstance() {
+        if (instance == null) {
+            instance = new BudgetAlertEngine();
+            DAOFactory.getInstance().addTransactionChangeListener(instance);
+            InvalidationBus.getInstance().subscribe(InvalidationBus.REGION_BUDGETS, instance.budgetChangeHandler);
+        }
+        return instance;
+    }
+
+    // Queue loading the user's budgets of the current month, called at login
+    public void prime(int userID) {
+        queueLoad(userID);
+    }
+
+    // Stop tracking the user and drop the alerts not consumed, called at logout
+    public void evict(int userID) {
+        // A load queued and not started is dropped
+        queuedLoads.remove(userID);
+        UserState state = users.get(userID);
+        if (state == null) return;
+
+        synchronized (state) {
+            state.budgets = null;
+            state.alerts.clear();
+            // A load still running must not track the user again
+            state.writeEpoch++;
+            state.removeIfIdle(users, userID);
+        }
+    }
+
+    @Override
+    public void beginWrite(int userID) {
+        boolean tracked;
+        while (true) {
+            UserState state = users.computeIfAbsent(userID, id -> new UserState());
+            synchronized (state) {
+                // The entry may have been removed while idle, use the current one
+                if (users.get(userID) != state) continue;
+                state.writesInFlight++;
+                state.writeEpoch++;
+                tracked = state.isTracked();
+                break;
+            }
+        }
+        // This write is not tracked, the load waits for it to finish and tracks the next ones
+        if (!tracked) queueLoad(userID);
+    }
+
+    @Override
+    public void endWrite(int userID) {
+        UserState state = users.get(userID);
+        if (state == null) return;
+
+        synchronized (state) {
+            state.writesInFlight = Math.max(0, state.writesInFlight - 1);
+            state.removeIfIdle(users, userID);
+        }
+    }
+
+    // Alerts raised for the user and not consumed yet, oldest first
+    public List<BudgetAlert> drainAlerts(int userID) {
+        List<BudgetAlert> drained = new ArrayList<>();
+        UserState state = users.get(userID);
+        boolean tracked = false;
+        if (state != null) {
+            synchronized (state) {
+                drained.addAll(state.alerts);
+                state.alerts.clear();
+                tracked = state.isTracked();
+                state.removeIfIdle(users, userID);
+            }
+        }
+        if (!tracked) queueLoad(userID);
+        return drained;
+    }
+
+    // Alerts dropped because the user's queue was full
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void transactionCreated(Transaction transaction) {
+        apply(transaction, transaction.getAmountMinor());
+    }
+
+    @Override
+    public void transactionUpdated(Transaction before, Transaction after) {
+        apply(before, -before.getAmountMinor());
+        apply(after, after.getAmountMinor());
+    }
+
+    @Override
+    public void transactionDeleted(Transaction transaction) {
+        apply(transaction, -transaction.getAmountMinor());
+    }
+
+    private void apply(Transaction transaction, long delta) {
+        if (!"EXPENSE".equals(transaction.getTransactionType())) return;
+
+        UserState state = users.get(transaction.getUserID());
+        if (state == null) return;
+
+        synchronized (state) {
+            UserBudgets tracked = state.budgets;
+            if (tracked == null) return;
+
+            int monthIndex = monthIndex(transaction.getTransactionDate());
+            if (monthIndex != tracked.monthIndex) {
+                // A write in a new month means the tracked month is over
+                if (monthIndex > tracked.monthIndex && monthIndex == currentMonthIndex()) {
+                    queueLoad(transaction.getUserID());
+                }
+                return;
+            }
+
+            TrackedBudget budget = tracked.byCategory.get(transaction.getCategoryID());
+            if (budget == null) return;
+
+            budget.budget.setCurrentSpentMinor(budget.budget.getCurrentSpentMinor() + delta);
+            check(state, budget);
+        }
+    }
+
+    // Raise an alert when the status is above every level alerted so far, caller holds the state lock
+    private void check(UserState state, TrackedBudget tracked) {
+        String status = tracked.budget.calculateStatus();
+        int level = level(status);
+        if (level <= tracked.alertedLevel) return;
+
+        tracked.alertedLevel = level;
+        if (state.alerts.size() >= QUEUE_CAPACITY) {
+            // Full queue, the oldest alert gives way
+            state.alerts.pollFirst();
+            droppedCount.incrementAndGet();
+        }
+        state.alerts.addLast(new BudgetAlert(tracked.budget, status));
+    }
+
+    // Load or reload the user's budgets on the loader, a load already queued and not started covers it
+    private void queueLoad(int userID) {
+        if (!queuedLoads.add(userID)) return;
+
+        loader.execute(() -> {
+            // Removed before reading, a change after this point queues another load;
+            // already removed when the user was evicted in the meantime
+            if (!queuedLoads.remove(userID)) return;
+            if (!load(userID)) {
+                // Better no alerts than alerts from budgets that may be out of date; the user's
+                // next write or drain queues a new load
+                System.err.println("Budget alerts paused for user " + userID + ": budgets could not be loaded");
+                evict(userID);
+            }
+        });
+    }
+
+    // Read and publish the user's budgets, nothing is published when every attempt overlapped a write
+    private boolean load(int userID) {
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            if (attempt > 0 && !pause(attempt)) return false;
+
+            UserState state = users.computeIfAbsent(userID, id -> new UserState());
+            long epoch;
+            synchronized (state) {
+                if (users.get(userID) != state || state.writesInFlight > 0) continue;
+                epoch = state.writeEpoch;
+                state.loads++;
+            }
+
+            UserBudgets loaded;
+            try {
+                int month = DateUtils.getCurrentMonth();
+                int year = DateUtils.getCurrentYear();
+                List<Budget> budgets = budgetDAO.getBudgetsByUserAndPeriod(userID, month, year);
+
+                loaded = new UserBudgets(year * 12 + month - 1);
+                for (Budget budget : budgets) {
+                    loaded.byCategory.put(budget.getCategoryID(), new TrackedBudget(budget));
+                }
+            } finally {
+                synchronized (state) {
+                    state.loads--;
+                }
+            }
+
+            synchronized (state) {
+                if (users.get(userID) != state || state.writeEpoch != epoch) {
+                    // A write started during the read, it may or may not be in what was read
+                    state.removeIfIdle(users, userID);
+                    continue;
+                }
+
+                UserBudgets previous = state.budgets;
+                state.budgets = loaded;
+                if (previous != null && previous.monthIndex == loaded.monthIndex) {
+                    for (TrackedBudget budget : loaded.byCategory.values()) {
+                        TrackedBudget known = previous.byCategory.get(budget.budget.getCategoryID());
+                        if (known != null && known.budget.getBudgetID() == budget.budget.getBudgetID()) {
+                            // Keep what was alerted, a changed amount or threshold may raise a new alert
+                            budget.alertedLevel = known.alertedLevel;
+                            check(state, budget);
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean pause(int attempt) {
+        try {
+            Thread.sleep(LOAD_RETRY_MILLIS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int level(String status) {
+        switch (status) {
+            case "EXCEED": return 2;
+            case "WARNING": return 1;
+            default: return 0;
+        }
+    }
+
+    private static int monthIndex(java.util.Date date) {
+        return DateUtils.getYear(date) * 12 + DateUtils.getMonth(date) - 1;
+    }
+
+    private static int currentMonthIndex() {
+        return DateUtils.getCurrentYear() * 12 + DateUtils.getCurrentMonth() - 1;
+    }
+
+    // Write bookkeeping, tracked budgets and pending alerts of one user, guarded by its own lock
+    private static class UserState {
+        private int writesInFlight;
+        // Bumped when a write begins, a load that overlaps one is not published
+        private long writeEpoch;
+        private int loads;
+        private UserBudgets budgets;
+        private final ArrayDeque<BudgetAlert> alerts = new ArrayDeque<>();
+
+        boolean isTracked() {
+            return budgets != null;
+        }
+
+        // Drop the entry once nothing refers to it any more, caller holds the lock
+        void removeIfIdle(Map<Integer, UserState> users, int userID) {
+            if (budgets == null && writesInFlight == 0 && loads == 0 && alerts.isEmpty()) {
+                users.remove(userID, this);
+            }
+        }
+    }
+
+    // Budgets of one user for one month, keyed by category
+    private static class UserBudgets {
+        private final int monthIndex;
+        private final Map<Integer, TrackedBudget> byCategory = new HashMap<>();
+
+        UserBudgets(int monthIndex) {
+            this.monthIndex = monthIndex;
+        }
+    }
+
+    private static class TrackedBudget {
+        private final Budget budget;
+        // Highest level alerted, a budget loaded in a state is not alerted for it again
+        private int alertedLevel;
+
+        TrackedBudget(Budget budget) {
+            this.budget = budget;
+            this.alertedLevel = level(budget.calculateStatus());
+        }
+    }
+}
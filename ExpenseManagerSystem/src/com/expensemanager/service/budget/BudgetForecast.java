@@ -0,0 +1,47 @@
+package com.expensemanager.service.budget;
+
+import com.expensemanager.model.Budget;
+import com.expensemanager.util.CurrencyUtils;
+
+public class BudgetForecast {
+
+    public static final String STATUS_PROJECTED_EXCEED = "PROJECTED_EXCEED";
+
+    private Budget budget;
+    private double projectedSpent;
+    private String status; // OK, WARNING, PROJECTED_EXCEED, EXCEED
+
+    public BudgetForecast(Budget budget, double projectedSpent, String status) {
+        this.budget = budget;
+        this.projectedSpent = projectedSpent;
+        this.status = status;
+    }
+
+    // Getters and setters
+        public Budget getBudget() { return budget; }
+        public void setBudget(Budget budget) { this.budget = budget; }
+
+        public double getProjectedSpent() { return projectedSpent; }
+        public void setProjectedSpent(double projectedSpent) { this.projectedSpent = projectedSpent; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        // Helper methods
+        public boolean isProjectedToExceed () {
+            return STATUS_PROJECTED_EXCEED.equals(status);
+        }
+
+        public double getProjectedOverrun () {
+            return Math.max(0, projectedSpent - budget.getBudgetAmount());
+        }
+
+        public double getProjectedUsagePercentage () {
+            if (budget.getBudgetAmount() == 0) return 0;
+            return (projectedSpent / budget.getBudgetAmount()) * 100;
+        }
+
+        public String getFormattedProjectedSpent () {
+            return CurrencyUtils.formatCurrency(projectedSpent);
+        }
+}
@@ -0,0 +1,114 @@
+package com.expensemanager.service.budget;
+
+import com.expensemanager.dao.BudgetDAO;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.model.Budget;
+import com.expensemanager.service.ServiceResult;
+import com.expensemanager.util.DateUtils;
+import com.expensemanager.util.Money;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projects month-end spend for budgets and flags the ones on track to exceed.
+ *
+ * The remaining spend of the month is estimated two ways and averaged:
+ * - pace: the month's spend so far continued at the same daily rate
+ * - seasonality: what was spent after the same day of month in the previous 3 months
+ *   and the same month last year, per month with spending
+ * Without history only the pace is used. All inputs come from one grouped query
+ * (BudgetDAO.getForecastInputs), so a run over every user's budgets is a single pass.
+ */
+public class BudgetForecaster {
+
+    private final BudgetDAO budgetDAO;
+
+    public BudgetForecaster() {
+        this.budgetDAO = DAOFactory.getInstance().getBudgetDAO();
+    }
+
+    // Forecast the budgets of one user for the current month
+    public ServiceResult<List<BudgetForecast>> forecastUser(int userID) {
+        if (userID <= 0) {
+            return ServiceResult.error("Người dùng không hợp lệ");
+        }
+        return forecast(userID, DateUtils.getCurrentMonth(), DateUtils.getCurrentYear());
+    }
+
+    // Forecast the budgets of every user for a month
+    public ServiceResult<List<BudgetForecast>> forecastAll(int month, int year) {
+        return forecast(0, month, year);
+    }
+
+    private ServiceResult<List<BudgetForecast>> forecast(int userID, int month, int year) {
+        if (month < 1 || month > 12) {
+            return ServiceResult.error("Tháng không hợp lệ");
+        }
+
+        try {
+            YearMonth period = YearMonth.of(year, month);
+            int daysInMonth = period.lengthOfMonth();
+            int elapsedDays = getElapsedDays(period, LocalDate.now());
+
+            List<BudgetDAO.ForecastInput> inputs = budgetDAO.getForecastInputs(userID, month, year, elapsedDays);
+            List<BudgetForecast> forecasts = new ArrayList<>(inputs.size());
+            int projectedCount = 0;
+
+            for (BudgetDAO.ForecastInput input : inputs) {
+                long projected = projectSpent(input, elapsedDays, daysInMonth);
+                BudgetForecast forecast = new BudgetForecast(input.getBudget(), Money.toDouble(projected),
+                        getStatus(input.getBudget(), projected));
+                if (forecast.isProjectedToExceed()) {
+                    projectedCount++;
+                }
+                forecasts.add(forecast);
+            }
+
+            return ServiceResult.success(forecasts, "Dự báo " + forecasts.size() + " ngân sách, "
+                    + projectedCount + " ngân sách có khả năng vượt mức");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+
+    // Projected month-end spend in minor units
+    static long projectSpent(BudgetDAO.ForecastInput input, int elapsedDays, int daysInMonth) {
+        long currentSpent = input.getBudget().getCurrentSpentMinor();
+        int historyMonths = input.getHistoryMonths();
+        long seasonalTotal = historyMonths > 0 ? input.getHistoryTotal() / historyMonths : 0;
+
+        if (elapsedDays <= 0) {
+            // Month not started, the history is all there is
+            return seasonalTotal;
+        }
+        if (elapsedDays >= daysInMonth) {
+            return currentSpent;
+        }
+
+        long paceRemaining = currentSpent * (daysInMonth - elapsedDays) / elapsedDays;
+        if (historyMonths == 0) {
+            return currentSpent + paceRemaining;
+        }
+
+        long seasonalRemaining = (input.getHistoryTotal() - input.getHistoryToDate()) / historyMonths;
+        return currentSpent + (paceRemaining + seasonalRemaining) / 2;
+    }
+
+    private String getStatus(Budget budget, long projected) {
+        String current = budget.calculateStatus();
+        if (!"EXCEED".equals(current) && projected > budget.getBudgetAmountMinor()) {
+            return BudgetForecast.STATUS_PROJECTED_EXCEED;
+        }
+        return current;
+    }
+
+    // Days of the period already behind us, counting today
+    private int getElapsedDays(YearMonth period, LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        if (period.isBefore(current)) return period.lengthOfMonth();
+        if (period.isAfter(current)) return 0;
+        return today.getDayOfMonth();
+    }
+}
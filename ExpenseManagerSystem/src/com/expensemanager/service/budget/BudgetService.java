@@ -1,26 +1,34 @@
 package com.expensemanager.service.budget;
 
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.cache.CacheStore;
+import com.expensemanager.cache.InvalidationBus;
 import com.expensemanager.dao.*;
 import com.expensemanager.model.*;
 import com.expensemanager.service.ServiceResult;
 import com.expensemanager.util.DateUtils;
 import com.expensemanager.util.CurrencyUtils;
+import com.expensemanager.util.Money;
 import java.util.*;
 
 public class BudgetService {
-   
+    
     private final DAOFactory daoFactory;
     private final BudgetDAO budgetDAO;
+    private final PeriodBudgetDAO periodBudgetDAO;
     private final CategoryDAO categoryDAO;
     private final TransactionDAO transactionDAO;
     private final UserDAO userDAO;
+    private final CacheManager cacheManager;
     
     public BudgetService () {
         this.daoFactory = DAOFactory.getInstance();
         this.budgetDAO = daoFactory.getBudgetDAO();
+        this.periodBudgetDAO = daoFactory.getPeriodBudgetDAO();
         this.categoryDAO = daoFactory.getCategoryDAO();
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.userDAO = daoFactory.getUserDAO();
+        this.cacheManager = CacheManager.getInstance();
     }
     
     // Create new budget for a category
@@ -28,7 +36,7 @@ public class BudgetService {
                                             int month, int year, double alertThreshold) {
         try {
             // Validate input data
-            ServiceResult<Void> validation = validateBudgetData(userID, categoryID, budgetAmount,
+            ServiceResult<Category> validation = validateBudgetData(userID, categoryID, budgetAmount,
                                                               month, year, alertThreshold);
             if (!validation.isSuccess()) {
                 return ServiceResult.error(validation.getMessage());
@@ -51,18 +59,14 @@ public class BudgetService {
             budget.setCreatedDate(new Date());
             budget.setModifiedDate(new Date());
             
-            // Calculate current amount
-            double currentSpent = calculateSpentAmount(userID, categoryID, month, year);
-            budget.setCurrentSpent(currentSpent);
-            budget.updateStatus();
-            
-            // Save budget
+            // Save budget, the DAO fills in the spent amount of the period
             boolean created = budgetDAO.createBudget(budget);
             
             if (created) {
-                // Get category name for response 
-                Category category = categoryDAO.getCategoryById(categoryID);
-                budget.setCategoryName(category.getCategoryName());
+                invalidateCache(userID);
+                
+                // Category fields for response, already loaded by the validation
+                budget.setCategory(validation.getData());
                 
                 return ServiceResult.success(budget, "Ngân sách đã được tạo thành công");
             } else {
@@ -77,7 +81,7 @@ public class BudgetService {
     public ServiceResult<Budget> updateBudget (Budget budget) {
         try {
             // Validate input data
-            ServiceResult<Void> validation = validateBudgetData(
+            ServiceResult<Category> validation = validateBudgetData(
                     budget.getUserID(),
                     budget.getCategoryID(),
                     budget.getBudgetAmount(),
@@ -103,19 +107,18 @@ public class BudgetService {
             // Update modification date
             budget.setModifiedDate(new Date());
             
-            // Recalculate current spent and status
-            double currentSpent = calculateSpentAmount(budget.getUserID(), budget.getCategoryID(),
-                                                     budget.getMonth(), budget.getYear());
-            budget.setCurrentSpent(currentSpent);
+            // Spent amount is maintained by the database, only the status can change
+            budget.setCurrentSpent(existingBudget.getCurrentSpent());
             budget.updateStatus();
             
             // Update budget
             boolean updated = budgetDAO.updateBudget(budget);
             
             if (updated) {
-                // Get category name for response
-                Category category = categoryDAO.getCategoryById(budget.getCategoryID());
-                budget.setCategoryName(category.getCategoryName());
+                invalidateCache(budget.getUserID());
+                
+                // Category fields for response, already loaded by the validation
+                budget.setCategory(validation.getData());
                 
                 return ServiceResult.success(budget, "ngân sách đã được cập nhật");
             } else {
@@ -143,6 +146,7 @@ public class BudgetService {
             boolean deleted = budgetDAO.deleteBudget(budgetID);
             
             if (deleted) {
+                invalidateCache(userID);
                 return ServiceResult.success("Ngân sách đã được xóa");
             } else {
                 return ServiceResult.error("Không thể xóa ngân sách");
@@ -155,22 +159,16 @@ public class BudgetService {
     // Get all budget for a user in specific period
     public ServiceResult<List<Budget>> getBudgetByPeriod (int userID, int month, int year) {
         try {
-            List<Budget> budgets = budgetDAO.getBudgetsByUserAndPeriod(userID, month, year);
-            
-            // Update spent amounts and status for all budgets
-            for (Budget budget : budgets) {
-                double currentSpent = calculateSpentAmount(userID, budget.getCategoryID(), month, year);
-                budget.setCurrentSpent(currentSpent);
-                budget.updateStatus();
-                
-                // Get category name
-                Category category = categoryDAO.getCategoryById(budget.getCategoryID());
-                budget.setCategoryName(category.getCategoryName());
+            List<Budget> cached = cacheManager.getBudgets().get(CacheStore.key(userID, month, year));
+            if (cached != null) {
+                return ServiceResult.success(new ArrayList<>(cached), "Lấy danh sách ngân sách thành công");
             }
             
+            List<Budget> budgets = budgetDAO.getBudgetsByUserAndPeriod(userID, month, year);
+            
             // Sort by status (alerts first) and then by budget amount
             budgets.sort((b1, b2) -> {
-                // Status priority: EXCEEDED > WARNING > OK
+                // Status priority: EXCEED > WARNING > OK
                 int statusCompare = getStatusPriority(b2.getStatus()) - getStatusPriority(b1.getStatus());
                 if (statusCompare != 0) return statusCompare;
                 
@@ -178,6 +176,7 @@ public class BudgetService {
                 return Double.compare(b2.getBudgetAmount(), b1.getBudgetAmount());
             });
             
+            cacheManager.getBudgets().put(CacheStore.key(userID, month, year), new ArrayList<>(budgets));
             return ServiceResult.success(budgets, "Lấy danh sách ngân sách thành công");
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
@@ -195,14 +194,7 @@ public class BudgetService {
             
             // Filter budgets that have alerts (WARNING or EXCEED)
             for (Budget budget : allBudgets) {
-                double currentSpent = calculateSpentAmount(userID, budget.getCategoryID(), currentMonth, currentYear);
-                budget.setCurrentSpent(currentSpent);
-                budget.updateStatus();
-                
-                if ("WARNING".equals(budget.getStatus()) || "EXCEEDED".equals(budget.getStatus())) {
-                    // Get category name
-                    Category category = categoryDAO.getCategoryById(budget.getCategoryID());
-                    budget.setCategoryName(category.getCategoryName());
+                if ("WARNING".equals(budget.getStatus()) || "EXCEED".equals(budget.getStatus())) {
                     alerts.add(budget);
                 }
             }
@@ -210,50 +202,42 @@ public class BudgetService {
             // Sort by severity (EXCEED first)
             alerts.sort((b1, b2) -> getStatusPriority(b2.getStatus()) - getStatusPriority(b1.getStatus()));
             
+            // The list shows every alert, the ones still queued are seen now
+            BudgetAlertEngine.getInstance().drainAlerts(userID);
+            
             return ServiceResult.success(alerts, "Lấy danh sách cảnh báo ngân sách thành công");
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
     
+    // Get month-end forecasts for the current period, budgets at risk first
+    public ServiceResult<List<BudgetForecast>> getBudgetForecasts (int userID) {
+        ServiceResult<List<BudgetForecast>> result = new BudgetForecaster().forecastUser(userID);
+        if (result.isSuccess()) {
+            result.getData().sort((f1, f2) -> getStatusPriority(f2.getStatus()) - getStatusPriority(f1.getStatus()));
+        }
+        return result;
+    }
+    
     // Get budget summary for a period
     public ServiceResult<BudgetSummary> getBudgetSummary (int userID, int month, int year) {
         try {
-            List<Budget> budgets = budgetDAO.getBudgetsByUserAndPeriod(userID, month, year);
+            // Sums and status counts come from one aggregate query
+            BudgetDAO.BudgetTotals totals = budgetDAO.getBudgetTotals(userID, month, year);
+            if (totals == null) {
+                return ServiceResult.error("Không thể lấy tổng hợp ngân sách");
+            }
             
             BudgetSummary summary = new BudgetSummary();
             summary.setMonth(month);
             summary.setYear(year);
-            summary.setTotalBudgets(budgets.size());
-            
-            double totalBudgetAmount = 0;
-            double totalSpentAmount = 0;
-            int warningCount = 0;
-            int exceededCount = 0;
-            
-            for (Budget budget : budgets) {
-                double currentSpent = calculateSpentAmount(userID, budget.getCategoryID(), month, year);
-                budget.setCurrentSpent(currentSpent);
-                budget.updateStatus();
-                
-                totalBudgetAmount += budget.getBudgetAmount();
-                totalSpentAmount += currentSpent;
-                
-                switch (budget.getStatus()) {
-                    case "WARNING":
-                        warningCount++;
-                        break;
-                    case "EXCEEDED":
-                        exceededCount++;
-                        break;
-                }
-            }
-            
-            summary.setTotalBudgetAmount(totalBudgetAmount);
-            summary.setTotalSpentAmount(totalSpentAmount);
-            summary.setWarningCount(warningCount);
-            summary.setExceededCount(exceededCount);
-            summary.setOkCount(budgets.size() - warningCount - exceededCount);
+            summary.setTotalBudgets(totals.getBudgetCount());
+            summary.setTotalBudgetAmount(Money.toDouble(totals.getTotalBudgetAmount()));
+            summary.setTotalSpentAmount(Money.toDouble(totals.getTotalSpentAmount()));
+            summary.setWarningCount(totals.getWarningCount());
+            summary.setExceededCount(totals.getExceededCount());
+            summary.setOkCount(totals.getOkCount());
             
             return ServiceResult.success(summary, "Lấy tổng hợp ngân sách thành công");
         } catch (Exception e) {
@@ -261,7 +245,7 @@ public class BudgetService {
         }
     }
     
-    // Create budget from previous month
+    // Create budget from previous month, categories that already have a budget in the target month are kept
     public ServiceResult<List<Budget>> copyBudgetFromPreviousMonth (int userID, int targetMonth, int targetYear) {
         try {
             // Calculate previous month
@@ -272,96 +256,226 @@ public class BudgetService {
                 prevYear--;
             }
             
-            // Get budgets from previous month
-            List<Budget> previousBudgets = budgetDAO.getBudgetsByUserAndPeriod(userID, prevMonth, prevYear);
-            if (previousBudgets.isEmpty()) {
-                return ServiceResult.error("Không tìm thấy ngân sách tháng trước để sao chép");
+            // One set-based insert, then one joined read of the target month
+            int copied = budgetDAO.copyBudgets(userID, prevMonth, prevYear, targetMonth, targetYear);
+            if (copied < 0) {
+                return ServiceResult.error("Không thể sao chép ngân sách");
             }
             
-            // Check if target month already has budgets
-            List<Budget> existingBudgets = budgetDAO.getBudgetsByUserAndPeriod(userID, targetMonth, targetYear);
-            if (!existingBudgets.isEmpty()) {
-                return ServiceResult.error("Tháng " + targetMonth + "/" + targetYear);
+            List<Budget> targetBudgets = budgetDAO.getBudgetsByUserAndPeriod(userID, targetMonth, targetYear);
+            if (copied == 0) {
+                if (targetBudgets.isEmpty()) {
+                    return ServiceResult.error("Không tìm thấy ngân sách tháng trước để sao chép");
+                }
+                return ServiceResult.error("Tháng " + targetMonth + "/" + targetYear + " đã có ngân sách cho các danh mục của tháng trước");
             }
             
-            List<Budget> newBudgets = new ArrayList<>();
+            invalidateCache(userID);
+            
+            return ServiceResult.success(targetBudgets,
+                    "Đã sao chép " + copied + " ngân sách từ tháng " + prevMonth + "/" + prevYear);
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Plan the budgets of a whole year: monthly amounts per category (12 values, January first,
+    // 0 for no budget that month). Existing budgets of those months are updated, the others created.
+    public ServiceResult<Integer> planYearlyBudgets (int userID, int year, Map<Integer, double[]> monthlyAmounts,
+                                                     double alertThreshold) {
+        try {
+            if (year < 2020 || year > 2050) {
+                return ServiceResult.error("Năm không hợp lệ");
+            }
+            if (alertThreshold < 0 || alertThreshold > 100) {
+                return ServiceResult.error("Ngưỡng cảnh báo phải từ 0% đến 100%");
+            }
             
-            // Create new budgets based on previous month
-            for (Budget prevBudget : previousBudgets) {
-                Budget newBudget = new Budget();
-                newBudget.setUserID(userID);
-                newBudget.setCategoryID(prevBudget.getCategoryID());
-                newBudget.setBudgetAmount(prevBudget.getBudgetAmount());
-                newBudget.setMonth(targetMonth);
-                newBudget.setYear(targetYear);
-                newBudget.setAlertThreshold(prevBudget.getAlertThreshold());
-                newBudget.setCreatedDate(new Date());
-                newBudget.setModifiedDate(new Date());
-                newBudget.setCurrentSpent(0.0); // New month, no spending yet
-                newBudget.setStatus("OK");
+            List<Budget> budgets = new ArrayList<>();
+            for (Map.Entry<Integer, double[]> entry : monthlyAmounts.entrySet()) {
+                double[] amounts = entry.getValue();
+                if (amounts == null || amounts.length != 12) {
+                    return ServiceResult.error("Cần đủ 12 tháng cho mỗi danh mục");
+                }
                 
-                boolean created = budgetDAO.createBudget(newBudget);
-                if (created) {
-                    // Get category name
-                    Category category = categoryDAO.getCategoryById(newBudget.getCategoryID());
-                    newBudget.setCategoryName(category.getCategoryName());
-                    newBudgets.add(newBudget);
+                for (int month = 1; month <= 12; month++) {
+                    double amount = amounts[month - 1];
+                    if (amount == 0) continue;
+                    if (amount < 0 || amount > 999999999999.99) {
+                        return ServiceResult.error("Số tiền ngân sách tháng " + month + " không hợp lệ");
+                    }
+                    
+                    Budget budget = new Budget();
+                    budget.setUserID(userID);
+                    budget.setCategoryID(entry.getKey());
+                    budget.setBudgetAmount(amount);
+                    budget.setMonth(month);
+                    budget.setYear(year);
+                    budget.setAlertThreshold(alertThreshold);
+                    budgets.add(budget);
                 }
             }
             
-            if (newBudgets.isEmpty()) {
-                return ServiceResult.error("Không thể sao chép ngân sách");
+            if (budgets.isEmpty()) {
+                return ServiceResult.error("Không có ngân sách nào để lập kế hoạch");
+            }
+            
+            // Categories are checked by the DAO, rows of other users' or income categories are skipped
+            int written = budgetDAO.upsertYearBudgets(userID, year, budgets);
+            if (written < 0) {
+                return ServiceResult.error("Không thể lập kế hoạch ngân sách năm " + year);
             }
             
-            return ServiceResult.success(newBudgets,
-                    "Đã sao chép " + newBudgets.size() + " ngân sách từ tháng " + prevMonth + "/" + prevYear);
+            invalidateCache(userID);
+            
+            return ServiceResult.success(written, "Đã lập kế hoạch " + written + " ngân sách cho năm " + year);
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
     
-    // Suggest budget amounts based on historical ending
-    public ServiceResult<Map<Integer, Double>> suggestBudgetAmounts (int userID, int month, int year) {
+    // Create a weekly, quarterly, yearly or rolling budget, rollingDays is only used for ROLLING
+    public ServiceResult<PeriodBudget> createPeriodBudget (int userID, int categoryID, String periodType, int rollingDays,
+                                                          double budgetAmount, double alertThreshold) {
         try {
-            // Get expense categories for user
-            List<Category> expenseCategories = categoryDAO.getCategoriesByUserAndType(userID, "EXPENSE");
-            Map<Integer, Double> suggestions = new HashMap<>();
-            
-            // Look at last 3 months spending for each category
-            for (Category category : expenseCategories) {
-                double totalSpent = 0;
-                int monthsWithData = 0;
-                
-                for (int i = 1; i <= 3; i++) {
-                    int checkMonth = month - i;
-                    int checkYear = year;
-                    if (checkMonth <= 0) {
-                        checkMonth += 12;
-                        checkYear--;
-                    }
-                    
-                    double monthSpent = calculateSpentAmount(userID, category.getCategoryID(), checkMonth, checkYear);
-                    if (monthSpent > 0) {
-                        totalSpent += monthSpent;
-                        monthsWithData++;
-                    }
+            if (!PeriodBudget.PERIOD_WEEK.equals(periodType) && !PeriodBudget.PERIOD_QUARTER.equals(periodType)
+                    && !PeriodBudget.PERIOD_YEAR.equals(periodType) && !PeriodBudget.PERIOD_ROLLING.equals(periodType)) {
+                return ServiceResult.error("Loại kỳ ngân sách không hợp lệ");
+            }
+            if (PeriodBudget.PERIOD_ROLLING.equals(periodType)) {
+                if (rollingDays < 1 || rollingDays > 366) {
+                    return ServiceResult.error("Số ngày phải từ 1 đến 366");
                 }
-                
-                if (monthsWithData > 0) {
-                    double averageSpent = totalSpent / monthsWithData;
-                    // Suggest 10% more than average spending
-                    double suggestedBudget = averageSpent * 1.1;
-                    suggestions.put(category.getCategoryID(), suggestedBudget);
-;                }
+            } else {
+                rollingDays = 0;
+            }
+            
+            // Month and year of a period budget are not used, validate with the current ones
+            ServiceResult<Category> validation = validateBudgetData(userID, categoryID, budgetAmount,
+                    DateUtils.getCurrentMonth(), DateUtils.getCurrentYear(), alertThreshold);
+            if (!validation.isSuccess()) {
+                return ServiceResult.error(validation.getMessage());
+            }
+            
+            PeriodBudget budget = new PeriodBudget();
+            budget.setUserID(userID);
+            budget.setCategoryID(categoryID);
+            budget.setPeriodType(periodType);
+            budget.setRollingDays(rollingDays);
+            budget.setBudgetAmount(budgetAmount);
+            budget.setAlertThreshold(alertThreshold);
+            
+            if (!periodBudgetDAO.createPeriodBudget(budget)) {
+                return ServiceResult.error("Không thể tạo ngân sách, có thể ngân sách cho kỳ này đã tồn tại");
+            }
+            
+            budget.setCategoryName(validation.getData().getCategoryName());
+            budget.setCategoryColor(validation.getData().getColor());
+            return ServiceResult.success(budget, "Ngân sách đã được tạo thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Get the period budgets of a user with the spending of their current period, alerts first
+    public ServiceResult<List<PeriodBudget>> getPeriodBudgets (int userID) {
+        try {
+            List<PeriodBudget> budgets = periodBudgetDAO.getPeriodBudgets(userID, new Date());
+            budgets.sort((b1, b2) -> getStatusPriority(b2.getStatus()) - getStatusPriority(b1.getStatus()));
+            return ServiceResult.success(budgets, "Lấy danh sách ngân sách thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Get period budgets in WARNING or EXCEED for their current period
+    public ServiceResult<List<PeriodBudget>> getPeriodBudgetAlerts (int userID) {
+        ServiceResult<List<PeriodBudget>> result = getPeriodBudgets(userID);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        
+        List<PeriodBudget> alerts = new ArrayList<>();
+        for (PeriodBudget budget : result.getData()) {
+            if ("WARNING".equals(budget.getStatus()) || "EXCEED".equals(budget.getStatus())) {
+                alerts.add(budget);
+            }
+        }
+        return ServiceResult.success(alerts, "Lấy danh sách cảnh báo ngân sách thành công");
+    }
+    
+    // Update amount and threshold of a period budget, the category and period cannot change
+    public ServiceResult<PeriodBudget> updatePeriodBudget (int periodBudgetID, int userID,
+                                                          double budgetAmount, double alertThreshold) {
+        try {
+            // Check if budget exists and belongs to user
+            PeriodBudget budget = periodBudgetDAO.getPeriodBudgetById(periodBudgetID);
+            if (budget == null) {
+                return ServiceResult.error("Không tìm thấy ngân sách");
+            }
+            
+            if (budget.getUserID() != userID) {
+                return ServiceResult.error("Bạn không có quyền sửa ngân sách này");
+            }
+            
+            ServiceResult<Category> validation = validateBudgetData(userID, budget.getCategoryID(), budgetAmount,
+                    DateUtils.getCurrentMonth(), DateUtils.getCurrentYear(), alertThreshold);
+            if (!validation.isSuccess()) {
+                return ServiceResult.error(validation.getMessage());
+            }
+            
+            budget.setBudgetAmount(budgetAmount);
+            budget.setAlertThreshold(alertThreshold);
+            
+            if (periodBudgetDAO.updatePeriodBudget(budget)) {
+                return ServiceResult.success(budget, "Ngân sách đã được cập nhật");
+            } else {
+                return ServiceResult.error("Không thể cập nhật ngân sách");
+            }
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Delete period budget
+    public ServiceResult<Void> deletePeriodBudget (int periodBudgetID, int userID) {
+        try {
+            PeriodBudget budget = periodBudgetDAO.getPeriodBudgetById(periodBudgetID);
+            if (budget == null) {
+                return ServiceResult.error("Không tìm thấy ngân sách");
+            }
+            
+            if (budget.getUserID() != userID) {
+                return ServiceResult.error("Bạn không quyền xóa ngân sách này");
             }
             
-            return ServiceResult.success(suggestions, "Đã tạo gợi ý ngân sách dựa trên lịch sử chi tiêu");
+            if (periodBudgetDAO.deletePeriodBudget(periodBudgetID)) {
+                return ServiceResult.success("Ngân sách đã được xóa");
+            } else {
+                return ServiceResult.error("Không thể xóa ngân sách");
+            }
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
     
-    private ServiceResult<Void> validateBudgetData(int userID, int categoryID, double budgetAmount, 
+    // Suggest budget amounts based on historical ending
+    public ServiceResult<Map<Integer, Double>> suggestBudgetAmounts (int userID, int month, int year) {
+        return new BudgetSuggestionEngine().suggestForUser(userID, month, year);
+    }
+    
+    // Suggest budget amounts with a chosen strategy and number of past months
+    public ServiceResult<Map<Integer, Double>> suggestBudgetAmounts (int userID, int month, int year,
+                                                                    BudgetSuggestionEngine.Strategy strategy, int lookbackMonths) {
+        try {
+            return new BudgetSuggestionEngine(strategy, lookbackMonths, BudgetSuggestionEngine.DEFAULT_MARGIN)
+                    .suggestForUser(userID, month, year);
+        } catch (IllegalArgumentException e) {
+            return ServiceResult.error("Số tháng lịch sử phải lớn hơn 0");
+        }
+    }
+    
+    private ServiceResult<Category> validateBudgetData(int userID, int categoryID, double budgetAmount, 
                                                  int month, int year, double alertThreshold) {
         // Check user exists
         User user = userDAO.getUserById(userID);
@@ -407,24 +521,21 @@ public class BudgetService {
             return ServiceResult.error("Ngưỡng cảnh báo phải từ 0% đến 100%");
         }
         
-        return ServiceResult.success("Dữ liêu hợp lệ");
+        return ServiceResult.success(category, "Dữ liêu hợp lệ");
     }
     
-    private double calculateSpentAmount(int userID, int categoryID, int month, int year) { 
-        try {
-            return transactionDAO.getTotalExpenseByCategory(userID, categoryID, month, year);
-        } catch (Exception e) {
-            System.err.println("Warning: Could not calculate spent amount: " + e.getMessage());
-            return 0.0;
-        }
-    }
-
     private int getStatusPriority(String status) {
         switch (status) {
-            case "EXCEED": return 3;
+            case "EXCEED": return 4;
+            case BudgetForecast.STATUS_PROJECTED_EXCEED: return 3;
             case "WARNING": return 2;
             case "OK": return 1;
             default: return 0;
         }
     }
+    
+    // Budget changes affect cached budget lists and dashboard alerts
+    private void invalidateCache (int userID) {
+        cacheManager.invalidate(userID, InvalidationBus.REGION_BUDGETS, InvalidationBus.REGION_DASHBOARDS);
+    }
 }
@@ -0,0 +1,184 @@
+package com.expensemanager.service.budget;
+
+import com.expensemanager.dao.BudgetDAO;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.service.ServiceResult;
+import com.expensemanager.util.Money;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Suggests budget amounts from the monthly spending of each expense category.
+ *
+ * The history of a category is its monthly totals over the lookback window before the
+ * target month, from the first month with spending on (later months without spending
+ * count as 0, so a new category is not diluted by the months before it existed).
+ * A strategy turns the history into the expected spend, and the suggestion adds a margin.
+ * All histories come from one grouped query (BudgetDAO.getMonthlyCategorySpend), for a
+ * single user or for every user at once.
+ */
+public class BudgetSuggestionEngine {
+
+    public enum Strategy {
+        // Average month
+        MEAN,
+        // Middle month, ignores one-off months entirely
+        MEDIAN,
+        // Average after dropping the highest and lowest months
+        TRIMMED_MEAN,
+        // Linear trend of the months continued to the target month
+        TREND_ADJUSTED
+    }
+
+    public static final int DEFAULT_LOOKBACK_MONTHS = 6;
+    public static final Strategy DEFAULT_STRATEGY = Strategy.TRIMMED_MEAN;
+    // Suggest 10% more than the expected spending
+    public static final double DEFAULT_MARGIN = 1.1;
+
+    // Share of months dropped from each end by TRIMMED_MEAN
+    private static final double TRIM_RATIO = 0.2;
+
+    private final BudgetDAO budgetDAO;
+    private final Strategy strategy;
+    private final int lookbackMonths;
+    private final double margin;
+
+    public BudgetSuggestionEngine() {
+        this(DEFAULT_STRATEGY, DEFAULT_LOOKBACK_MONTHS, DEFAULT_MARGIN);
+    }
+
+    public BudgetSuggestionEngine(Strategy strategy, int lookbackMonths, double margin) {
+        if (lookbackMonths <= 0) {
+            throw new IllegalArgumentException("Lookback must be at least one month");
+        }
+        this.budgetDAO = DAOFactory.getInstance().getBudgetDAO();
+        this.strategy = strategy;
+        this.lookbackMonths = lookbackMonths;
+        this.margin = margin;
+    }
+
+    // Suggested amount per category for one user's budgets of a month
+    public ServiceResult<Map<Integer, Double>> suggestForUser(int userID, int month, int year) {
+        if (userID <= 0) {
+            return ServiceResult.error("Người dùng không hợp lệ");
+        }
+        ServiceResult<Map<Integer, Map<Integer, Double>>> result = suggest(userID, month, year);
+        if (!result.isSuccess()) {
+            return ServiceResult.error(result.getMessage());
+        }
+
+        Map<Integer, Double> suggestions = result.getData().get(userID);
+        return ServiceResult.success(suggestions != null ? suggestions : new HashMap<>(),
+                "Đã tạo gợi ý ngân sách dựa trên lịch sử chi tiêu");
+    }
+
+    // Suggested amounts of every user for a month, keyed by user then category
+    public ServiceResult<Map<Integer, Map<Integer, Double>>> suggestForAllUsers(int month, int year) {
+        return suggest(0, month, year);
+    }
+
+    private ServiceResult<Map<Integer, Map<Integer, Double>>> suggest(int userID, int month, int year) {
+        if (month < 1 || month > 12) {
+            return ServiceResult.error("Tháng không hợp lệ");
+        }
+
+        try {
+            int endIndex = year * 12 + month - 1;
+            int startIndex = endIndex - lookbackMonths;
+            List<BudgetDAO.MonthlySpend> rows = budgetDAO.getMonthlyCategorySpend(userID,
+                    startIndex % 12 + 1, startIndex / 12, month, year);
+
+            Map<Integer, Map<Integer, Double>> result = new HashMap<>();
+            long[] history = new long[lookbackMonths];
+            // Rows arrive grouped by user and category
+            for (int i = 0; i < rows.size(); i++) {
+                BudgetDAO.MonthlySpend row = rows.get(i);
+                history[row.getMonthIndex() - startIndex] += row.getAmount();
+
+                boolean lastOfGroup = i + 1 == rows.size()
+                        || rows.get(i + 1).getUserID() != row.getUserID()
+                        || rows.get(i + 1).getCategoryID() != row.getCategoryID();
+                if (lastOfGroup) {
+                    double expected = expectedSpend(history);
+                    result.computeIfAbsent(row.getUserID(), id -> new HashMap<>())
+                            .put(row.getCategoryID(), expected * margin);
+                    Arrays.fill(history, 0);
+                }
+            }
+
+            return ServiceResult.success(result, "Đã tạo gợi ý ngân sách cho " + result.size() + " người dùng");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+
+    // Expected spend of the next month from the monthly history (minor units, oldest first)
+    double expectedSpend(long[] history) {
+        int first = 0;
+        while (first < history.length && history[first] == 0) {
+            first++;
+        }
+        long[] months = Arrays.copyOfRange(history, first, history.length);
+        if (months.length == 0) return 0;
+
+        switch (strategy) {
+            case MEDIAN:
+                return Money.toDouble(median(months));
+            case TRIMMED_MEAN:
+                return Money.toDouble(trimmedMean(months));
+            case TREND_ADJUSTED:
+                return Money.toDouble(trend(months));
+            default:
+                return Money.toDouble(mean(months, 0, months.length));
+        }
+    }
+
+    private static long mean(long[] values, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += values[i];
+        }
+        return total / (to - from);
+    }
+
+    private static long median(long[] months) {
+        long[] sorted = months.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private static long trimmedMean(long[] months) {
+        if (months.length < 3) return mean(months, 0, months.length);
+
+        long[] sorted = months.clone();
+        Arrays.sort(sorted);
+        int trim = Math.max(1, (int) (sorted.length * TRIM_RATIO));
+        return mean(sorted, trim, sorted.length - trim);
+    }
+
+    // Least squares line through the months, evaluated one month after the last
+    private static long trend(long[] months) {
+        int n = months.length;
+        if (n < 2) return months[0];
+
+        double meanX = (n - 1) / 2.0;
+        double meanY = 0;
+        for (long value : months) {
+            meanY += value;
+        }
+        meanY /= n;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int x = 0; x < n; x++) {
+            covariance += (x - meanX) * (months[x] - meanY);
+            variance += (x - meanX) * (x - meanX);
+        }
+        double projected = meanY + covariance / variance * (n - meanX);
+        // A falling trend never suggests less than nothing
+        return Math.max(0, Math.round(projected));
+    }
+}
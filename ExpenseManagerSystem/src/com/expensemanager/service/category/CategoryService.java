@@ -1,5 +1,8 @@
 package com.expensemanager.service.category;
 
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.cache.CacheStore;
+import com.expensemanager.cache.InvalidationBus;
 import com.expensemanager.dao.*;
 import com.expensemanager.model.Category;
 import com.expensemanager.model.User;
@@ -12,12 +15,14 @@ public class CategoryService {
     private final CategoryDAO categoryDAO;
     private final TransactionDAO transactionDAO;
     private final UserDAO userDAO;
+    private final CacheManager cacheManager;
     
     public CategoryService () {
         this.daoFactory = DAOFactory.getInstance();
         this.categoryDAO = daoFactory.getCategoryDAO();
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.userDAO = daoFactory.getUserDAO();
+        this.cacheManager = CacheManager.getInstance();
     }
     
     // Create new category
@@ -54,6 +59,7 @@ public class CategoryService {
             boolean created = categoryDAO.createCategory(category);
             
             if (created) {
+                invalidateCache(userID);
                 return ServiceResult.success(category, "Danh mục đã được tạo thành công");
             } else {
                 return ServiceResult.error("Không thể tạo danh mục");
@@ -107,6 +113,7 @@ public class CategoryService {
             boolean updated = categoryDAO.updateCategory(category);
             
             if (updated) {
+                invalidateCache(category.getUserID());
                 return ServiceResult.success(category, "Danh mục đã được cập nhật");
             } else {
                 return ServiceResult.error("Không thể cập nhật danh mục");
@@ -145,6 +152,7 @@ public class CategoryService {
             boolean deleted = categoryDAO.deleteCategory(categoryID);
             
             if (deleted) {
+                invalidateCache(userID);
                 return ServiceResult.success("Danh mục đã được xóa");
             } else {
                 return ServiceResult.error("Không thể xóa danh mục");
@@ -154,6 +162,24 @@ public class CategoryService {
         }
     }
  
+    // Get categories of a user by type
+    public ServiceResult<List<Category>> getUserCategories (int userID, String categoryType) {
+        try {
+            if (categoryType == null ||
+                (!categoryType.toUpperCase().equals("INCOME") && !categoryType.toUpperCase().equals("EXPENSE"))) {
+                return ServiceResult.error("Loại danh mục phải là INCOME hoặc EXPENSE");
+            }
+            
+            String type = categoryType.toUpperCase();
+            List<Category> categories = cacheManager.getCategories()
+                    .getOrLoad(CacheStore.key(userID, type), () -> categoryDAO.getCategoriesByUserAndType(userID, type));
+            
+            return ServiceResult.success(new ArrayList<>(categories), "Lấy danh sách danh mục thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
     private ServiceResult<Void> validateCategoryData(int userID, String categoryName,
                                                    String categoryType, String description) {
         // Check user exists
@@ -193,4 +219,11 @@ public class CategoryService {
             return "#F44336";
         }
     }
+    
+    // Category names and colors are shown in budgets, transactions and reports
+    private void invalidateCache (int userID) {
+        cacheManager.invalidate(userID, InvalidationBus.REGION_CATEGORIES, InvalidationBus.REGION_BUDGETS,
+                InvalidationBus.REGION_DASHBOARDS, InvalidationBus.REGION_RECENT_TRANSACTIONS,
+                InvalidationBus.REGION_REPORTS);
+    }
 }
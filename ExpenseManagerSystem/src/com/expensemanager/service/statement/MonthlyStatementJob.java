@@ -0,0 +1,155 @@
+package com.expensemanager.service.statement;
+
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.StatementDAO;
+import com.expensemanager.model.MonthlyStatement;
+import com.expensemanager.service.ServiceResult;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monthly close: computes and stores a MonthlyStatement for every user.
+ *
+ * Users are streamed in pages ordered by UserID (keyset paging). Each page is split
+ * into batches that run on a ForkJoinPool; a batch loads its users' data with one grouped
+ * query per table and upserts the statements in one JDBC batch. The next page is fetched
+ * while the current one is processed. After a page is stored the checkpoint in
+ * StatementRuns moves to its last UserID, so a restarted run continues after it.
+ * Statements are upserted, re-running a page after a crash is harmless.
+ */
+public class MonthlyStatementJob {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    // Each running batch holds one connection, keep the pool below the server's limits
+    private static final int MAX_PARALLELISM = 8;
+
+    private final StatementDAO statementDAO;
+    private final int parallelism;
+    private final int pageSize;
+    private final int batchSize;
+
+    public MonthlyStatementJob() {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM), DEFAULT_PAGE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public MonthlyStatementJob(int parallelism, int pageSize, int batchSize) {
+        this.statementDAO = DAOFactory.getInstance().getStatementDAO();
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = Math.max(1, pageSize);
+        // SQL Server allows 2100 parameters per statement, the IN list uses one per user
+        this.batchSize = Math.max(1, Math.min(batchSize, 2000));
+    }
+
+    // Run (or resume) the close of a month, returns the number of users processed in total
+    public ServiceResult<Integer> run(int month, int year) {
+        if (month < 1 || month > 12) {
+            return ServiceResult.error("Tháng không hợp lệ");
+        }
+
+        StatementDAO.RunCheckpoint checkpoint = statementDAO.getCheckpoint(month, year);
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            return ServiceResult.success(checkpoint.getProcessedCount(), "Sao kê tháng " + month + "/" + year + " đã được tạo trước đó");
+        }
+
+        int lastUserID = checkpoint != null ? checkpoint.getLastUserID() : 0;
+        int processed = checkpoint != null ? checkpoint.getProcessedCount() : 0;
+        if (!statementDAO.saveCheckpoint(month, year, lastUserID, processed, StatementDAO.STATUS_RUNNING)) {
+            return ServiceResult.error("Không thể ghi trạng thái chạy sao kê");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final int firstAfter = lastUserID;
+            CompletableFuture<int[]> nextPage = CompletableFuture.supplyAsync(
+                    () -> statementDAO.getUserIDsAfter(firstAfter, pageSize), pool);
+
+            while (true) {
+                int[] page = nextPage.join();
+                if (page == null) {
+                    return ServiceResult.error("Lỗi khi đọc danh sách người dùng, có thể chạy lại để tiếp tục");
+                }
+                if (page.length == 0) break;
+
+                // Prefetch the following page while this one is processed
+                final int pageEnd = page[page.length - 1];
+                nextPage = page.length < pageSize
+                        ? CompletableFuture.completedFuture(new int[0])
+                        : CompletableFuture.supplyAsync(() -> statementDAO.getUserIDsAfter(pageEnd, pageSize), pool);
+
+                processed += pool.invoke(new BatchTask(page, 0, page.length, month, year));
+                lastUserID = pageEnd;
+                // Without the checkpoint a restart would not know this page is done, stop here
+                if (!statementDAO.saveCheckpoint(month, year, lastUserID, processed, StatementDAO.STATUS_RUNNING)) {
+                    throw new IllegalStateException("cannot save checkpoint at user " + lastUserID);
+                }
+            }
+
+            if (!statementDAO.saveCheckpoint(month, year, lastUserID, processed, StatementDAO.STATUS_COMPLETED)) {
+                throw new IllegalStateException("cannot mark the run completed");
+            }
+            return ServiceResult.success(processed, "Đã tạo sao kê tháng " + month + "/" + year + " cho " + processed + " người dùng");
+
+        } catch (Exception e) {
+            System.err.println("Monthly statement run stopped after user " + lastUserID + ": " + e.getMessage());
+            return ServiceResult.error("Lỗi khi tạo sao kê (đã xử lý " + processed + " người dùng), có thể chạy lại để tiếp tục: "
+                    + e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Get a stored statement
+    public ServiceResult<MonthlyStatement> getStatement(int userID, int month, int year) {
+        MonthlyStatement statement = statementDAO.getStatement(userID, month, year);
+        if (statement == null) {
+            return ServiceResult.error("Chưa có sao kê cho tháng " + month + "/" + year);
+        }
+        return ServiceResult.success(statement);
+    }
+
+    // Splits a page until a piece fits one batch, returns the number of statements stored
+    private class BatchTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] userIDs;
+        private final int from;
+        private final int to;
+        private final int month;
+        private final int year;
+
+        BatchTask(int[] userIDs, int from, int to, int month, int year) {
+            this.userIDs = userIDs;
+            this.from = from;
+            this.to = to;
+            this.month = month;
+            this.year = year;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= batchSize) {
+                return processBatch(Arrays.copyOfRange(userIDs, from, to));
+            }
+
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(userIDs, from, mid, month, year);
+            BatchTask right = new BatchTask(userIDs, mid, to, month, year);
+            left.fork();
+            int rightCount = right.compute();
+            return left.join() + rightCount;
+        }
+
+        private int processBatch(int[] batch) {
+            List<MonthlyStatement> statements = statementDAO.loadStatements(batch, month, year);
+            if (statements == null || !statementDAO.saveStatements(statements)) {
+                // Fails the page, the checkpoint stays before it
+                throw new IllegalStateException("batch starting at user " + batch[0] + " failed");
+            }
+            return statements.size();
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.expensemanager.service.transaction;
 
+import com.expensemanager.analytics.SpendSketchEngine;
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.cache.CacheStore;
 import com.expensemanager.dao.*;
 import com.expensemanager.model.*;
 import com.expensemanager.service.ServiceResult;
+import com.expensemanager.service.budget.BudgetAlert;
+import com.expensemanager.service.budget.BudgetAlertEngine;
 import com.expensemanager.util.DateUtils;
 import com.expensemanager.util.CurrencyUtils;
+import com.expensemanager.util.Money;
 import java.sql.Date;
 import java.util.*;
 
@@ -13,15 +19,21 @@ public class TransactionService {
     private final DAOFactory daoFactory;
     private final TransactionDAO transactionDAO;
     private final CategoryDAO categoryDAO;
-    private final BudgetDAO budgetDAO;
     private final UserDAO userDAO;
+    private final CacheManager cacheManager;
+    private final BudgetAlertEngine budgetAlertEngine;
     
     public TransactionService() {
         this.daoFactory = DAOFactory.getInstance();
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.categoryDAO = daoFactory.getCategoryDAO();
-        this.budgetDAO = daoFactory.getBudgetDAO();
         this.userDAO = daoFactory.getUserDAO();
+        this.cacheManager = CacheManager.getInstance();
+        
+        // Drop cached dashboards, budgets and recent lists when transactions change
+        daoFactory.addTransactionChangeListener(cacheManager);
+        // Raise budget alerts as expenses are written
+        this.budgetAlertEngine = BudgetAlertEngine.getInstance();
     }
     
     // Create new transaction
@@ -50,15 +62,20 @@ public class TransactionService {
             transaction.setModifiedDate(new java.util.Date());
             
             // Save transaction
-            boolean created = transactionDAO.createTransaction(transaction);
+            daoFactory.fireBeginWrite(userID);
+            boolean created;
+            try {
+                created = transactionDAO.createTransaction(transaction);
+                if (created) {
+                    // Budget spent amounts are updated by the tr_UpdateBudgetSpent trigger
+                    daoFactory.fireTransactionCreated(transaction);
+                }
+            } finally {
+                daoFactory.fireEndWrite(userID);
+            }
             
             if (created) {
-                // Update budget tracking if this is an expense
-                if ("EXPENSE".equals(transactionType.toUpperCase())) {
-                    updateBudgetTracking(userID, categoryID, transactionDate);
-                }
-                
-                return ServiceResult.success(transaction, "Giao dịch đã được tạo thành công");
+                return ServiceResult.success(transaction, withBudgetAlerts("Giao dịch đã được tạo thành công", userID));
             } else {
                 return ServiceResult.error("Không thể tạo giao dịch");
             }
@@ -98,16 +115,19 @@ public class TransactionService {
             transaction.setModifiedDate(new java.util.Date());
             
             // Update transaction
-            boolean updated = transactionDAO.updateTransaction(transaction);
+            daoFactory.fireBeginWrite(transaction.getUserID());
+            boolean updated;
+            try {
+                updated = transactionDAO.updateTransaction(transaction);
+                if (updated) {
+                    daoFactory.fireTransactionUpdated(existingTransaction, transaction);
+                }
+            } finally {
+                daoFactory.fireEndWrite(transaction.getUserID());
+            }
             
             if (updated) {
-                // Update budget tracking if this is an expense
-                if ("EXPENSE".equals(transaction.getTransactionType())) {
-                    updateBudgetTracking(transaction.getUserID(), transaction.getCategoryID(),
-                                        new Date(transaction.getTransactionDate().getTime()));
-                }
-                
-                return ServiceResult.success(transaction, "Giao dịch đã được cập nhật");
+                return ServiceResult.success(transaction, withBudgetAlerts("Giao dịch đã được cập nhật", transaction.getUserID()));
             } else {
                 return ServiceResult.error("Không thể cập nhật giao dịch");
             }
@@ -130,15 +150,18 @@ public class TransactionService {
             }
             
             // Delete transaction
-            boolean deleted = transactionDAO.deleteTransaction(transactionID);
+            daoFactory.fireBeginWrite(userID);
+            boolean deleted;
+            try {
+                deleted = transactionDAO.deleteTransaction(transactionID);
+                if (deleted) {
+                    daoFactory.fireTransactionDeleted(transaction);
+                }
+            } finally {
+                daoFactory.fireEndWrite(userID);
+            }
             
             if (deleted) {
-                // Update budget tracking if this was an expense
-                if ("EXPENSE".equals(transaction.getTransactionType())) {
-                    updateBudgetTracking(userID, transaction.getTransactionID(), 
-                            new Date(transaction.getTransactionDate().getTime()));
-                }
-                
                 return ServiceResult.success("Giao dịch đã được xóa");
             } else {
                 return ServiceResult.error("Không thể xóa giao dịch");
@@ -148,6 +171,24 @@ public class TransactionService {
         }
     }
     
+    // Check an expense amount against the usual amounts of its category, called by the form
+    // before saving so the write path never waits on the sketch query
+    public ServiceResult<Boolean> checkUnusualAmount(int userID, int categoryID, double amount) {
+        try {
+            if (amount <= 0) {
+                return ServiceResult.success(false, "Số tiền bình thường");
+            }
+            
+            if (SpendSketchEngine.getInstance().isOutlier(userID, categoryID, Money.toMinor(amount))) {
+                return ServiceResult.success(true, "Lưu ý: số tiền lớn bất thường so với các khoản chi thường ngày của danh mục này");
+            }
+            return ServiceResult.success(false, "Số tiền bình thường");
+            
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
     // Get transactions by period
     public ServiceResult<List<Transaction>> getTransactionsByPeriod(int userID, Date startDate, Date endDate) {
         try {
@@ -167,6 +208,33 @@ public class TransactionService {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
+    
+    // Get latest transactions of a user
+    public ServiceResult<List<Transaction>> getRecentTransactions(int userID, int limit) {
+        try {
+            if (limit <= 0) {
+                return ServiceResult.error("Số lượng giao dịch phải lớn hơn 0");
+            }
+            
+            List<Transaction> transactions = cacheManager.getRecentTransactions()
+                    .getOrLoad(CacheStore.key(userID, limit), () -> transactionDAO.getRecentTransactions(userID, limit));
+            
+            return ServiceResult.success(new ArrayList<>(transactions), "Lấy danh sách giao dịch gần đây thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Append the budget alerts raised by the write to its result message
+    private String withBudgetAlerts(String message, int userID) {
+        StringBuilder result = new StringBuilder(message);
+        for (BudgetAlert alert : budgetAlertEngine.drainAlerts(userID)) {
+            result.append(". Cảnh báo: ngân sách \"").append(alert.getCategoryName()).append("\" ")
+                  .append("EXCEED".equals(alert.getStatus()) ? "đã vượt hạn mức" : "đã dùng "
+                          + String.format("%.0f", alert.getUsedPercentage()) + "%");
+        }
+        return result.toString();
+    }
 
     
     private ServiceResult<Void> validateTransactionData(int userID, int categoryID, double amount,
@@ -236,17 +304,4 @@ public class TransactionService {
         
         return ServiceResult.success("Dữ liệu hợp lệ");
     }
-
-    private void updateBudgetTracking(int userID, int categoryID, Date transactionDate) {
-        try {
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(transactionDate);
-            int month = cal.get(Calendar.MONTH) + 1;
-            int year = cal.get(Calendar.YEAR);
-            
-            budgetDAO.getBudgetsByUserAndPeriod(userID, month, year);
-        } catch (Exception e) {
-            System.err.println("Warning: Could not update budget tracking: " + e.getMessage());
-        }
-    }
 }
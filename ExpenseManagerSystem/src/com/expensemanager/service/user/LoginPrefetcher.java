@@ -0,0 +1,120 @@
+package com.expensemanager.service.user;
+
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.dao.DAOFactory;
+import com.expensemanager.dao.ReportDAO;
+import com.expensemanager.service.SavingService;
+import com.expensemanager.service.budget.BudgetService;
+import com.expensemanager.util.DateUtils;
+import java.sql.Date;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the caches in the background right after a successful login,
+ * so the first screens can be painted from memory.
+ * Loads current and previous month data on a small bounded executor.
+ */
+public class LoginPrefetcher {
+
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 32;
+    private static final int TOP_CATEGORY_LIMIT = 5;
+    private static final int TREND_MONTHS = 6;
+
+    private static LoginPrefetcher instance;
+
+    private final ThreadPoolExecutor executor;
+    // Users with a warm-up queued or running, avoids duplicate work on repeated logins
+    private final Set<Integer> pendingUsers = ConcurrentHashMap.newKeySet();
+
+    private LoginPrefetcher() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(() -> {
+                CacheManager.markPrefetchThread();
+                runnable.run();
+            }, "login-prefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized LoginPrefetcher getInstance() {
+        if (instance == null) {
+            instance = new LoginPrefetcher();
+        }
+        return instance;
+    }
+
+    // Queue a warm-up for the user, returns false when skipped
+    public boolean prefetch(int userID) {
+        if (!pendingUsers.add(userID)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    warmUp(userID);
+                } finally {
+                    pendingUsers.remove(userID);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Queue is full, the screens will simply load on demand
+            pendingUsers.remove(userID);
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void warmUp(int userID) {
+        try {
+            CacheManager.getInstance().getPrefetchMetrics().recordPrefetchRun();
+
+            int currentMonth = DateUtils.getCurrentMonth();
+            int currentYear = DateUtils.getCurrentYear();
+            int previousMonth = currentMonth == 1 ? 12 : currentMonth - 1;
+            int previousYear = currentMonth == 1 ? currentYear - 1 : currentYear;
+
+            // Dashboard first, it is the first screen after login
+            new UserService().getUserDashboard(userID);
+
+            BudgetService budgetService = new BudgetService();
+            budgetService.getBudgetByPeriod(userID, currentMonth, currentYear);
+            budgetService.getBudgetByPeriod(userID, previousMonth, previousYear);
+
+            new SavingService().getUserSavings(userID);
+
+            ReportDAO reportDAO = DAOFactory.getInstance().getReportDAO();
+            warmUpMonthReports(reportDAO, userID, currentMonth, currentYear);
+            warmUpMonthReports(reportDAO, userID, previousMonth, previousYear);
+            reportDAO.getDailyExpenseCurrentMonth(userID);
+            reportDAO.getMonthlyTrend(userID, TREND_MONTHS);
+        } catch (Exception e) {
+            System.err.println("Warning: Could not prefetch data for user " + userID + ": " + e.getMessage());
+        }
+    }
+
+    private void warmUpMonthReports(ReportDAO reportDAO, int userID, int month, int year) {
+        Date startDate = new Date(DateUtils.getMonthStart(month, year).getTime());
+        Date endDate = new Date(DateUtils.getMonthEnd(month, year).getTime());
+        reportDAO.getExpenseByCategory(userID, startDate, endDate);
+        reportDAO.getTopExpenseCategories(userID, startDate, endDate, TOP_CATEGORY_LIMIT);
+    }
+}
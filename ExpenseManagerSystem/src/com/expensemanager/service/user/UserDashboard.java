@@ -12,6 +12,7 @@ public class UserDashboard {
     private List<Budget> budgetAlerts;
     private List<Saving> savings;
     private int financialHealthScore;
+    private long dataVersion;
     
     public UserDashboard () {
         this.currentMonthIncome = 0.0;
@@ -83,6 +84,15 @@ public class UserDashboard {
     public void setFinancialHealthScore(int financialHealthScore) {
         this.financialHealthScore = financialHealthScore;
     }
+
+    // User data version the dashboard was loaded at
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
     
     // Helper methods
     public String getFormattedCurrentMonthIncome () {
@@ -1,8 +1,15 @@
 package com.expensemanager.service.user;
 
+import com.expensemanager.analytics.LedgerEngine;
+import com.expensemanager.analytics.RangeIndexEngine;
+import com.expensemanager.analytics.RollingStatsEngine;
+import com.expensemanager.cache.CacheManager;
+import com.expensemanager.cache.CacheStore;
+import com.expensemanager.cache.InvalidationBus;
 import com.expensemanager.dao.*;
 import com.expensemanager.model.*;
 import com.expensemanager.service.ServiceResult;
+import com.expensemanager.service.budget.BudgetAlertEngine;
 import com.expensemanager.util.DateUtils;
 import com.expensemanager.util.CurrencyUtils;
 import java.util.*;
@@ -17,6 +24,7 @@ public class UserService {
     private final TransactionDAO transactionDAO;
     private final BudgetDAO budgetDAO;
     private final SavingDAO savingDAO;
+    private final CacheManager cacheManager;
     
     // Email and phone validation patterns
     private static final Pattern EMAIL_PATTERN = 
@@ -30,6 +38,7 @@ public class UserService {
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.budgetDAO = daoFactory.getBudgetDAO();
         this.savingDAO = daoFactory.getSavingDAO();
+        this.cacheManager = CacheManager.getInstance();
     }
     
     public ServiceResult<User> authenticateUser (String username, String password) {
@@ -60,6 +69,12 @@ public class UserService {
             // Update last login
             user.setLastLogin(new Date());
             userDAO.updateUser(user);
+            cacheManager.invalidate(user.getUserID(), InvalidationBus.REGION_USERS, InvalidationBus.REGION_DASHBOARDS);
+            
+            // Track the current budgets so expense entries raise alerts right away
+            BudgetAlertEngine.getInstance().prime(user.getUserID());
+            // Warm dashboard, budgets, savings and reports in the background
+            LoginPrefetcher.getInstance().prefetch(user.getUserID());
             
             return ServiceResult.success(user, "Đăng nhập thành công");
         } catch (Exception e) {
@@ -67,6 +82,19 @@ public class UserService {
         }
     }
     
+    // End the user's session: release their in-memory analytics and budget tracking, caches expire on their own
+    public ServiceResult<Void> logout (int userID) {
+        try {
+            BudgetAlertEngine.getInstance().evict(userID);
+            LedgerEngine.getInstance().evict(userID);
+            RangeIndexEngine.getInstance().evict(userID);
+            RollingStatsEngine.getInstance().evict(userID);
+            return ServiceResult.success("Đăng xuất thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
     public ServiceResult<User> registerUser (String username, String password,
                                             String confirmPassword, String fullName,
                                             String email, String phone) {
@@ -147,6 +175,7 @@ public class UserService {
             boolean updated = userDAO.updateUser(user);
             
             if (updated) {
+                cacheManager.invalidate(user.getUserID(), InvalidationBus.REGION_USERS, InvalidationBus.REGION_DASHBOARDS);
                 return ServiceResult.success(user, "Cập nhật thông tin thành công");
             } else {
                 return ServiceResult.error("Không thể cập nhật thông tin");
@@ -189,6 +218,7 @@ public class UserService {
             boolean updated = userDAO.updateUser(user);
             
             if (updated) {
+                cacheManager.invalidate(userID, InvalidationBus.REGION_USERS, InvalidationBus.REGION_DASHBOARDS);
                 return ServiceResult.success(null, "Đổi mật khẩu thành công");
             } else {
                 return ServiceResult.error("Không thể dổi mật khẩu");
@@ -201,44 +231,97 @@ public class UserService {
     
     public ServiceResult<UserDashboard> getUserDashboard (int userID) {
         try {
-            User user = userDAO.getUserById(userID);
-            if (user == null) {
-                return ServiceResult.error("Không tìm thấy tài khoản");
+            String key = CacheStore.key(userID);
+            UserDashboard dashboard = cacheManager.getDashboards().get(key);
+            
+            // A cached dashboard is still valid while the user's data version is unchanged
+            if (dashboard == null || dashboard.getDataVersion() != userDAO.getDataVersion(userID)) {
+                if (dashboard != null) {
+                    // The data changed, the profile and recent transactions may be stale until their TTL
+                    cacheManager.getUsers().invalidate(key);
+                    cacheManager.getRecentTransactions().invalidate(CacheStore.key(userID, 5));
+                }
+                dashboard = loadDashboard(userID);
+                if (dashboard == null) {
+                    return ServiceResult.error("Không tìm thấy tài khoản");
+                }
+                cacheManager.getDashboards().put(key, dashboard);
             }
             
-            UserDashboard dashboard = new UserDashboard();
-            dashboard.setUser(user);
-            
-            int currentMonth = DateUtils.getCurrentMonth();
-            int currentYear = DateUtils.getCurrentYear();
-            
-            // Get current month statistics
-            Map<String, Object> monthlyStats = transactionDAO.getMonthlyStatistics(userID, currentMonth, currentYear);
-            dashboard.setCurrentMonthIncome((Double) monthlyStats.get("totalIncome"));
-            dashboard.setCurrentMonthExpense((Double) monthlyStats.get("totalExpense"));
-            dashboard.setCurrentMonthNet((Double) monthlyStats.get("netAmount"));
-            
-            // Get recent transaction
-            List<Transaction> recentTransactions = transactionDAO.getRecentTransactions(userID, 5);
-            dashboard.setRecentTransactions(recentTransactions);
-            
-            // Get budget alerts
-            List<Budget> budgetAlerts = budgetDAO.getBudgetAlerts(userID, currentMonth, currentYear);
-            dashboard.setBudgetAlerts(budgetAlerts);
-            
-            // Get saving progress
-            List<Saving> savings = savingDAO.getSavingsByUser(userID);
-            dashboard.setSavings(savings);
+            return ServiceResult.success(dashboard, "Tải dashboard thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Get current data version of user, clients compare it like an ETag to revalidate cached results
+    public ServiceResult<Long> getDataVersion (int userID) {
+        try {
+            long dataVersion = userDAO.getDataVersion(userID);
+            if (dataVersion < 0) {
+                return ServiceResult.error("Không tìm thấy tài khoản");
+            }
             
-            // Calculate financial heath score
-            dashboard.setFinancialHealthScore(calculateFinancialHealthScore(userID));
+            return ServiceResult.success(dataVersion, "Lấy phiên bản dữ liệu thành công");
+        } catch (Exception e) {
+            return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
+        }
+    }
+    
+    // Get user profile
+    public ServiceResult<User> getUserProfile (int userID) {
+        try {
+            User user = cacheManager.getUsers().getOrLoad(CacheStore.key(userID), () -> userDAO.getUserById(userID));
+            if (user == null) {
+                return ServiceResult.error("Không tìm thấy tài khoản");
+            }
             
-            return ServiceResult.success(dashboard, "Tải dashboard thành công");
+            return ServiceResult.success(user, "Lấy thông tin tài khoản thành công");
         } catch (Exception e) {
             return ServiceResult.error("Lỗi hệ thống: " + e.getMessage());
         }
     }
     
+    // Load dashboard data from database, null if user does not exist
+    private UserDashboard loadDashboard (int userID) {
+        User user = cacheManager.getUsers().getOrLoad(CacheStore.key(userID), () -> userDAO.getUserById(userID));
+        if (user == null) {
+            return null;
+        }
+        
+        UserDashboard dashboard = new UserDashboard();
+        dashboard.setUser(user);
+        // Read before the data, a write during loading then forces a reload next time
+        dashboard.setDataVersion(userDAO.getDataVersion(userID));
+        
+        int currentMonth = DateUtils.getCurrentMonth();
+        int currentYear = DateUtils.getCurrentYear();
+        
+        // Get current month statistics
+        Map<String, Object> monthlyStats = transactionDAO.getMonthlyStatistics(userID, currentMonth, currentYear);
+        dashboard.setCurrentMonthIncome((Double) monthlyStats.get("totalIncome"));
+        dashboard.setCurrentMonthExpense((Double) monthlyStats.get("totalExpense"));
+        dashboard.setCurrentMonthNet((Double) monthlyStats.get("netAmount"));
+        
+        // Get recent transaction
+        List<Transaction> recentTransactions = cacheManager.getRecentTransactions()
+                .getOrLoad(CacheStore.key(userID, 5), () -> transactionDAO.getRecentTransactions(userID, 5));
+        dashboard.setRecentTransactions(recentTransactions);
+        
+        // Get budget alerts
+        List<Budget> budgetAlerts = budgetDAO.getBudgetAlerts(userID, currentMonth, currentYear);
+        dashboard.setBudgetAlerts(budgetAlerts);
+        
+        // Get saving progress
+        List<Saving> savings = savingDAO.getSavingsByUser(userID);
+        dashboard.setSavings(savings);
+        
+        // Calculate financial heath score
+        dashboard.setFinancialHealthScore(calculateFinancialHealthScore(userID));
+        
+        return dashboard;
+    }
+    
     private ServiceResult<Void> validateUserData(String username, String password, 
                                                String confirmPassword, String fullName, 
                                                String email, String phone) {
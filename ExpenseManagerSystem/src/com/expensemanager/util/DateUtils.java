@@ -2,6 +2,7 @@ package com.expensemanager.util;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -128,6 +129,14 @@ public class DateUtils {
         return cal.getTime();
     }
     
+    // First day of the following month, exclusive upper bound for sargable date ranges
+    public static Date getNextMonthStart (int month, int year) {
+        Calendar cal = Calendar.getInstance();
+        cal.set(year, month - 1, 1); // Month is 0-based
+        cal.add(Calendar.MONTH, 1);
+        return cal.getTime();
+    }
+    
     // Compare dates
     public static boolean isSameDay (Date date1, Date date2) {
         if (date1 == null || date2 == null) return false;
@@ -174,6 +183,26 @@ public class DateUtils {
         return cal.get(Calendar.YEAR);
     }
     
+    // Day number since 1970-01-01 in local time, used as a compact date key
+    public static int toEpochDay (Date date) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        return (int) LocalDate.of(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1,
+                cal.get(Calendar.DAY_OF_MONTH)).toEpochDay();
+    }
+    
+    public static java.sql.Date fromEpochDay (long epochDay) {
+        return java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+    
+    public static int getTodayEpochDay () {
+        return (int) LocalDate.now().toEpochDay();
+    }
+    
+    public static int getMonthStartEpochDay (int month, int year) {
+        return (int) LocalDate.of(year, month, 1).toEpochDay();
+    }
+    
     // Validation methods
     public static boolean isValidDateRange (Date startDate, Date endDate) {
         return startDate != null && endDate != null && !startDate.after(endDate);
@@ -0,0 +1,126 @@
+package com.expensemanager.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Money amount stored as a long count of minor units.
+ * The scale matches the DECIMAL(15,2) columns of the database: VND amounts are whole
+ * numbers with a zero fraction, other currencies use cents. Values are exact, so sums
+ * never drift the way repeated double additions do.
+ *
+ * The static helpers work on raw long values and allocate nothing, models and loops
+ * use them; the instance type is for code that wants a value object.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_UNIT = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(double amount) {
+        return ofMinor(toMinor(amount));
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinor(toMinor(amount));
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+    public double toDouble() { return toDouble(minorUnits); }
+    public BigDecimal toBigDecimal() { return toBigDecimal(minorUnits); }
+
+    public Money plus(Money other) { return ofMinor(Math.addExact(minorUnits, other.minorUnits)); }
+    public Money minus(Money other) { return ofMinor(Math.subtractExact(minorUnits, other.minorUnits)); }
+    public Money negate() { return ofMinor(-minorUnits); }
+
+    public boolean isZero() { return minorUnits == 0; }
+    public boolean isPositive() { return minorUnits > 0; }
+    public boolean isNegative() { return minorUnits < 0; }
+
+    // Conversions, rounding half up at the edge only
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_PER_UNIT);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) return 0;
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toDouble(long minorUnits) {
+        return minorUnits / (double) MINOR_PER_UNIT;
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // Allocation-free aggregation helpers
+    public static long sum(long[] minorUnits) {
+        return sum(minorUnits, 0, minorUnits.length);
+    }
+
+    public static long sum(long[] minorUnits, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += minorUnits[i];
+        }
+        return total;
+    }
+
+    // Percentage of part in total, 0 when total is 0
+    public static double percentage(long partMinor, long totalMinor) {
+        if (totalMinor == 0) return 0;
+        return (partMinor * 100.0) / totalMinor;
+    }
+
+    // JDBC edge: DECIMAL columns are read and bound through BigDecimal
+    public static long read(ResultSet rs, String column) throws SQLException {
+        return toMinor(rs.getBigDecimal(column));
+    }
+
+    public static long read(ResultSet rs, int column) throws SQLException {
+        return toMinor(rs.getBigDecimal(column));
+    }
+
+    public static void bind(PreparedStatement ps, int index, long minorUnits) throws SQLException {
+        ps.setBigDecimal(index, toBigDecimal(minorUnits));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return minorUnits == ((Money) o).minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return CurrencyUtils.formatCurrency(toDouble());
+    }
+}